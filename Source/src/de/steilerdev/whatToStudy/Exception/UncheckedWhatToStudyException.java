@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Exception;
+
+/**
+ * This class is wrapping a {@link de.steilerdev.whatToStudy.Exception.WhatToStudyException WhatToStudyException} inside an unchecked exception.
+ * It is thrown by code that can not throw checked exceptions (e.g. a {@link java.util.stream.Stream stream} of cases) and should be unwrapped using {@link #getCause()} by the caller.
+ */
+public class UncheckedWhatToStudyException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new exception wrapping the stated exception, using its detail message.
+     *
+     * @param cause the wrapped exception (which is saved for later retrieval by the {@link #getCause()} method).
+     */
+    public UncheckedWhatToStudyException(WhatToStudyException cause)
+    {
+        super(cause.getMessage(), cause);
+    }
+
+    /**
+     * Returns the wrapped exception.
+     *
+     * @return the wrapped exception.
+     */
+    @Override
+    public synchronized WhatToStudyException getCause()
+    {
+        return (WhatToStudyException) super.getCause();
+    }
+}
@@ -0,0 +1,343 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Functionalities;
+
+import de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException;
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Main;
+import de.steilerdev.whatToStudy.Network.NetworkPool;
+import de.steilerdev.whatToStudy.Utility.CSVStreamer;
+import de.steilerdev.whatToStudy.Utility.CaseFile;
+import de.steilerdev.whatToStudy.Utility.CaseSpliterator;
+import de.steilerdev.whatToStudy.Utility.Compression;
+import de.steilerdev.whatToStudy.Utility.CourseRanking;
+import de.steilerdev.whatToStudy.Utility.Case.Case;
+import de.steilerdev.whatToStudy.Utility.Case.Course;
+import de.steilerdev.whatToStudy.Utility.Case.PackedCase;
+import de.steilerdev.whatToStudy.Utility.Case.Variable;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * This functionality is evaluating a file containing multiple cases, using all available cores.
+ * Every worker is using its own engine checked out from the {@link de.steilerdev.whatToStudy.Network.NetworkPool network pool}, the results are written to the output file in the order of the input file.<br>
+ * Finished results are kept inside a bounded reorder buffer until all previous results are written, therefore the memory usage does not depend on the size of the input file.
+ */
+public class Batch implements Functionality
+{
+    /**
+     * The results of the cases currently processed, stored at the position of their sequence number modulo the buffer size. Guarded by itself.
+     */
+    private Result[] reorderBuffer;
+
+    /**
+     * The amount of free slots within the reorder buffer, the reader blocks if there is no free slot left.
+     */
+    private Semaphore freeSlots;
+
+    /**
+     * The total amount of cases read from the input file, or -1 if the reader has not yet finished. Guarded by the reorder buffer.
+     */
+    private long totalCases = -1;
+
+    /**
+     * The error occurred while writing the output file, if any.
+     */
+    private volatile WhatToStudyException writerError = null;
+
+    /**
+     * This functionality is evaluating all cases of the stated file and writes the recommendation, course ranking and beliefs of every case to the output file.
+     * @param args The command line arguments stated during the call of the application.
+     *             The first argument is "-b", the second one is a CSV case file meeting its requirements, the third one is the file path of the output file and the fourth (optional) one is the file path to a user specified network file.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    @Override
+    public void run(String[] args) throws WhatToStudyException
+    {
+        NetworkPool pool;
+        if(args.length == 3)
+        {   //If there is no network file use the internal file instead.
+            pool = NetworkPool.getPool();
+        } else if (args.length == 4)
+        {   //Use the user specified network
+            pool = NetworkPool.getPool(args[3]);
+        } else
+        {
+            throw new WhatToStudyException("Unable to load network!");
+        }
+
+        int bufferSize = java.lang.Math.max(1, Main.batchBufferSize);
+        reorderBuffer = new Result[bufferSize];
+        freeSlots = new Semaphore(bufferSize);
+        totalCases = -1;
+        writerError = null;
+
+        System.out.println("Starting to evaluate the stated cases using " + pool.getPoolSize() + " workers");
+
+        ExecutorService workers = Executors.newFixedThreadPool(pool.getPoolSize());
+        Thread writer = null;
+        long startTime = System.currentTimeMillis();
+
+        //Only the columns used by the network and the stated course, which is written to the output, are cleaned
+        long projection = pool.getProjection() | PackedCase.mask(Variable.COURSE);
+
+        //The cases are read lazily, the header of a CSV file is validated as soon as the spliterator is created
+        boolean caseFile = CaseFile.isCaseFile(args[1]);
+        try(CaseSpliterator csvCases = caseFile? null: new CaseSpliterator(Compression.openInput(args[1]), true, projection);
+            BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(Compression.openOutput(args[2]))))
+        {
+            Iterator<Case> iterator = caseFile? CaseFile.stream(args[1], projection).iterator(): Spliterators.iterator(csvCases);
+
+            bw.write("Line" + CSVStreamer.cvsSplitBy + "Recommendation" + CSVStreamer.cvsSplitBy + "Ranking" +
+                    Arrays.stream(Course.values()).map(course -> CSVStreamer.cvsSplitBy + "Belief " + course.toString()).collect(Collectors.joining()));
+            bw.newLine();
+
+            writer = new Thread(() -> writeResults(bw), "Batch-Writer");
+            writer.start();
+
+            Evaluate evaluate = new Evaluate();
+            long sequenceNumber = 0;
+            while (writerError == null && iterator.hasNext())
+            {
+                Case currentCase = iterator.next();
+                //The cases of a case file are converted from a CSV file, where every line following the header is a case
+                final int currentLineNumber = caseFile? (int) sequenceNumber + 2: csvCases.getLineNumber();
+
+                //Waiting for a free slot inside the reorder buffer, before handing the case over to a worker.
+                freeSlots.acquire();
+                final long currentSequenceNumber = sequenceNumber++;
+                workers.execute(() -> complete(currentSequenceNumber, evaluateCase(currentLineNumber, currentCase, pool, evaluate)));
+            }
+
+            synchronized (reorderBuffer)
+            {
+                totalCases = sequenceNumber;
+                reorderBuffer.notifyAll();
+            }
+            writer.join();
+
+            if(writerError != null)
+            {
+                throw writerError;
+            }
+
+            System.out.println("Finished evaluating " + sequenceNumber + " cases in " + (System.currentTimeMillis() - startTime) + "ms, the results were written to " + args[2]);
+            System.out.println(Evaluate.getPosteriorCache());
+        } catch (UncheckedWhatToStudyException e)
+        {
+            throw e.getCause();
+        } catch (FileNotFoundException e)
+        {
+            throw new WhatToStudyException("Unable to open the specified file: " + e.getMessage());
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while reading the input file.");
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new WhatToStudyException("Interrupted while evaluating the cases.");
+        } finally
+        {
+            workers.shutdownNow();
+            if(writer != null && writer.isAlive())
+            {
+                writer.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Evaluates a single case for all courses, using the cached posterior or an engine checked out from the pool. Errors, including unexpected runtime exceptions, are stored inside the result instead of aborting the whole batch.
+     * @param lineNumber The line of the case within the input file.
+     * @param currentCase The case that is going to be evaluated.
+     * @param pool The pool providing the engines.
+     * @param evaluate The evaluation functionality used to calculate the posterior.
+     * @return The result of the evaluation.
+     */
+    private Result evaluateCase(int lineNumber, Case currentCase, NetworkPool pool, Evaluate evaluate)
+    {
+        Result result = new Result(lineNumber, currentCase.getCourse());
+        try
+        {
+            //The stated course is removed from the evidence, since the ranking of all courses is needed
+            long evidence = PackedCase.set(PackedCase.encode(currentCase), Variable.COURSE, -1);
+            result.ranking = evaluate.getPosterior(evidence, pool).getRanking();
+        } catch (WhatToStudyException e)
+        {
+            result.error = e.getMessage();
+        } catch (RuntimeException e)
+        {   //The result needs to be completed in any case, otherwise the writer is waiting for it forever.
+            result.error = e.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Stores the result inside the reorder buffer and notifies the writer.
+     * @param sequenceNumber The position of the case within the input file, excluding the header.
+     * @param result The result of the evaluation.
+     */
+    private void complete(long sequenceNumber, Result result)
+    {
+        synchronized (reorderBuffer)
+        {
+            reorderBuffer[(int) (sequenceNumber % reorderBuffer.length)] = result;
+            reorderBuffer.notifyAll();
+        }
+    }
+
+    /**
+     * Writes the results in the order of the input file, waiting for the next result if it is not finished yet. Runs until all cases read by the reader are written.
+     * @param bw The writer of the output file.
+     */
+    private void writeResults(BufferedWriter bw)
+    {
+        long nextSequenceNumber = 0;
+        try
+        {
+            while (true)
+            {
+                Result result;
+                synchronized (reorderBuffer)
+                {
+                    int slot = (int) (nextSequenceNumber % reorderBuffer.length);
+                    while (reorderBuffer[slot] == null && totalCases != nextSequenceNumber)
+                    {
+                        reorderBuffer.wait();
+                    }
+                    if (reorderBuffer[slot] == null)
+                    {   //All cases are written
+                        break;
+                    }
+                    result = reorderBuffer[slot];
+                    reorderBuffer[slot] = null;
+                }
+
+                bw.write(result.toString());
+                bw.newLine();
+                nextSequenceNumber++;
+                freeSlots.release();
+            }
+            bw.flush();
+        } catch (IOException e)
+        {
+            writerError = new WhatToStudyException("Error occurred while writing the output file.");
+        } catch (InterruptedException e)
+        {
+            writerError = new WhatToStudyException("Interrupted while writing the output file.");
+        } finally
+        {
+            if(writerError != null)
+            {   //Unblocking the reader, which is going to stop reading.
+                freeSlots.release(reorderBuffer.length);
+            }
+        }
+    }
+
+    /**
+     * The result of the evaluation of a single case.
+     */
+    private static class Result
+    {
+        /**
+         * The line of the case within the input file.
+         */
+        private final int lineNumber;
+
+        /**
+         * The course stated within the case, or null if the case did not state a course.
+         */
+        private final Course statedCourse;
+
+        /**
+         * The ranking of all courses, or null if an error occurred.
+         */
+        private CourseRanking ranking = null;
+
+        /**
+         * The error message if the evaluation failed.
+         */
+        private String error = null;
+
+        /**
+         * Creates a new result.
+         * @param lineNumber The line of the case within the input file.
+         * @param statedCourse The course stated within the case, or null if the case did not state a course.
+         */
+        private Result(int lineNumber, Course statedCourse)
+        {
+            this.lineNumber = lineNumber;
+            this.statedCourse = statedCourse;
+        }
+
+        /**
+         * Creates the line of the output file, containing the line number, the recommendation, the ranking of the courses in descending order and the belief of every course.
+         * @return The line of the output file.
+         */
+        @Override
+        public String toString()
+        {
+            StringBuilder line = new StringBuilder();
+            line.append(lineNumber).append(CSVStreamer.cvsSplitBy);
+            if(error != null)
+            {
+                line.append("Error: ").append(error);
+                return line.toString();
+            }
+
+            //The recommendation follows the rules of the single case evaluation
+            if(statedCourse != null)
+            {
+                double recommendationFor = ranking.getBelief(statedCourse);
+                if(0.5 > recommendationFor)
+                {
+                    line.append("Not recommended");
+                } else if(recommendationFor > 0.5)
+                {
+                    line.append("Recommended");
+                } else
+                {
+                    line.append("Neither recommended nor discouraged");
+                }
+            }
+
+            if(statedCourse == null)
+            {
+                line.append(ranking.getBestBelief() > 0.5? ranking.getBestCourse().toString(): "None");
+            }
+
+            line.append(CSVStreamer.cvsSplitBy);
+            for(int i = 0; i < ranking.size(); i++)
+            {
+                line.append(i == 0? "": ",").append(ranking.getCourse(i).toString());
+            }
+            for(Course course: Course.values())
+            {
+                line.append(CSVStreamer.cvsSplitBy).append(String.format(Locale.GERMAN, "%.6f", ranking.getBelief(course)));
+            }
+            return line.toString();
+        }
+    }
+}
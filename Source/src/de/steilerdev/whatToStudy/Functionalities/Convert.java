@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Functionalities;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Utility.CaseFile;
+import de.steilerdev.whatToStudy.Utility.Compression;
+import de.steilerdev.whatToStudy.Utility.Case.CaseStore;
+import de.steilerdev.whatToStudy.Utility.Case.PackedCase;
+import de.steilerdev.whatToStudy.Utility.MappedCSVReader;
+import de.steilerdev.whatToStudy.Utility.NeticaCaseReader;
+import de.steilerdev.whatToStudy.Utility.NeticaCaseWriter;
+
+/**
+ * This functionality is converting a CSV case file into a binary {@link de.steilerdev.whatToStudy.Utility.CaseFile case file}, storing the already cleaned cases.
+ * The case file can be used instead of the CSV file by the learning, test and batch functionality, therefore repeated runs on the same data do not need to parse and clean the CSV file again.<br>
+ * If the output file is ending with ".cas", the cleaned cases are exported in the Netica case file format instead. The source can be a CSV file, a binary case file or a Netica case file.<br>
+ * Compressed source files are detected automatically, the output file is gzip compressed if its name is ending with ".gz" (e.g. "cases.cas.gz").
+ */
+public class Convert implements Functionality
+{
+    /**
+     * This functionality is reading and cleaning all cases of the stated CSV file and writes them to the case file.
+     * @param args The command line arguments stated during the call of the application.
+     *             The first argument is "-c", the second one is a CSV case file meeting its requirements (Or a binary case file) and the third one is the file path of the output file.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    @Override
+    public void run(String[] args) throws WhatToStudyException
+    {
+        System.out.println("Converting the cases of " + args[1]);
+        long startTime = System.currentTimeMillis();
+
+        //The final grade and course are optional, to be able to convert files used for evaluation as well
+        CaseStore cases;
+        if(CaseFile.isCaseFile(args[1]))
+        {
+            cases = CaseFile.read(args[1]);
+        } else if(NeticaCaseReader.isNeticaCaseFile(args[1]))
+        {
+            cases = NeticaCaseReader.read(args[1], PackedCase.ALL);
+        } else
+        {
+            cases = MappedCSVReader.read(args[1], true);
+        }
+        if(Compression.stripExtension(args[2]).toLowerCase().endsWith(".cas"))
+        {
+            NeticaCaseWriter.write(cases, args[2]);
+        } else
+        {
+            CaseFile.write(cases, args[2]);
+        }
+
+        System.out.println("Finished converting " + cases.size() + " cases in " + (System.currentTimeMillis() - startTime) + "ms, the case file was written to " + args[2]);
+    }
+}
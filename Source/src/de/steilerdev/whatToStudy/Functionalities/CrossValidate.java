@@ -0,0 +1,316 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Functionalities;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Main;
+import de.steilerdev.whatToStudy.Network.*;
+import de.steilerdev.whatToStudy.Utility.CSVStreamer;
+import de.steilerdev.whatToStudy.Utility.ConfusionMatrix;
+import de.steilerdev.whatToStudy.Utility.Posterior;
+import de.steilerdev.whatToStudy.Utility.Case.*;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This functionality is validating the learning of the internal network using k-fold cross validation.<br>
+ * The cases are read once into a columnar store and randomly partitioned into k folds. For every fold a network is learned from all other folds and tested using the cases of the fold, all folds are processed concurrently using their own pure Java engine.
+ * If the cases are complete, every fold is counted once and the counts of a training set are the total counts minus the counts of the fold, otherwise the EM learning is used for every training set. The warm start and prior configured for the {@link de.steilerdev.whatToStudy.Functionalities.Learn learning} are applied to every training set.
+ * The results of all folds are aggregated into a single {@link de.steilerdev.whatToStudy.Utility.ConfusionMatrix confusion matrix}, rated the same way as {@link de.steilerdev.whatToStudy.Functionalities.Test testing} a network.
+ */
+public class CrossValidate implements Functionality
+{
+    /**
+     * The seed used to partition the cases, fixed to create the same folds on every run.
+     */
+    private static final long partitionSeed = 42;
+
+    /**
+     * All courses, cached since {@link Course#values()} is creating a new array on every call.
+     */
+    private static final Course[] courses = Course.values();
+
+    /**
+     * All final grades, cached since {@link FinalGrade#values()} is creating a new array on every call.
+     */
+    private static final FinalGrade[] finalGrades = FinalGrade.values();
+
+    /**
+     * This functionality is validating the learning of the internal network using k-fold cross validation.
+     * @param args The command line arguments stated during the call of the application.
+     *             The first argument is "-cv", the second one is the amount of folds and the third one is a CSV case file meeting its requirements.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    @Override
+    public void run(String[] args) throws WhatToStudyException
+    {
+        int k;
+        try
+        {
+            k = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e)
+        {
+            throw new WhatToStudyException("The amount of folds needs to be a number: " + args[1]);
+        }
+        if(k < 2)
+        {
+            throw new WhatToStudyException("At least 2 folds are needed for the cross validation.");
+        }
+
+        System.out.println("Starting the " + k + "-fold cross validation of the internal network.");
+        long startTime = System.currentTimeMillis();
+        NetworkDefinition definition = DneReader.read(Thread.currentThread().getContextClassLoader().getResourceAsStream(Main.internalFile));
+        CountingLearner countingLearner = new CountingLearner(definition);
+
+        //Only the columns used by the network and the final grade, needed to rate the result, are cleaned
+        ArrayList<Variable> usedVariables = new ArrayList<>();
+        for(Variable variable: Variable.values())
+        {
+            if(variable == Variable.FINAL_GRADE || definition.getNodeIndex(variable.getHeader()) >= 0)
+            {
+                usedVariables.add(variable);
+            }
+        }
+        CaseStore cases = CSVStreamer.getCaseStore(args[2], PackedCase.mask(usedVariables.toArray(new Variable[usedVariables.size()])));
+        if(cases.size() < k)
+        {
+            throw new WhatToStudyException("The file contains only " + cases.size() + " cases, which is less than the amount of folds.");
+        }
+        CaseStore[] folds = partition(cases, k);
+        System.out.println("Partitioned " + cases.size() + " cases into " + k + " folds.");
+
+        //The folds are learned using the same warm start and prior as the learning of the network
+        NetworkDefinition warmStart = Learn.getWarmStart(definition);
+        double[][] prior = null;
+        if(warmStart != null && Main.equivalentSampleSize > 0)
+        {
+            System.out.println("Using the warm start network as prior with an equivalent sample size of " + Main.equivalentSampleSize + " cases.");
+            prior = new EMLearner(countingLearner, Main.learningIterations, Main.learningTolerance).getPriorCounts(warmStart, Main.equivalentSampleSize);
+        }
+
+        //Complete cases are counted once per fold, the training counts are derived by subtracting the counts of the test fold
+        double[][][] foldCounts = null;
+        double[][] totalCounts = null;
+        if(countingLearner.isComplete(cases))
+        {
+            System.out.println("Learning the folds using the case counting learning algorithm, since the cases are complete.");
+            foldCounts = new double[k][][];
+            totalCounts = countingLearner.newTables();
+            for(int fold = 0; fold < k; fold++)
+            {
+                foldCounts[fold] = countingLearner.count(folds[fold]);
+                EMLearner.addCounts(totalCounts, foldCounts[fold]);
+            }
+        } else
+        {
+            System.out.println("Learning the folds using the EM (Expectation Maximization) learning algorithm with at most " + Main.learningIterations + " iterations, since some values are missing.");
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(java.lang.Math.min(k, Runtime.getRuntime().availableProcessors()));
+        try
+        {
+            ArrayList<Future<FoldResult>> results = new ArrayList<>(k);
+            for(int fold = 0; fold < k; fold++)
+            {
+                final int currentFold = fold;
+                final double[][] trainingCounts = totalCounts == null? null: subtract(totalCounts, foldCounts[fold]);
+                final double[][] foldPrior = prior;
+                if(trainingCounts != null && prior != null)
+                {
+                    EMLearner.addCounts(trainingCounts, prior);
+                }
+                results.add(workers.submit(() -> validateFold(currentFold, folds, trainingCounts, countingLearner, warmStart, foldPrior)));
+            }
+
+            //Aggregating the results in the order of the folds
+            ConfusionMatrix confusionMatrix = new ConfusionMatrix();
+            System.out.println("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
+            for(int fold = 0; fold < k; fold++)
+            {
+                FoldResult result = results.get(fold).get();
+                System.out.println(String.format(Locale.US, "Fold %d: %d test cases, error rate %.4f, non-acceptable error rate %.4f, %d cases not rated%s",
+                        fold + 1, folds[fold].size(), result.confusionMatrix.getErrorRate(), result.confusionMatrix.getNonAcceptableErrorRate(), result.confusionMatrix.getNoResult(),
+                        result.confusionMatrix.getFailures() == 0? "": ", " + result.confusionMatrix.getFailures() + " cases could not be evaluated (" + result.firstError + ")"));
+                confusionMatrix.add(result.confusionMatrix);
+            }
+
+            System.out.println();
+            System.out.println("Finished the cross validation in " + (System.currentTimeMillis() - startTime) + "ms!");
+            System.out.println("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
+            confusionMatrix.print();
+            System.out.println("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
+        } catch (ExecutionException e)
+        {
+            if(e.getCause() instanceof WhatToStudyException)
+            {
+                throw (WhatToStudyException) e.getCause();
+            }
+            throw new WhatToStudyException("Error occurred while validating a fold: " + e.getCause());
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new WhatToStudyException("Interrupted while validating the folds.");
+        } finally
+        {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Learns the network using all folds except the stated one and tests it using the cases of the stated fold.
+     * @param fold The index of the test fold.
+     * @param folds All folds.
+     * @param trainingCounts The counts of all other folds, or null if the cases are not complete and the EM learning needs to be used.
+     * @param countingLearner The learner of the internal network.
+     * @param warmStart The network whose tables are the starting point of the EM learning, or null to start with uniformly distributed tables.
+     * @param prior The prior counts added by the EM learning, or null if no prior is used.
+     * @return The result of the fold.
+     * @throws WhatToStudyException If an error occurs during the learning.
+     */
+    private FoldResult validateFold(int fold, CaseStore[] folds, double[][] trainingCounts, CountingLearner countingLearner, NetworkDefinition warmStart, double[][] prior) throws WhatToStudyException
+    {
+        if(trainingCounts == null)
+        {   //Aggregating the training cases, since the EM learning is propagating every distinct case once per iteration
+            CaseAggregator aggregator = new CaseAggregator();
+            for(int other = 0; other < folds.length; other++)
+            {
+                if(other != fold)
+                {
+                    aggregator.addAll(folds[other]);
+                }
+            }
+            EMLearner emLearner = new EMLearner(countingLearner, Main.learningIterations, Main.learningTolerance, "Fold " + (fold + 1) + ": ");
+            trainingCounts = warmStart == null? emLearner.learn(aggregator.getCaseStore()): emLearner.learn(aggregator.getCaseStore(), warmStart, prior);
+        }
+
+        NetworkDefinition definition = countingLearner.getDefinition();
+        double[][] tables = new double[trainingCounts.length][];
+        for(int node = 0; node < tables.length; node++)
+        {
+            tables[node] = countingLearner.normalize(node, trainingCounts[node]);
+        }
+        JunctionTreeEngine engine = new JunctionTree(definition.withTables(tables)).newEngine();
+
+        //Every fold is using its own model, therefore the posteriors are cached per fold
+        PosteriorCache posteriorCache = new PosteriorCache(Main.posteriorCacheSize);
+        Evaluate evaluate = new Evaluate();
+        FoldResult result = new FoldResult();
+        CaseStore testCases = folds[fold];
+        for(int i = 0; i < testCases.size(); i++)
+        {
+            //Canonical representation of the evidence
+            long evidence = PackedCase.set(testCases.getPacked(i), Variable.FINAL_GRADE, -1);
+            try
+            {
+                Posterior posterior = posteriorCache.get(0, evidence);
+                if(posterior == null)
+                {
+                    engine.retractFindings();
+                    posterior = evaluate.computePosterior(PackedCase.decode(evidence), engine);
+                    posteriorCache.put(0, evidence, posterior);
+                }
+                int course = PackedCase.get(evidence, Variable.COURSE);
+                int finalGrade = testCases.get(i, Variable.FINAL_GRADE);
+                result.confusionMatrix.add(Evaluate.getRecommendation(course < 0? null: courses[course], posterior), finalGrade < 0? null: finalGrades[finalGrade]);
+            } catch (WhatToStudyException e)
+            {   //E.g. a value that was never observed within the training cases, the case is still counted by the aggregated result
+                if(result.confusionMatrix.getFailures() == 0)
+                {
+                    result.firstError = e.getMessage();
+                }
+                result.confusionMatrix.addFailure();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Randomly partitions the cases into folds of (almost) the same size.
+     * @param cases The cases.
+     * @param k The amount of folds.
+     * @return The cases of every fold.
+     */
+    private static CaseStore[] partition(CaseStore cases, int k)
+    {
+        int[] order = new int[cases.size()];
+        for(int i = 0; i < order.length; i++)
+        {
+            order[i] = i;
+        }
+        Random random = new Random(partitionSeed);
+        for(int i = order.length - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        CaseStore[] folds = new CaseStore[k];
+        for(int fold = 0; fold < k; fold++)
+        {
+            folds[fold] = new CaseStore(cases.size() / k + 1, cases.isWeighted());
+        }
+        for(int i = 0; i < order.length; i++)
+        {
+            folds[i % k].add(cases.getPacked(order[i]), cases.getWeight(order[i]));
+        }
+        return folds;
+    }
+
+    /**
+     * Subtracts the counts of a fold from the total counts.
+     * @param totalCounts The counts of all folds.
+     * @param foldCounts The counts of the fold.
+     * @return The counts of all other folds.
+     */
+    private static double[][] subtract(double[][] totalCounts, double[][] foldCounts)
+    {
+        double[][] counts = new double[totalCounts.length][];
+        for(int node = 0; node < counts.length; node++)
+        {
+            counts[node] = new double[totalCounts[node].length];
+            for(int i = 0; i < counts[node].length; i++)
+            {
+                counts[node][i] = totalCounts[node][i] - foldCounts[node][i];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * The result of testing a single fold.
+     */
+    private static class FoldResult
+    {
+        /**
+         * The rated recommendations of the test cases, including the amount of test cases that could not be evaluated.
+         */
+        private final ConfusionMatrix confusionMatrix = new ConfusionMatrix();
+
+        /**
+         * The message of the first error, if any.
+         */
+        private String firstError = null;
+    }
+}
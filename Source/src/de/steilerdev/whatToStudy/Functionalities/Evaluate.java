@@ -18,15 +18,15 @@ package de.steilerdev.whatToStudy.Functionalities;
 
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 import de.steilerdev.whatToStudy.Main;
+import de.steilerdev.whatToStudy.Network.InferenceEngine;
+import de.steilerdev.whatToStudy.Network.NetworkPool;
+import de.steilerdev.whatToStudy.Network.PosteriorCache;
 import de.steilerdev.whatToStudy.Utility.CSVStreamer;
+import de.steilerdev.whatToStudy.Utility.CourseRanking;
+import de.steilerdev.whatToStudy.Utility.Posterior;
 import de.steilerdev.whatToStudy.Utility.Case.*;
 import de.steilerdev.whatToStudy.Utility.Case.Math;
 import de.steilerdev.whatToStudy.Utility.Case.State;
-import norsys.netica.*;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.stream.Collectors;
 
 /**
  * This class is using the stored network or a user defined one to evaluate if the system can recommend the user to study a specific course.
@@ -39,6 +39,11 @@ public class Evaluate implements Functionality
     private static String redFont = (char)27 +"[31m";
     private static String resetFont = (char)27 +"[0m";
 
+    /**
+     * The cache of posteriors, shared by all evaluations.
+     */
+    private static final PosteriorCache posteriorCache = new PosteriorCache(Main.posteriorCacheSize);
+
     /**
      * This function is loading the stored network or a user specified one and evaluates the given data against it. As a result the likeness of a very good or good grade is given.
      * @param args The command line arguments stated during the call of the application.
@@ -48,305 +53,310 @@ public class Evaluate implements Functionality
     @Override
     public void run(String[] args) throws WhatToStudyException
     {
-        Net net = null;
-        Environ env = Environ.getDefaultEnviron();
-        try
+        NetworkPool pool;
+        if(args.length == 2)
+        {   //If there is no network file use the internal file instead.
+            pool = NetworkPool.getPool();
+        } else if (args.length == 3)
+        {   //Use the user specified network
+            pool = NetworkPool.getPool(args[2]);
+        } else
         {
-            System.out.println("Starting to evaluate the stated case");
-            //Creating a new environment that is used as default environment later.
-            if(env == null)
-            {
-                env = new Environ(null);
-            }
+            throw new WhatToStudyException("Unable to load network!");
+        }
 
-            if(args.length == 2)
-            {   //If there is no network file use the internal file instead.
-                System.out.println("Loading network from internal file");
-                net = new Net(new Streamer(Thread.currentThread().getContextClassLoader()
-                        .getResourceAsStream(Main.internalFile), //Getting the network as java.io.InputStream from the Netica file
-                        "StudyNetwork", //Giving the Network a name
-                        env)); //Handling over the Environ
-            } else if (args.length == 3)
-            {   //Load user specified network
-                System.out.println("Loading network from user specified file");
-                net = new Net(new Streamer(args[2]));
-            } else
-            {
-                throw new WhatToStudyException("Unable to load network!");
-            }
+        System.out.println("Starting to evaluate the stated case");
+
+        //Gets the provided case
+        Case currentCase = CSVStreamer.getEvaluationCase(args[1]);
+
+        //Evaluating the case
+        evaluateCase(currentCase, pool);
+    }
 
-            //Gets the provided case
-            Case currentCase = CSVStreamer.getEvaluationCase(args[1]);
+    /**
+     * Evaluates the stated case using the internal network and standard values.
+     * @param currentCase The case that is going to be evaluated
+     * @return The recommended enumeration (Either a {@link de.steilerdev.whatToStudy.Utility.Case.Course Course} or a {@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade FinalGrade} (Recommendation for with FinalGrade.Very_Good, against FinalGrade.Failed or neither FinalGrade.Satisfying).
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public Enum<?> evaluateCase(Case currentCase) throws WhatToStudyException
+    {
+        System.out.println("Starting to evaluate the stated case");
+        return evaluateCase(currentCase, NetworkPool.getPool());
+    }
 
-            //Evaluating the case
-            evaluateCase(currentCase, net, env);
+    /**
+     * Evaluates the stated case using the stated pool. The posterior is taken from the {@link #getPosteriorCache() cache} if the same evidence was already evaluated using the same model, otherwise an engine is checked out from the pool and returned afterwards.
+     * @param currentCase The case that is going to be evaluated
+     * @param pool The pool providing the compiled network.
+     * @return The recommended enumeration (Either a {@link de.steilerdev.whatToStudy.Utility.Case.Course Course} or a {@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade FinalGrade} (Recommendation for with FinalGrade.Very_Good, against FinalGrade.Failed or neither FinalGrade.Satisfying).
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public Enum<?> evaluateCase(Case currentCase, NetworkPool pool) throws WhatToStudyException
+    {
+        return printRecommendation(currentCase.getCourse(), getPosterior(currentCase, pool));
+    }
 
-        } catch (NeticaException e)
+    /**
+     * Evaluates the stated {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed} evidence using the stated pool, without creating a case object. The posterior is taken from the {@link #getPosteriorCache() cache} if the same evidence was already evaluated using the same model.
+     * @param evidence The packed evidence that is going to be evaluated
+     * @param pool The pool providing the compiled network.
+     * @return The recommended enumeration (Either a {@link de.steilerdev.whatToStudy.Utility.Case.Course Course} or a {@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade FinalGrade} (Recommendation for with FinalGrade.Very_Good, against FinalGrade.Failed or neither FinalGrade.Satisfying).
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public Enum<?> evaluateCase(long evidence, NetworkPool pool) throws WhatToStudyException
+    {
+        int course = PackedCase.get(evidence, Variable.COURSE);
+        return printRecommendation(course < 0? null: Course.values()[course], getPosterior(evidence, pool));
+    }
+
+    /**
+     * Evaluates the case using variable values.
+     * @param currentCase The case that is going to be evaluated
+     * @param engine The engine that is going to be used to evaluate the network, without any findings entered
+     * @return The recommended enumeration (Either a {@link de.steilerdev.whatToStudy.Utility.Case.Course Course} or a {@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade FinalGrade} (Recommendation for with FinalGrade.Very_Good, against FinalGrade.Failed or neither FinalGrade.Satisfying).
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public Enum<?> evaluateCase(Case currentCase, InferenceEngine engine) throws WhatToStudyException
+    {
+        return printRecommendation(currentCase.getCourse(), computePosterior(currentCase, engine));
+    }
+
+    /**
+     * Returns the recommendation based on the posterior of the case, without printing it.
+     * @param statedCourse The course stated by the case, or null if the case did not state a course
+     * @param posterior The posterior of the case
+     * @return The recommended enumeration (Either the {@link de.steilerdev.whatToStudy.Utility.Case.Course Course} with the highest belief if no course was stated, or a {@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade FinalGrade} (Recommendation for with FinalGrade.Very_Good, against FinalGrade.Failed or neither FinalGrade.Satisfying).
+     */
+    public static Enum<?> getRecommendation(Course statedCourse, Posterior posterior)
+    {
+        if(statedCourse == null)
         {
-            throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
-        } finally
+            return posterior.getRanking().getBestCourse();
+        }
+
+        //Recommend the course if it is going to be a good or a very good grade
+        double recommendationFor = posterior.getBeliefForRecommendation(statedCourse);
+        if(0.5 > recommendationFor)
+        {
+            return FinalGrade.FAILED;
+        } else if(recommendationFor > 0.5)
+        {
+            return FinalGrade.VERY_GOOD;
+        } else
+        {
+            return FinalGrade.SATISFYING;
+        }
+    }
+
+    /**
+     * Prints the recommendation based on the posterior of the case.
+     * @param statedCourse The course stated by the case, or null if the case did not state a course
+     * @param posterior The posterior of the case
+     * @return The recommended enumeration (Either a {@link de.steilerdev.whatToStudy.Utility.Case.Course Course} or a {@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade FinalGrade} (Recommendation for with FinalGrade.Very_Good, against FinalGrade.Failed or neither FinalGrade.Satisfying).
+     */
+    private Enum<?> printRecommendation(Course statedCourse, Posterior posterior)
+    {
+        if(statedCourse != null) //If the user stated a course, give him a recommendation for or against the course
+        {
+            Enum<?> recommendation = getRecommendation(statedCourse, posterior);
+
+            System.out.println();
+            System.out.println("~~~~~~~~~");
+            if(recommendation == FinalGrade.FAILED)
+            {
+                System.out.println("Based on the stated information we " + boldFont + redFont + "can not recommend" + resetFont + " the student to attend the selected course (" + statedCourse.toString() + ")");
+            } else if(recommendation == FinalGrade.VERY_GOOD)
+            {
+                System.out.println("Based on the stated information we " + boldFont + redFont + "can recommend" + resetFont + " the student to attend the selected course (" + statedCourse.toString() + ")");
+            } else
+            {
+                System.out.println("Based on the stated information we " + boldFont + redFont + "can neither recommend nor discourage" + resetFont + " the student to attend the selected course (" + statedCourse.toString() + ")");
+            }
+            System.out.println("~~~~~~~~~");
+            return recommendation;
+        } else //Else check which course would have the highest belief to get a recommendation
         {
-            if(net != null)
+            //The belief of every course was calculated exactly once
+            CourseRanking ranking = posterior.getRanking();
+            Course recommendedCourse = ranking.getBestCourse();
+
+            System.out.println();
+            System.out.println("~~~~~~~~~");
+            int remainingCourses = 0;
+            if(ranking.getBestBelief() > 0.5)
             {
-                try
-                {
-                    net.finalize();
-                } catch (NeticaException e)
-                {
-                    throw new WhatToStudyException("A Netica based error occurred during the finalization of the net.");
-                }
+                System.out.println("Based on the stated information we recommend the course " + boldFont + redFont + recommendedCourse.toString() + resetFont);
+                System.out.println("The belief for a very good or good grade within the course is " + ranking.getBestBelief());
+                remainingCourses = 1;
+            } else
+            {
+
+                System.out.println("Based on the stated information we " + boldFont + redFont + "do not recommend" + resetFont + " to study anything!");
             }
-            if(env != null)
+            System.out.println("~~~~~~~~~");
+            System.out.println();
+            System.out.println("The remaining course and beliefs in descending order are listed below:");
+            for(int i = remainingCourses; i < ranking.size(); i++)
             {
-                try
-                {
-                    env.finalize();
-                } catch (NeticaException e)
-                {
-                    throw new WhatToStudyException("A Netica based error occurred during the finalization of the net.");
-                }
+                Course nextCourse = ranking.getCourse(i);
+                System.out.println(nextCourse.toString() + "\t\tBelief: " + ranking.getBelief(nextCourse));
             }
+            return recommendedCourse;
         }
     }
 
     /**
-     * Evaluates the stated case using the internal network and standard values.
+     * Returns the posterior of the stated case, the final grade of the case is ignored. If the case is stating a course, only this course is evaluated, otherwise all courses are evaluated.
      * @param currentCase The case that is going to be evaluated
-     * @return The recommended enumeration (Either a {@link de.steilerdev.whatToStudy.Utility.Case.Course Course} or a {@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade FinalGrade} (Recommendation for with FinalGrade.Very_Good, against FinalGrade.Failed or neither FinalGrade.Satisfying).
+     * @param pool The pool providing the compiled network.
+     * @return The posterior of the case.
      * @throws WhatToStudyException If an error occurs.
      */
-    public Enum evaluateCase(Case currentCase) throws WhatToStudyException
+    public Posterior getPosterior(Case currentCase, NetworkPool pool) throws WhatToStudyException
     {
-        Net net = null;
-        Environ env = Environ.getDefaultEnviron();
-        try
-        {
-            System.out.println("Starting to evaluate the stated case");
-            //Creating a new environment that is used as default environment later.
-            if(env == null)
-            {
-                env = new Environ(null);
-            }
-
-            System.out.println("Loading network from internal file");
-            net = new Net(new Streamer(Thread.currentThread().getContextClassLoader()
-                    .getResourceAsStream(Main.internalFile), //Getting the network as java.io.InputStream from the Netica file
-                    "StudyNetwork", //Giving the Network a name
-                    env)); //Handling over the Environ
+        return getPosterior(PackedCase.encode(currentCase), pool);
+    }
 
-            //Evaluating the case
-            return evaluateCase(currentCase, net, env);
+    /**
+     * Returns the posterior of the stated evidence, the final grade of the evidence is ignored. If the evidence is stating a course, only this course is evaluated, otherwise all courses are evaluated.<br>
+     * The posterior is taken from the {@link #getPosteriorCache() cache} if the same evidence was already evaluated using the same model, otherwise an engine is checked out from the pool and returned afterwards.
+     * @param evidence The {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed} evidence.
+     * @param pool The pool providing the compiled network.
+     * @return The posterior of the evidence.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public Posterior getPosterior(long evidence, NetworkPool pool) throws WhatToStudyException
+    {
+        //Canonical representation of the evidence
+        evidence = PackedCase.set(evidence, Variable.FINAL_GRADE, -1);
 
-        } catch (NeticaException e)
+        Posterior posterior = posteriorCache.get(pool.getModelVersion(), evidence);
+        if(posterior == null)
         {
-            throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
-        } finally
-        {
-            if(net != null)
+            InferenceEngine engine = pool.checkOut();
+            try
             {
-                try
-                {
-                    net.finalize();
-                } catch (NeticaException e)
-                {
-                    throw new WhatToStudyException("A Netica based error occurred during the finalization of the net.");
-                }
-            }
-            if(env != null)
+                posterior = computePosterior(PackedCase.decode(evidence), engine);
+            } finally
             {
-                try
-                {
-                    env.finalize();
-                } catch (NeticaException e)
-                {
-                    throw new WhatToStudyException("A Netica based error occurred during the finalization of the net.");
-                }
+                pool.checkIn(engine);
             }
+            posteriorCache.put(pool.getModelVersion(), evidence, posterior);
         }
+        return posterior;
     }
 
     /**
-     * Evaluates the case using variable values.
+     * Calculates the posterior of the stated case, the final grade of the case is ignored. If the case is stating a course, only this course is evaluated, otherwise the network is propagated exactly once per course.
      * @param currentCase The case that is going to be evaluated
-     * @param net The net that is going to be used to evaluate the network
-     * @param env The environment used to evaluate the case
-     * @return The recommended enumeration (Either a {@link de.steilerdev.whatToStudy.Utility.Case.Course Course} or a {@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade FinalGrade} (Recommendation for with FinalGrade.Very_Good, against FinalGrade.Failed or neither FinalGrade.Satisfying).
+     * @param engine The engine that is going to be used to evaluate the network, without any findings entered
+     * @return The posterior of the case.
      * @throws WhatToStudyException If an error occurs.
      */
-    public Enum evaluateCase(Case currentCase, Net net, Environ env) throws WhatToStudyException
+    public Posterior computePosterior(Case currentCase, InferenceEngine engine) throws WhatToStudyException
     {
-        try
+        //Getting all nodes to set their values and calculating the belief.
+        int course      = engine.getNodeIndex(Course.getHeader());
+        int finalGrade  = engine.getNodeIndex(FinalGrade.getHeader());
+        if(course < 0 || finalGrade < 0)
         {
-            //Getting all nodes to set their values and calculating the belief.
-            Node age                    = net.getNode(Age.getHeader());
-            Node course                 = net.getNode(Course.getHeader());
-            Node finalGrade             = net.getNode(FinalGrade.getHeader());
-            Node german                 = net.getNode(German.getHeader());
-            Node math                   = net.getNode(Math.getHeader());
-            Node nationality            = net.getNode(Nationality.getHeader());
-            Node oltGerman              = net.getNode(OLTGerman.getHeader());
-            Node oltMath                = net.getNode(OLTMath.getHeader());
-            Node parentalIncome         = net.getNode(ParentalIncome.getHeader());
-            Node physics                = net.getNode(Physics.getHeader());
-            Node qualification          = net.getNode(Qualification.getHeader());
-            Node qualificationAverage   = net.getNode(QualificationAverage.getHeader());
-            Node schoolType             = net.getNode(SchoolType.getHeader());
-            Node sex                    = net.getNode(Sex.getHeader());
-            Node state                  = net.getNode(State.getHeader());
-            Node studyAbilityTest       = net.getNode(StudyAbilityTest.getHeader());
-
+            throw new WhatToStudyException("The network needs to contain the nodes " + Course.getHeader() + " and " + FinalGrade.getHeader());
+        }
 
-            System.out.println("Compiling network.");
-            net.compile();
+        //Setting all stated values
+        enterFindings(currentCase, engine);
 
-            //Setting all stated values
-            if(age != null && currentCase.getAge() != null){
-                age.finding().enterState(currentCase.getAge().toString());
-            }
-            if(course != null && currentCase.getCourse() != null){
-                course.finding().enterState(currentCase.getCourse().toString());
-            }
-            if(german != null && currentCase.getGerman() != null){
-                german.finding().enterState(currentCase.getGerman().toString());
-            }
-            if(math != null && currentCase.getMath() != null){
-                math.finding().enterState(currentCase.getMath().toString());
-            }
-            if(nationality != null && currentCase.getNationality() != null){
-                nationality.finding().enterState(currentCase.getNationality().toString());
-            }
-            if(oltGerman != null && currentCase.getOLTGerman() != null){
-                oltGerman.finding().enterState(currentCase.getOLTGerman().toString());
-            }
-            if(oltMath != null && currentCase.getOLTMath() != null){
-                oltMath.finding().enterState(currentCase.getOLTMath().toString());
-            }
-            if(physics != null && currentCase.getPhysics() != null){
-                physics.finding().enterState(currentCase.getPhysics().toString());
-            }
-            if(qualification != null && currentCase.getQualification() != null){
-                qualification.finding().enterState(currentCase.getQualification().toString());
-            }
-            if(qualificationAverage != null && currentCase.getQualificationAverage() != null){
-                qualificationAverage.finding().enterState(currentCase.getQualificationAverage().toString());
-            }
-            if(schoolType != null && currentCase.getSchoolType() != null){
-                schoolType.finding().enterState(currentCase.getSchoolType().toString());
-            }
-            if(sex != null && currentCase.getSex() != null){
-                sex.finding().enterState(currentCase.getSex().toString());
-            }
-            if(state != null && currentCase.getState() != null){
-                state.finding().enterState(currentCase.getState().toString());
-            }
-            if(studyAbilityTest != null && currentCase.getStudyAbilityTest() != null){
-                studyAbilityTest.finding().enterState(currentCase.getStudyAbilityTest().toString());
-            }
-            if(parentalIncome != null && currentCase.getParentalIncome() != null){
-                parentalIncome.finding().enterState(currentCase.getParentalIncome().toString());
+        double[][] finalGradeBeliefs = new double[Course.values().length][];
+        if(currentCase.getCourse() != null)
+        {
+            finalGradeBeliefs[currentCase.getCourse().ordinal()] = getFinalGradeBeliefs(engine, finalGrade);
+        } else
+        {
+            for(Course currentCourse: Course.values())
+            {
+                engine.retractFinding(course);
+                engine.enterFinding(course, currentCourse.toString());
+                finalGradeBeliefs[currentCourse.ordinal()] = getFinalGradeBeliefs(engine, finalGrade);
             }
+            engine.retractFinding(course);
+        }
+        return new Posterior(finalGradeBeliefs);
+    }
 
+    /**
+     * Enters all values stated within the case as findings, as long as the network contains the respective node.
+     * @param currentCase The case that is going to be evaluated.
+     * @param engine The engine used to evaluate the case.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public void enterFindings(Case currentCase, InferenceEngine engine) throws WhatToStudyException
+    {
+        enterFinding(engine, Age.getHeader(), currentCase.getAge());
+        enterFinding(engine, Course.getHeader(), currentCase.getCourse());
+        enterFinding(engine, German.getHeader(), currentCase.getGerman());
+        enterFinding(engine, Math.getHeader(), currentCase.getMath());
+        enterFinding(engine, Nationality.getHeader(), currentCase.getNationality());
+        enterFinding(engine, OLTGerman.getHeader(), currentCase.getOLTGerman());
+        enterFinding(engine, OLTMath.getHeader(), currentCase.getOLTMath());
+        enterFinding(engine, Physics.getHeader(), currentCase.getPhysics());
+        enterFinding(engine, Qualification.getHeader(), currentCase.getQualification());
+        enterFinding(engine, QualificationAverage.getHeader(), currentCase.getQualificationAverage());
+        enterFinding(engine, SchoolType.getHeader(), currentCase.getSchoolType());
+        enterFinding(engine, Sex.getHeader(), currentCase.getSex());
+        enterFinding(engine, State.getHeader(), currentCase.getState());
+        enterFinding(engine, StudyAbilityTest.getHeader(), currentCase.getStudyAbilityTest());
+        enterFinding(engine, ParentalIncome.getHeader(), currentCase.getParentalIncome());
+    }
 
-            if(currentCase.getCourse() != null) //If the user stated a course, give him a recommendation for or against the course
-            {
-                //Recommend the course if it is going to be a good or a very good grade
-                double recommendationFor = getBeliefForRecommendation(finalGrade);
-
-                System.out.println();
-                System.out.println("~~~~~~~~~");
-                if(0.5 > recommendationFor)
-                {
-                    System.out.println("Based on the stated information we " + boldFont + redFont + "can not recommend" + resetFont + " the student to attend the selected course (" + currentCase.getCourse().toString() + ")");
-                    System.out.println("~~~~~~~~~");
-                    return FinalGrade.FAILED;
-                } else if(recommendationFor > 0.5)
-                {
-                    System.out.println("Based on the stated information we " + boldFont + redFont + "can recommend" + resetFont + " the student to attend the selected course (" + currentCase.getCourse().toString() + ")");
-                    System.out.println("~~~~~~~~~");
-                    return FinalGrade.VERY_GOOD;
-                } else
-                {
-                    System.out.println("Based on the stated information we " + boldFont + redFont + "can neither recommend nor discourage" + resetFont + " the student to attend the selected course (" + currentCase.getCourse().toString() + ")");
-                    System.out.println("~~~~~~~~~");
-                    return FinalGrade.SATISFYING;
-                }
-            } else //Else check which course would have the highest belief to get a recommendation
+    /**
+     * Enters the stated value as a finding of the node, if the value is stated and the network contains the node.
+     * @param engine The engine used to evaluate the case.
+     * @param header The name of the node.
+     * @param value The value of the node, or null if it was not stated.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    private void enterFinding(InferenceEngine engine, String header, Enum<?> value) throws WhatToStudyException
+    {
+        if(value != null)
+        {
+            int node = engine.getNodeIndex(header);
+            if(node >= 0)
             {
-                //Creating a sorted ArrayList for all courses (descending order)
-                Course recommendedCourse;
-                ArrayList<Course> bestCourseList = Arrays.stream(Course.values())
-                        .sorted((course1, course2) -> {
-                            try
-                            {
-                                return Double.compare(getBeliefForCourse(course2, course, finalGrade), getBeliefForCourse(course1, course, finalGrade));
-                            } catch (NeticaException e)
-                            {
-                                System.err.println("A Netica based error occurred, the result might not be correct. Please try again.");
-                                System.err.println("Details:");
-                                System.err.println(e.getMessage());
-                                //Say both are equal if an error occurs
-                                return 0;
-                            }
-                        }).collect(Collectors.toCollection(ArrayList::new));
-
-                recommendedCourse = bestCourseList.get(0);
-
-                System.out.println();
-                System.out.println("~~~~~~~~~");
-                if(getBeliefForCourse(recommendedCourse, course, finalGrade) > 0.5)
-                {
-                    System.out.println("Based on the stated information we recommend the course " + boldFont + redFont + recommendedCourse.toString() + resetFont);
-                    System.out.println("The belief for a very good or good grade within the course is " + getBeliefForCourse(recommendedCourse, course, finalGrade));
-                    bestCourseList.remove(0);
-                } else
-                {
-
-                    System.out.println("Based on the stated information we " + boldFont + redFont + "do not recommend" + resetFont + " to study anything!");
-                }
-                System.out.println("~~~~~~~~~");
-                System.out.println();
-                System.out.println("The remaining course and beliefs in descending order are listed below:");
-                bestCourseList.stream().forEach(nextCourse -> {
-                    try
-                    {
-                        System.out.println(nextCourse.toString() + "\t\tBelief: " + getBeliefForCourse(nextCourse, course, finalGrade));
-                    } catch (NeticaException e)
-                    {
-                        System.err.println("Unable to get belief for " + nextCourse.toString());
-                    }
-                });
-                return recommendedCourse;
+                engine.enterFinding(node, value.toString());
             }
-        } catch(NeticaException e)
-        {
-            throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
         }
     }
 
     /**
-     * This function returns the belief for a very good or good grade using the selected course.
-     * @param course The selected course
-     * @param courseNode The course node within the network
-     * @param finalGrade The final grade node within the network
-     * @return The belief of having a very good or good grade with the selected course.
-     * @throws NeticaException If an error occurs
+     * This function returns the distribution of the final grade using the information of the current network
+     * @param engine The engine used to evaluate the case
+     * @param finalGrade The index of the final grade node within the network
+     * @return The belief of every final grade, indexed by the ordinal of the final grade.
+     * @throws WhatToStudyException If an error occurs
      */
-    private double getBeliefForCourse(Course course, Node courseNode, Node finalGrade) throws NeticaException
+    private double[] getFinalGradeBeliefs(InferenceEngine engine, int finalGrade) throws WhatToStudyException
     {
-        courseNode.finding().clear();
-        courseNode.finding().enterState(course.toString());
-        return getBeliefForRecommendation(finalGrade);
+        double[] beliefs = new double[FinalGrade.values().length];
+        for(FinalGrade currentGrade: FinalGrade.values())
+        {
+            int state = engine.getStateIndex(finalGrade, currentGrade.toString());
+            if(state < 0)
+            {
+                throw new WhatToStudyException("Unknown state " + currentGrade.toString() + " for node " + FinalGrade.getHeader());
+            }
+            beliefs[currentGrade.ordinal()] = engine.getBelief(finalGrade, state);
+        }
+        return beliefs;
     }
 
     /**
-     * This function returns the belief for recommending studying using the information of the current network
-     * @param finalGrade The final grade node within the network
-     * @return The belief of having a very good or good grade with the selected course.
-     * @throws NeticaException If an error occurs
+     * Returns the process wide cache of posteriors, used by all evaluations using a {@link de.steilerdev.whatToStudy.Network.NetworkPool network pool}.
+     * @return The cache.
      */
-    private double getBeliefForRecommendation(Node finalGrade) throws NeticaException
+    public static PosteriorCache getPosteriorCache()
     {
-        //return finalGrade.getBelief(FinalGrade.VERY_GOOD.toString()) + finalGrade.getBelief(FinalGrade.GOOD.toString());
-        return finalGrade.getBelief(FinalGrade.VERY_GOOD.toString()) + (2*finalGrade.getBelief(FinalGrade.GOOD.toString())/3);
+        return posteriorCache;
     }
 }
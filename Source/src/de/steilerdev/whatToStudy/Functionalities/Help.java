@@ -40,23 +40,57 @@ public class Help implements Functionality
         System.out.println("                            " + boldFont + "Note:" + resetFont + " The file should be a CSV meeting the specifications listed below.");
         System.out.println("                            " + boldFont + "Note:" + resetFont + " The file file path should not contain any (escaped) white spaces.");
         System.out.println("                            " + boldFont + "Optional:" + resetFont + " Pass the Network file as second argument.");
+        System.out.println("    -b <<source file>> <<output file>>:");
+        System.out.println("                            Evaluate all students of the source file in parallel and write the recommendation, course ranking and beliefs of every student to the output file (In the order of the source file).");
+        System.out.println("                            " + boldFont + "Note:" + resetFont + " The file should be a CSV meeting the specifications listed below.");
+        System.out.println("                            " + boldFont + "Note:" + resetFont + " The file file path should not contain any (escaped) white spaces.");
+        System.out.println("                            " + boldFont + "Optional:" + resetFont + " Pass the Network file as third argument.");
+        System.out.println("    -c <<source file>> <<output file>>:");
+        System.out.println("                            Convert the source file into a binary case file, storing the cleaned cases. The case file can be used instead of a CSV file by -l, -t and -b, to skip parsing the CSV file on every run. If the output file ends with .cas, the cleaned cases are exported in the Netica case file format instead. Append .gz to the output file to compress it.");
+        System.out.println("                            " + boldFont + "Note:" + resetFont + " The file should be a CSV meeting the specifications listed below.");
+        System.out.println("                            " + boldFont + "Note:" + resetFont + " The file file path should not contain any (escaped) white spaces.");
         System.out.println("    -h:                     Print help (This message).");
         System.out.println("    -v:                     Print version.");
         System.out.println("    -l <<source file>>:     Learn CPT of the internal network using the source file and writing the result to a new network file.");
         System.out.println("                            " + boldFont + "Note:" + resetFont + " The file should be a CSV meeting the specifications listed below.");
         System.out.println("                            " + boldFont + "Note:" + resetFont + " The file file path should not contain any (escaped) white spaces.");
+        System.out.println("    -u <<source file>> <<network file>>:");
+        System.out.println("                            Add the cases of the source file to a network learned using -l (Learned.dne) or -u, using the statistics stored alongside the network (<<network file>>.stats) instead of learning all previous cases again. The network is created from the internal network if it does not exist.");
+        System.out.println("                            " + boldFont + "Note:" + resetFont + " The file should be a CSV meeting the specifications listed below.");
+        System.out.println("                            " + boldFont + "Note:" + resetFont + " The file file path should not contain any (escaped) white spaces.");
+        System.out.println("    -cv <<k>> <<source file>>:");
+        System.out.println("                            Validate the learning of the internal network using k-fold cross validation: The cases are partitioned into k folds, every fold is tested using a network learned from all other folds. The results of all folds are aggregated like -t.");
+        System.out.println("                            " + boldFont + "Note:" + resetFont + " The file should be a CSV meeting the specifications listed below.");
+        System.out.println("                            " + boldFont + "Note:" + resetFont + " The file file path should not contain any (escaped) white spaces.");
         System.out.println("    -d:                     Draw the internal bayesian network.");
         System.out.println("    -t <<test file>>:       Test the quality of the current network using the provided test file.");
         System.out.println("                            " + boldFont + "Note:" + resetFont + " The file should be a CSV meeting the specifications listed below.");
         System.out.println("                            " + boldFont + "Note:" + resetFont + " The file file path should not contain any (escaped) white spaces.");
         System.out.println("                            " + boldFont + "Optional:" + resetFont + " Pass the Network file as second argument.");
 
+        //System properties
+        System.out.println();
+        System.out.println("System properties (Stated using -D<<property>>=<<value>>):");
+        System.out.println("    whatToStudy.engine:     The inference engine used to evaluate cases, either \"netica\" (default) or \"java\" (Pure Java junction tree, usable by multiple threads at once).");
+        System.out.println("    whatToStudy.poolSize:   The maximum amount of compiled networks kept in memory and the amount of batch workers (Default: Amount of available processors for the \"java\" engine, 1 for the \"netica\" engine, since every Netica network is a separate native copy).");
+        System.out.println("    whatToStudy.batchBuffer: The maximum amount of evaluated cases kept in memory by the batch evaluation (Default: 1024).");
+        System.out.println("    whatToStudy.cacheSize:  The maximum amount of posteriors cached by the evaluation, 0 is disabling the cache (Default: 65536).");
+        System.out.println("    whatToStudy.quarantine: Enables the lenient mode: Invalid lines of the source file are skipped and written to the stated file together with their line number and reason, instead of aborting the run. A summary of the rejected columns is printed at the end.");
+        System.out.println("    whatToStudy.learnIterations: The maximum amount of EM iterations used by -l, if the source file contains missing values (Default: 200).");
+        System.out.println("    whatToStudy.learnTolerance: The relative change of the log-likelihood stopping the EM iterations (Default: 1e-6).");
+        System.out.println("    whatToStudy.warmStart:  A network file with the same structure (e.g. Learned.dne) or \"internal\", whose tables are the starting point of the EM iterations used by -l (Default: Uniformly distributed tables).");
+        System.out.println("    whatToStudy.equivalentSampleSize: The amount of cases the tables of the warm start network are weighted with, as Dirichlet prior of the learned tables (Default: 0, only used as starting point).");
+        System.out.println("    whatToStudy.pseudoCount: The count added to every entry of a learned table, keeping states that were never observed possible, since their findings would be inconsistent otherwise (Default: 0.01).");
+        System.out.println("    whatToStudy.fading:     The factor the previous cases of a network are weighted with, before new cases are added using -u (Default: 1, keeping all previous cases).");
+
         //Input file specification
         System.out.println();
         System.out.println(boldFont + redFont + "Note: Every CSV input file needs to meet the following specifications:" + resetFont);
         System.out.println("\t- Please remove all mutations from the files ('ä', 'ö', 'ü', etc.)");
         System.out.println("\t- Floating point numbers should be in the German format (Decimal point is a \",\")");
         System.out.println("\t- The file needs to be a CSV, where the \";\" character is the delimiter.");
+        System.out.println("\t- The file might be gzip compressed. Output files ending with .gz are compressed as well.");
+        System.out.println("\t- Instead of a CSV file, a binary case file (See -c) or an already cleaned Netica case file (.cas, space separated with the Netica headers of the network nodes) can be used.");
         System.out.println("\t- The file needs to have a valid header and valid values. The following specification apply:");
         System.out.println("\t\t- 1st column: Qualifikation (Abitur, Techniker, FH Reife)");
         System.out.println("\t\t- 2nd column: Schnitt (A floating point number within the range 1.0 to 6.0)");
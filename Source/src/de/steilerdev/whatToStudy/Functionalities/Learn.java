@@ -16,19 +16,33 @@
  */
 package de.steilerdev.whatToStudy.Functionalities;
 
+import de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 import de.steilerdev.whatToStudy.Main;
+import de.steilerdev.whatToStudy.Network.CountingLearner;
+import de.steilerdev.whatToStudy.Network.DneReader;
+import de.steilerdev.whatToStudy.Network.EMLearner;
+import de.steilerdev.whatToStudy.Network.NetworkDefinition;
+import de.steilerdev.whatToStudy.Network.SufficientStatistics;
+import de.steilerdev.whatToStudy.Utility.AtomicFile;
 import de.steilerdev.whatToStudy.Utility.CSVStreamer;
+import de.steilerdev.whatToStudy.Utility.Case.Case;
+import de.steilerdev.whatToStudy.Utility.Case.CaseAggregator;
+import de.steilerdev.whatToStudy.Utility.Case.CaseStore;
+import de.steilerdev.whatToStudy.Utility.Case.PackedCase;
+import de.steilerdev.whatToStudy.Utility.Case.Variable;
 import norsys.netica.*;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
 /**
  * This class is used to learn the CPT's of the network stored network.
  */
 public class Learn implements Functionality
 {
     //Specific options for the learning process
-    private static int learningAlgorithm = Learner.EM_LEARNING;
-    private static int learningIterations = 200;
     private static String outputFileName = "Learned.dne";
 
     /**
@@ -40,8 +54,6 @@ public class Learn implements Functionality
     @Override
     public void run(String[] args) throws WhatToStudyException
     {
-        Learner learner = null;
-        Caseset cases = null;
         Net net = null;
         Environ env = Environ.getDefaultEnviron();
         try
@@ -71,36 +83,45 @@ public class Learn implements Functionality
                 } catch (NeticaException ignoreExceptionInsideLambda) {}
             });
 
-            // Read in the case file into a case set
-            System.out.println("Loading cases from file");
-            cases = new Caseset();
-            Streamer caseFile = CSVStreamer.getNeticaStream(args[1], "LearningStreamer", env);
-            cases.addCases(caseFile, 1.0, null);
+            CaseStore distinctCases = loadCases(args[1], net);
+
+            //If no value of a node is missing, the maximum likelihood CPT's are the normalized counts of the cases, therefore no iterative learning is needed
+            NetworkDefinition definition = DneReader.read(Thread.currentThread().getContextClassLoader().getResourceAsStream(Main.internalFile));
+            CountingLearner countingLearner = new CountingLearner(definition);
+            EMLearner emLearner = new EMLearner(countingLearner, Main.learningIterations, Main.learningTolerance);
 
-            //Configuring learning
-            switch (learningAlgorithm)
+            //The tables of the warm start network are optionally weighted as if they were learned from the stated amount of cases
+            NetworkDefinition warmStart = getWarmStart(definition);
+            double[][] prior = null;
+            if(warmStart != null && Main.equivalentSampleSize > 0)
             {
-                case 1:
-                    System.out.println("Starting learning process, using case counting learning algorithm with " + learningIterations + " iterations.");
-                    break;
-                case 3:
-                    System.out.println("Starting learning process, using EM (Expectation Maximization) learning algorithm with " + learningIterations + " iterations.");
-                    break;
-                case 4:
-                    System.out.println("Starting learning process, using Gradient Descent learning algorithm with " + learningIterations + " iterations.");
-                    break;
-                default:
-                    System.out.println("Starting learning process, using an unknown learning algorithm with " + learningIterations + " iterations.");
+                System.out.println("Using the warm start network as prior with an equivalent sample size of " + Main.equivalentSampleSize + " cases.");
+                prior = emLearner.getPriorCounts(warmStart, Main.equivalentSampleSize);
             }
-            learner = new Learner(learningAlgorithm);
-            learner.setMaxIterations(learningIterations);
 
-            //Starting learning
-            learner.learnCPTs(nodes, cases, 1.0);
+            double[][] counts;
+            if(countingLearner.isComplete(distinctCases))
+            {
+                System.out.println("Starting learning process, using the case counting learning algorithm, since the cases are complete.");
+                long startTime = System.currentTimeMillis();
+                counts = countingLearner.count(distinctCases);
+                if(prior != null)
+                {
+                    EMLearner.addCounts(counts, prior);
+                }
+                System.out.println("Counted the cases in " + (System.currentTimeMillis() - startTime) + "ms.");
+            } else
+            {
+                System.out.println("Starting learning process, using the EM (Expectation Maximization) learning algorithm with at most " + Main.learningIterations + " iterations, since some values are missing.");
+                long startTime = System.currentTimeMillis();
+                counts = warmStart == null? emLearner.learn(distinctCases): emLearner.learn(distinctCases, warmStart, prior);
+                System.out.println("Finished the EM learning in " + (System.currentTimeMillis() - startTime) + "ms.");
+            }
+            setTables(net, countingLearner, counts);
 
-            //Saving the learned CPT's
+            //Saving the learned CPT's and the counts they are based on, which are needed to add new cases later
             System.out.println("Writing file \"" + outputFileName + "\"");
-            net.write(new Streamer(outputFileName));
+            writeNet(net, new SufficientStatistics(countingLearner.getDefinition(), counts), outputFileName);
             System.out.println("Finished learning!");
         } catch (NeticaException e)
         {
@@ -108,26 +129,6 @@ public class Learn implements Functionality
         } finally
         {
             // Closing all resources, not necessary, but a good habit.
-            if (learner != null)
-            {
-                try
-                {
-                    learner.finalize();
-                } catch (NeticaException e)
-                {
-                    throw new WhatToStudyException("A Netica based error occurred during the finalization of the learner.");
-                }
-            }
-            if (cases != null)
-            {
-                try
-                {
-                    cases.finalize();
-                } catch (NeticaException e)
-                {
-                    throw new WhatToStudyException("A Netica based error occurred during the finalization of the case set.");
-                }
-            }
             if(net != null)
             {
                 try
@@ -150,4 +151,130 @@ public class Learn implements Functionality
             }
         }
     }
+
+    /**
+     * Loads the network configured as {@link Main#warmStartFile warm start}.
+     * @param definition The learned network, the warm start network needs to have the same structure.
+     * @return The warm start network, or null if no warm start is configured.
+     * @throws WhatToStudyException If the network could not be loaded or does not match the learned network.
+     */
+    static NetworkDefinition getWarmStart(NetworkDefinition definition) throws WhatToStudyException
+    {
+        if(Main.warmStartFile == null)
+        {
+            return null;
+        }
+        NetworkDefinition warmStart;
+        if(Main.warmStartFile.equals("internal"))
+        {
+            System.out.println("Starting the learning with the tables of the internal network.");
+            warmStart = DneReader.read(Thread.currentThread().getContextClassLoader().getResourceAsStream(Main.internalFile));
+        } else
+        {
+            System.out.println("Starting the learning with the tables of \"" + Main.warmStartFile + "\".");
+            warmStart = DneReader.read(Main.warmStartFile);
+        }
+        if(!definition.hasSameStructure(warmStart))
+        {
+            throw new WhatToStudyException("The warm start network does not have the same nodes, states and parents as the learned network.");
+        }
+        return warmStart;
+    }
+
+    /**
+     * Reads the stated case file, only cleaning the columns of variables that are nodes of the net, and aggregates identical cases into a single weighted case.
+     * @param inputFile The path of the case file.
+     * @param net The net whose nodes are learned.
+     * @return The distinct cases, weighted by their multiplicity.
+     * @throws NeticaException If the nodes of the net could not be accessed.
+     * @throws WhatToStudyException If the file could not be read.
+     */
+    static CaseStore loadCases(String inputFile, Net net) throws NeticaException, WhatToStudyException
+    {
+        //Only the columns of variables that are nodes of the network are cleaned
+        ArrayList<Variable> usedVariables = new ArrayList<>();
+        for(Variable variable: Variable.values())
+        {
+            if(net.getNode(variable.getHeader()) != null)
+            {
+                usedVariables.add(variable);
+            }
+        }
+        long projection = PackedCase.mask(usedVariables.toArray(new Variable[usedVariables.size()]));
+
+        // Read in the case file, aggregating identical cases into a single weighted case
+        System.out.println("Loading cases from file");
+        CaseAggregator aggregator = new CaseAggregator();
+        try(Stream<Case> caseStream = CSVStreamer.streamCases(inputFile, false, projection))
+        {
+            caseStream.forEachOrdered(aggregator::add);
+        } catch (UncheckedWhatToStudyException e)
+        {
+            throw e.getCause();
+        }
+        CaseStore distinctCases = aggregator.getCaseStore();
+        System.out.println("Aggregated " + aggregator.getAddedCases() + " cases into " + distinctCases.size() + " distinct cases.");
+        return distinctCases;
+    }
+
+    /**
+     * Writes the net and the statistics it is based on to the stated file and its {@link SufficientStatistics#getFileName(String) statistics file}. Both files are replaced atomically, therefore a network loaded concurrently is never incomplete.<br>
+     * Both files are completely written before any of them is published. The network is published first: If publishing the statistics fails afterwards, the previous statistics are kept and repeating an update is not adding its cases twice.
+     * @param net The net.
+     * @param statistics The statistics of the net.
+     * @param outputFile The path of the network file.
+     * @throws NeticaException If the net could not be written.
+     * @throws WhatToStudyException If a file could not be written or published.
+     */
+    static void writeNet(Net net, SufficientStatistics statistics, String outputFile) throws NeticaException, WhatToStudyException
+    {
+        String statisticsFile = SufficientStatistics.getFileName(outputFile);
+        Path statisticsTemporary = statistics.writeTemporary(statisticsFile);
+        Path netTemporary = AtomicFile.createTemporary(outputFile);
+        try
+        {
+            net.write(new Streamer(netTemporary.toString()));
+            AtomicFile.publish(netTemporary, outputFile);
+        } catch (NeticaException | WhatToStudyException e)
+        {
+            AtomicFile.discard(netTemporary);
+            AtomicFile.discard(statisticsTemporary);
+            throw e;
+        }
+        AtomicFile.publish(statisticsTemporary, statisticsFile);
+    }
+
+    /**
+     * Writes the normalized counts of every node into the conditional probability tables of the net, the total weight of every parent configuration is stored as experience.
+     * @param net The net receiving the tables.
+     * @param countingLearner The learner that counted the cases.
+     * @param counts The counts of every node, as returned by {@link CountingLearner#count(CaseStore)} or the expected counts returned by {@link EMLearner#learn(CaseStore)}.
+     * @throws NeticaException If a table could not be set.
+     * @throws WhatToStudyException If a node of the learner is not part of the net.
+     */
+    static void setTables(Net net, CountingLearner countingLearner, double[][] counts) throws NeticaException, WhatToStudyException
+    {
+        NetworkDefinition definition = countingLearner.getDefinition();
+        for(int nodeIndex = 0; nodeIndex < definition.getNumNodes(); nodeIndex++)
+        {
+            Node node = net.getNode(definition.getNodeName(nodeIndex));
+            if(node == null)
+            {
+                throw new WhatToStudyException("The node " + definition.getNodeName(nodeIndex) + " is not part of the net");
+            }
+            int numStates = definition.getNumStates(nodeIndex);
+            double[] table = countingLearner.normalize(nodeIndex, counts[nodeIndex]);
+            float[] probabilities = new float[numStates];
+            for(int configuration = 0; configuration < definition.getNumParentConfigurations(nodeIndex); configuration++)
+            {
+                for(int state = 0; state < numStates; state++)
+                {
+                    probabilities[state] = (float) table[configuration * numStates + state];
+                }
+                int[] parentStates = countingLearner.getParentStates(nodeIndex, configuration);
+                node.setCPTable(parentStates, probabilities);
+                node.setExperTable(parentStates, countingLearner.getExperience(nodeIndex, counts[nodeIndex], configuration));
+            }
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Functionalities;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Main;
+import de.steilerdev.whatToStudy.Network.CountingLearner;
+import de.steilerdev.whatToStudy.Network.DneReader;
+import de.steilerdev.whatToStudy.Network.EMLearner;
+import de.steilerdev.whatToStudy.Network.NetworkDefinition;
+import de.steilerdev.whatToStudy.Network.SufficientStatistics;
+import de.steilerdev.whatToStudy.Utility.Case.CaseStore;
+import norsys.netica.*;
+
+import java.io.File;
+
+/**
+ * This class is used to add new cases to a previously learned network, without learning all previous cases again.<br>
+ * The {@link de.steilerdev.whatToStudy.Network.SufficientStatistics statistics} stored alongside the network are optionally faded, so older cases weigh less, before the counts of the new cases are added.
+ * Afterwards the statistics and the network are replaced atomically. Therefore the cost of an update is only depending on the amount of new cases.
+ */
+public class Update implements Functionality
+{
+    /**
+     * This function is adding the cases of the stated file to the stated network.
+     * @param args The command line arguments stated during the call of the application.
+     *             The first argument is "-u", the second one is a CSV case file meeting its requirements and the third one is the file path of the network learned using "-l" or "-u", which is created from the internal network if it does not exist.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    @Override
+    public void run(String[] args) throws WhatToStudyException
+    {
+        //A factor outside of this range would create negative or inflated counts, which are stored inside the statistics
+        if(!(Main.fadingFactor >= 0.0 && Main.fadingFactor <= 1.0))
+        {
+            throw new WhatToStudyException("The fading factor needs to be between 0 and 1, but is " + Main.fadingFactor);
+        }
+
+        String networkFile = args[2];
+        String statisticsFile = SufficientStatistics.getFileName(networkFile);
+        Net net = null;
+        Environ env = Environ.getDefaultEnviron();
+        try
+        {
+            System.out.println("Starting to add the stated cases to the network \"" + networkFile + "\".");
+
+            //Creating a new environment that is used as default environment later.
+            if(env == null)
+            {
+                env = new Environ(null);
+            }
+
+            NetworkDefinition definition;
+            SufficientStatistics statistics;
+            if(new File(networkFile).exists())
+            {
+                if(!new File(statisticsFile).exists())
+                {
+                    throw new WhatToStudyException("The statistics of the network are missing (" + statisticsFile + "), the network needs to be learned using -l first.");
+                }
+                System.out.println("Loading network and statistics.");
+                net = new Net(new Streamer(networkFile, env));
+                definition = DneReader.read(networkFile);
+                statistics = SufficientStatistics.read(definition, statisticsFile);
+                System.out.println("The statistics are holding a total weight of " + statistics.getTotalWeight() + " cases.");
+            } else
+            {
+                System.out.println("The network does not exist yet, starting with the internal network without any cases.");
+                net = new Net(new Streamer(Thread.currentThread().getContextClassLoader()
+                        .getResourceAsStream(Main.internalFile), //Getting the network as java.io.InputStream from the Netica file
+                        "StudyNetwork", //Giving the Network a name
+                        env)); //Handling over the Environ
+                definition = DneReader.read(Thread.currentThread().getContextClassLoader().getResourceAsStream(Main.internalFile));
+                statistics = new SufficientStatistics(definition);
+            }
+
+            CaseStore newCases = Learn.loadCases(args[1], net);
+
+            //Complete cases are counted, otherwise their expected counts are calculated using the current network
+            CountingLearner countingLearner = new CountingLearner(definition);
+            double[][] counts;
+            long startTime = System.currentTimeMillis();
+            if(countingLearner.isComplete(newCases))
+            {
+                System.out.println("Counting the new cases, since they are complete.");
+                counts = countingLearner.count(newCases);
+            } else
+            {
+                System.out.println("Calculating the expected counts of the new cases using the current network, since some values are missing.");
+                counts = new EMLearner(countingLearner, 1, 0.0).expect(definition, newCases);
+            }
+            System.out.println("Processed the new cases in " + (System.currentTimeMillis() - startTime) + "ms.");
+
+            if(Main.fadingFactor != 1.0)
+            {
+                System.out.println("Fading the previous cases by " + Main.fadingFactor + ".");
+            }
+            statistics.fade(Main.fadingFactor);
+            statistics.add(counts);
+            Learn.setTables(net, countingLearner, statistics.getCounts());
+
+            //The network is published before the statistics, therefore a failed update can be repeated without counting its cases twice
+            System.out.println("Writing file \"" + networkFile + "\"");
+            Learn.writeNet(net, statistics, networkFile);
+            System.out.println("Finished updating, the network is based on a total weight of " + statistics.getTotalWeight() + " cases.");
+        } catch (NeticaException e)
+        {
+            throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
+        } finally
+        {
+            // Closing all resources, not necessary, but a good habit.
+            if(net != null)
+            {
+                try
+                {
+                    net.finalize();
+                } catch (NeticaException e)
+                {
+                    throw new WhatToStudyException("A Netica based error occurred during the finalization of the net.");
+                }
+            }
+            if(env != null)
+            {
+                try
+                {
+                    env.finalize();
+                } catch (NeticaException e)
+                {
+                    throw new WhatToStudyException("A Netica based error occurred during the finalization of the environment.");
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package de.steilerdev.whatToStudy;
 
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 import de.steilerdev.whatToStudy.Functionalities.*;
+import de.steilerdev.whatToStudy.Network.NetworkPool;
+import de.steilerdev.whatToStudy.Utility.Quarantine;
 
 import java.text.NumberFormat;
 import java.util.Arrays;
@@ -25,6 +27,87 @@ public class Main {
      */
     public static final String internalFile = "de/steilerdev/whatToStudy/Network/StudyNet.dne";
 
+    /**
+     * The {@link de.steilerdev.whatToStudy.Network.InferenceEngine inference engine} used to evaluate cases, configurable using the system property "whatToStudy.engine".
+     * Either "netica" (The native Netica library) or "java" (A pure Java junction tree engine, that is not limited to a single thread).
+     */
+    public static String inferenceEngine = System.getProperty("whatToStudy.engine", "netica");
+
+    /**
+     * The maximum amount of compiled networks kept by each {@link de.steilerdev.whatToStudy.Network.NetworkPool network pool}, configurable using the system property "whatToStudy.poolSize".
+     * Every Netica engine is holding its own native copy of the network, therefore only the pure Java engines (Sharing a single junction tree) are using all available processors by default.
+     */
+    public static int networkPoolSize = Integer.getInteger("whatToStudy.poolSize", inferenceEngine.equals("java")? Runtime.getRuntime().availableProcessors(): 1);
+
+    /**
+     * The maximum amount of evaluated cases kept in memory by the batch evaluation, while waiting for the previous cases to be written, configurable using the system property "whatToStudy.batchBuffer".
+     */
+    public static int batchBufferSize = Integer.getInteger("whatToStudy.batchBuffer", 1024);
+
+    /**
+     * The maximum amount of posteriors kept by the {@link de.steilerdev.whatToStudy.Network.PosteriorCache cache} of the evaluation, configurable using the system property "whatToStudy.cacheSize" (0 is disabling the cache).
+     */
+    public static int posteriorCacheSize = Integer.getInteger("whatToStudy.cacheSize", 65536);
+
+    /**
+     * The file receiving invalid lines of the read CSV files, configurable using the system property "whatToStudy.quarantine".
+     * If stated, the lenient mode is enabled and invalid lines are skipped and written to this file by the {@link de.steilerdev.whatToStudy.Utility.Quarantine quarantine}, instead of aborting the run.
+     */
+    public static String quarantineFile = System.getProperty("whatToStudy.quarantine");
+
+    /**
+     * The maximum amount of iterations of the EM learning, used if the cases are not complete, configurable using the system property "whatToStudy.learnIterations".
+     */
+    public static int learningIterations = Integer.getInteger("whatToStudy.learnIterations", 200);
+
+    /**
+     * The relative change of the log-likelihood between two iterations, below which the EM learning is stopped, configurable using the system property "whatToStudy.learnTolerance".
+     */
+    public static double learningTolerance = getDouble("whatToStudy.learnTolerance", 1e-6);
+
+    /**
+     * The network whose tables are used as starting point of the EM learning (Warm start), configurable using the system property "whatToStudy.warmStart".
+     * Either the path of a network file with the same structure as the internal network (e.g. a previously learned network) or "internal" to use the internal network. If not stated, the EM learning starts with uniformly distributed tables.
+     */
+    public static String warmStartFile = System.getProperty("whatToStudy.warmStart");
+
+    /**
+     * The amount of cases the tables of the {@link #warmStartFile warm start network} are weighted with (Equivalent sample size of a Dirichlet prior), configurable using the system property "whatToStudy.equivalentSampleSize".
+     * If 0 (Default), the warm start network is only the starting point of the EM learning and does not influence the learned tables.
+     */
+    public static double equivalentSampleSize = getDouble("whatToStudy.equivalentSampleSize", 0);
+
+    /**
+     * The count added to every entry of a learned conditional probability table (Dirichlet prior), configurable using the system property "whatToStudy.pseudoCount".
+     * It keeps every state possible, even if it was never observed within a parent configuration, therefore the evaluation of a student is never failing because of inconsistent findings.
+     */
+    public static double pseudoCount = getDouble("whatToStudy.pseudoCount", 0.01);
+
+    /**
+     * The factor the previous cases of a network are weighted with, before new cases are added using "-u", configurable using the system property "whatToStudy.fading".
+     * A factor of 1 (Default) is keeping all previous cases, smaller factors let older cohorts weigh less.
+     */
+    public static double fadingFactor = getDouble("whatToStudy.fading", 1);
+
+    /**
+     * Returns the value of a system property as floating point number. Like {@link Integer#getInteger(String, int)}, the default value is used if the property is not stated or not a valid number, therefore a malformed property is not preventing the application from starting.
+     * @param name The name of the system property.
+     * @param defaultValue The value used if the property is not stated or invalid.
+     * @return The value of the property.
+     */
+    private static double getDouble(String name, double defaultValue)
+    {
+        String value = System.getProperty(name);
+        if(value != null)
+        {
+            try
+            {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException ignored) {}
+        }
+        return defaultValue;
+    }
+
     /**
      * This function is called, at the startup of the application.
      * It creates a new object, that is handling the terminal interface.
@@ -74,6 +157,24 @@ public class Main {
             } else if(args[0].equals("-t"))
             {
                 program = new Test();
+            } else if(args[0].equals("-b"))
+            {
+                program = new Batch();
+            } else if(args[0].equals("-c"))
+            {
+                program = new Convert();
+            } else if(args[0].equals("-u"))
+            {
+                program = new Update();
+            } else if(args[0].equals("-cv"))
+            {
+                program = new CrossValidate();
+            }
+        } else if(args.length == 4)
+        {
+            if(args[0].equals("-b"))
+            {
+                program = new Batch();
             }
         }
 
@@ -92,6 +193,25 @@ public class Main {
         } catch(WhatToStudyException e)
         {
             System.err.println("Error occurred during runtime: " + e.getMessage());
+        } finally
+        {
+            //Writing the remaining invalid lines and printing their summary.
+            try
+            {
+                Quarantine.shutdown();
+            } catch (WhatToStudyException e)
+            {
+                System.err.println("Error occurred during shutdown: " + e.getMessage());
+            }
+
+            //Releasing all networks loaded during the runtime.
+            try
+            {
+                NetworkPool.shutdown();
+            } catch (WhatToStudyException e)
+            {
+                System.err.println("Error occurred during shutdown: " + e.getMessage());
+            }
         }
     }
 }
@@ -0,0 +1,332 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Main;
+import de.steilerdev.whatToStudy.Utility.Case.CaseStore;
+import de.steilerdev.whatToStudy.Utility.Case.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is learning the conditional probability tables of a network from complete cases, by counting the weighted cases of every parent configuration (The maximum likelihood estimate, if no value is missing).<br>
+ * The case store is split into chunks, which are claimed by one task per core of the fork join pool. Every task is counting its chunks into its own tables, afterwards the tables are merged and normalized.
+ */
+public class CountingLearner
+{
+    /**
+     * The minimum amount of cases counted by a single task.
+     */
+    private static final int minChunkSize = 16384;
+
+    /**
+     * The structure of the learned network.
+     */
+    private final NetworkDefinition definition;
+
+    /**
+     * The variable of every node, indexed by the index of the node.
+     */
+    private final Variable[] variables;
+
+    /**
+     * The state of every value of the variable of every node, indexed by the index of the node and the ordinal of the value.
+     */
+    private final int[][] states;
+
+    /**
+     * Creates a new learner for the stated network, every node needs to be a {@link de.steilerdev.whatToStudy.Utility.Case.Variable variable}.
+     * @param definition The structure of the network.
+     * @throws WhatToStudyException If a node of the network is not a known variable.
+     */
+    public CountingLearner(NetworkDefinition definition) throws WhatToStudyException
+    {
+        this.definition = definition;
+        variables = new Variable[definition.getNumNodes()];
+        states = new int[definition.getNumNodes()][];
+        for(Variable variable: Variable.values())
+        {
+            int node = definition.getNodeIndex(variable.getHeader());
+            if(node >= 0)
+            {
+                variables[node] = variable;
+                states[node] = new int[variable.getNumValues()];
+                Arrays.fill(states[node], -1);
+                String[] stateNames = definition.getStateNames(node);
+                for(int state = 0; state < stateNames.length; state++)
+                {
+                    //States that are not a value of the variable (e.g. "NA" of an income) are never counted
+                    Enum<?> value = variable.getValue(stateNames[state]);
+                    if(value != null)
+                    {
+                        states[node][value.ordinal()] = state;
+                    }
+                }
+            }
+        }
+        for(int node = 0; node < variables.length; node++)
+        {
+            if(variables[node] == null)
+            {
+                throw new WhatToStudyException("The node " + definition.getNodeName(node) + " is not a known variable");
+            }
+        }
+    }
+
+    /**
+     * Checks if the stated cases are complete, meaning every case is stating a value for every node of the network that is a state of the node, which is mandatory for the counting learner.
+     * @param cases The cases.
+     * @return True if no value of a node is missing or unknown, false otherwise.
+     */
+    public boolean isComplete(CaseStore cases)
+    {
+        for(int node = 0; node < variables.length; node++)
+        {
+            byte[] column = cases.getColumn(variables[node]);
+            for(int i = 0; i < cases.size(); i++)
+            {
+                if(getState(node, column[i]) < 0)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the weighted cases of every state and parent configuration of every node, using all available cores.
+     * @param cases The complete cases.
+     * @return The counts of every node, using the layout of the tables of the {@link de.steilerdev.whatToStudy.Network.NetworkDefinition network definition}.
+     * @throws WhatToStudyException If a value of a node is missing or not a state of the node.
+     */
+    public double[][] count(CaseStore cases) throws WhatToStudyException
+    {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = java.lang.Math.max(minChunkSize, cases.size() / (4 * parallelism) + 1);
+        int numChunks = (cases.size() + chunkSize - 1) / chunkSize;
+
+        //The chunks are claimed dynamically, but only one set of tables is allocated per task
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        AtomicInteger nextChunk = new AtomicInteger();
+        ArrayList<ForkJoinTask<double[][]>> tasks = new ArrayList<>();
+        for(int task = 0; task < java.lang.Math.max(1, java.lang.Math.min(parallelism, numChunks)); task++)
+        {
+            tasks.add(pool.submit(() -> countChunks(cases, chunkSize, numChunks, nextChunk)));
+        }
+
+        double[][] counts = null;
+        for(ForkJoinTask<double[][]> task: tasks)
+        {
+            double[][] taskCounts = task.join();
+            if(taskCounts == null)
+            {
+                throw new WhatToStudyException("The cases are not complete or contain an unknown state, unable to learn by counting");
+            } else if(counts == null)
+            {
+                counts = taskCounts;
+            } else
+            {
+                for(int node = 0; node < counts.length; node++)
+                {
+                    for(int i = 0; i < counts[node].length; i++)
+                    {
+                        counts[node][i] += taskCounts[node][i];
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Normalizes the counts of a node into its conditional probability table. The {@link de.steilerdev.whatToStudy.Main#pseudoCount pseudo count} is added to every entry (Dirichlet prior), therefore a state never seen within a parent configuration keeps a small probability and the findings of an unseen combination are never inconsistent with the learned network.
+     * Parent configurations without any case are uniformly distributed.
+     * @param node The index of the node.
+     * @param counts The counts of the node, as returned by {@link #count(CaseStore)}.
+     * @return The conditional probability table, using the layout of the tables of the {@link de.steilerdev.whatToStudy.Network.NetworkDefinition network definition}.
+     */
+    public double[] normalize(int node, double[] counts)
+    {
+        int numStates = definition.getNumStates(node);
+        double pseudoCount = java.lang.Math.max(0.0, Main.pseudoCount);
+        double[] table = new double[counts.length];
+        for(int start = 0; start < counts.length; start += numStates)
+        {
+            double total = getExperience(node, counts, start / numStates) + pseudoCount * numStates;
+            for(int state = 0; state < numStates; state++)
+            {
+                table[start + state] = total > 0? (counts[start + state] + pseudoCount) / total: 1.0 / numStates;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the total weight of the cases of a parent configuration of a node.
+     * @param node The index of the node.
+     * @param counts The counts of the node, as returned by {@link #count(CaseStore)}.
+     * @param configuration The index of the parent configuration, where the first parent is the most significant.
+     * @return The total weight of the cases of the parent configuration.
+     */
+    public double getExperience(int node, double[] counts, int configuration)
+    {
+        int numStates = definition.getNumStates(node);
+        double total = 0;
+        for(int state = 0; state < numStates; state++)
+        {
+            total += counts[configuration * numStates + state];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the states of the parents of a parent configuration.
+     * @param node The index of the node.
+     * @param configuration The index of the parent configuration, where the first parent is the most significant.
+     * @return The state of every parent, in the order of the parents of the node.
+     */
+    public int[] getParentStates(int node, int configuration)
+    {
+        int[] parents = definition.getParents(node);
+        int[] parentStates = new int[parents.length];
+        for(int i = parents.length - 1; i >= 0; i--)
+        {
+            int numStates = definition.getNumStates(parents[i]);
+            parentStates[i] = configuration % numStates;
+            configuration /= numStates;
+        }
+        return parentStates;
+    }
+
+    /**
+     * Returns the structure of the learned network.
+     * @return The network definition.
+     */
+    public NetworkDefinition getDefinition()
+    {
+        return definition;
+    }
+
+    /**
+     * Returns the variable of a node.
+     * @param node The index of the node.
+     * @return The variable.
+     */
+    Variable getVariable(int node)
+    {
+        return variables[node];
+    }
+
+    /**
+     * Counts the chunks claimed by the calling task into new tables, until all chunks are claimed.
+     * @param cases The cases.
+     * @param chunkSize The amount of cases of a chunk.
+     * @param numChunks The amount of chunks.
+     * @param nextChunk The index of the next unclaimed chunk, shared by all tasks.
+     * @return The counts of every node, or null if a value of a node is missing or unknown.
+     */
+    private double[][] countChunks(CaseStore cases, int chunkSize, int numChunks, AtomicInteger nextChunk)
+    {
+        double[][] counts = newTables();
+        int chunk;
+        while((chunk = nextChunk.getAndIncrement()) < numChunks)
+        {
+            int from = chunk * chunkSize;
+            if(!countChunk(cases, from, java.lang.Math.min(cases.size(), from + chunkSize), counts))
+            {   //The remaining chunks are not claimed by any task anymore
+                nextChunk.set(numChunks);
+                return null;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the cases of a chunk into the stated tables, scanning the columns of the store.
+     * @param cases The cases.
+     * @param from The index of the first case of the chunk.
+     * @param to The index following the last case of the chunk.
+     * @param counts The tables of the calling task, receiving the counts of every node.
+     * @return True if the chunk was counted, false if a value of a node is missing or unknown.
+     */
+    private boolean countChunk(CaseStore cases, int from, int to, double[][] counts)
+    {
+        byte[][] columns = new byte[variables.length][];
+        for(int node = 0; node < variables.length; node++)
+        {
+            columns[node] = cases.getColumn(variables[node]);
+        }
+
+        for(int node = 0; node < variables.length; node++)
+        {
+            int[] parents = definition.getParents(node);
+            int numStates = definition.getNumStates(node);
+            double[] nodeCounts = counts[node];
+            for(int i = from; i < to; i++)
+            {
+                int index = 0;
+                for(int parent: parents)
+                {
+                    int state = getState(parent, columns[parent][i]);
+                    if(state < 0)
+                    {
+                        return false;
+                    }
+                    index = index * definition.getNumStates(parent) + state;
+                }
+                int state = getState(node, columns[node][i]);
+                if(state < 0)
+                {
+                    return false;
+                }
+                nodeCounts[index * numStates + state] += cases.isWeighted()? cases.getWeight(i): 1.0;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the state of a node matching the stated value.
+     * @param node The index of the node.
+     * @param ordinal The ordinal of the value, or {@link CaseStore#MISSING}.
+     * @return The index of the state, or -1 if the value is missing or not a state of the node.
+     */
+    int getState(int node, byte ordinal)
+    {
+        return ordinal == CaseStore.MISSING? -1: states[node][ordinal];
+    }
+
+    /**
+     * Creates empty tables for all nodes.
+     * @return The tables, using the layout of the tables of the network definition.
+     */
+    public double[][] newTables()
+    {
+        double[][] tables = new double[variables.length][];
+        for(int node = 0; node < variables.length; node++)
+        {
+            tables[node] = new double[definition.getNumParentConfigurations(node) * definition.getNumStates(node)];
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,453 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class reads the discrete nodes, their states, parents and conditional probability tables from a Netica .dne file, without using Netica.
+ * All other information stored in the file (e.g. visual information) is skipped.
+ */
+public class DneReader
+{
+    /**
+     * The character marking the end of the input.
+     */
+    private static final int endOfFile = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[1 << 16];
+    private int bufferPosition = 0;
+    private int bufferLength = 0;
+    private int lineNumber = 1;
+
+    /**
+     * The token read most recently.
+     */
+    private final StringBuilder token = new StringBuilder();
+
+    //The information read so far
+    private String networkName = null;
+    private final ArrayList<String> nodeNames = new ArrayList<>();
+    private final ArrayList<String[]> stateNames = new ArrayList<>();
+    private final ArrayList<String[]> parentNames = new ArrayList<>();
+    private final ArrayList<double[]> tables = new ArrayList<>();
+
+    /**
+     * Creates a new reader for the stated stream.
+     * @param reader The characters of the .dne file.
+     */
+    private DneReader(Reader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the network definition stored within the stated file.
+     * @param networkFile The path of the .dne file.
+     * @return The network definition.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public static NetworkDefinition read(String networkFile) throws WhatToStudyException
+    {
+        try
+        {
+            return read(new FileInputStream(networkFile));
+        } catch (FileNotFoundException e)
+        {
+            throw new WhatToStudyException("Unable to find the specified file " + networkFile);
+        }
+    }
+
+    /**
+     * Reads the network definition stored within the stated stream. The stream is closed afterwards.
+     * @param inputStream The stream containing the .dne file.
+     * @return The network definition.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public static NetworkDefinition read(InputStream inputStream) throws WhatToStudyException
+    {
+        if(inputStream == null)
+        {
+            throw new WhatToStudyException("Unable to find the network file");
+        }
+        try(Reader reader = new InputStreamReader(inputStream, "ISO-8859-1"))
+        {
+            return new DneReader(reader).readNetwork();
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("An IO related error occurred while reading the network file.");
+        }
+    }
+
+    /**
+     * Reads the whole network and creates the definition.
+     * @return The network definition.
+     * @throws IOException If an IO error occurs.
+     * @throws WhatToStudyException If the file does not meet the expected format.
+     */
+    private NetworkDefinition readNetwork() throws IOException, WhatToStudyException
+    {
+        //Skipping everything before the network
+        while(nextToken())
+        {
+            if(tokenEquals("bnet"))
+            {
+                break;
+            }
+        }
+        if(!nextToken())
+        {
+            throw error("Unable to find a network");
+        }
+        networkName = token.toString();
+        expect("{");
+
+        while(true)
+        {
+            if(!nextToken())
+            {
+                throw error("Unexpected end of file");
+            } else if(tokenEquals("}"))
+            {
+                break;
+            } else if(tokenEquals("node"))
+            {
+                readNode();
+            } else
+            {
+                skipStatement();
+            }
+        }
+
+        int size = nodeNames.size();
+        int[][] parents = new int[size][];
+        for(int node = 0; node < size; node++)
+        {
+            String[] currentParents = parentNames.get(node);
+            parents[node] = new int[currentParents.length];
+            for(int parent = 0; parent < currentParents.length; parent++)
+            {
+                parents[node][parent] = nodeNames.indexOf(currentParents[parent]);
+                if(parents[node][parent] < 0)
+                {
+                    throw new WhatToStudyException("Unknown parent " + currentParents[parent] + " of node " + nodeNames.get(node));
+                }
+            }
+        }
+
+        return new NetworkDefinition(networkName,
+                nodeNames.toArray(new String[size]),
+                stateNames.toArray(new String[size][]),
+                parents,
+                tables.toArray(new double[size][]));
+    }
+
+    /**
+     * Reads a node block, after the "node" keyword was read.
+     * @throws IOException If an IO error occurs.
+     * @throws WhatToStudyException If the file does not meet the expected format.
+     */
+    private void readNode() throws IOException, WhatToStudyException
+    {
+        if(!nextToken())
+        {
+            throw error("Unexpected end of file");
+        }
+        String name = token.toString();
+        String[] states = null;
+        String[] parents = new String[0];
+        double[] table = null;
+        expect("{");
+
+        while(true)
+        {
+            if(!nextToken())
+            {
+                throw error("Unexpected end of file");
+            } else if(tokenEquals("}"))
+            {
+                expect(";");
+                break;
+            }
+
+            String key = token.toString();
+            if(!nextToken())
+            {
+                throw error("Unexpected end of file");
+            }
+            if(!tokenEquals("="))
+            {   //Skipping nested blocks like "visual V1 {...};"
+                skipStatement();
+                continue;
+            }
+
+            switch (key)
+            {
+                case "states":
+                    states = readNameList();
+                    break;
+                case "parents":
+                    parents = readNameList();
+                    break;
+                case "probs":
+                    table = readNumbers();
+                    break;
+                case "discrete":
+                    nextToken();
+                    if(!tokenEquals("TRUE"))
+                    {
+                        throw error("Node " + name + " is not discrete");
+                    }
+                    skipStatement();
+                    break;
+                default:
+                    skipStatement();
+            }
+        }
+
+        if(states == null)
+        {
+            throw error("Node " + name + " does not define any states");
+        }
+        nodeNames.add(name);
+        stateNames.add(states);
+        parentNames.add(parents);
+        tables.add(table);
+    }
+
+    /**
+     * Reads a list of names like "(a, b, c);", including the closing semicolon.
+     * @return The names within the list.
+     * @throws IOException If an IO error occurs.
+     * @throws WhatToStudyException If the file does not meet the expected format.
+     */
+    private String[] readNameList() throws IOException, WhatToStudyException
+    {
+        ArrayList<String> names = new ArrayList<>();
+        expect("(");
+        while(nextToken() && !tokenEquals(")"))
+        {
+            if(!tokenEquals(","))
+            {
+                names.add(token.toString());
+            }
+        }
+        expect(";");
+        return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * Reads all numbers of a (possibly nested) list of numbers, including the closing semicolon.
+     * @return The numbers in the order of their appearance.
+     * @throws IOException If an IO error occurs.
+     * @throws WhatToStudyException If the file does not meet the expected format.
+     */
+    private double[] readNumbers() throws IOException, WhatToStudyException
+    {
+        double[] numbers = new double[16];
+        int amount = 0;
+        while(nextToken() && !tokenEquals(";"))
+        {
+            char first = token.charAt(0);
+            if(first == '(' || first == ')' || first == ',')
+            {
+                continue;
+            }
+            if(amount == numbers.length)
+            {
+                numbers = Arrays.copyOf(numbers, numbers.length * 2);
+            }
+            try
+            {
+                numbers[amount++] = Double.parseDouble(token.toString());
+            } catch (NumberFormatException e)
+            {
+                throw error("Unable to parse the number " + token);
+            }
+        }
+        return Arrays.copyOf(numbers, amount);
+    }
+
+    /**
+     * Skips all tokens until the end of the current statement (A semicolon outside of any brackets).
+     * @throws IOException If an IO error occurs.
+     */
+    private void skipStatement() throws IOException
+    {
+        int depth = 0;
+        do
+        {
+            if(token.length() == 1)
+            {
+                char current = token.charAt(0);
+                if(current == '{' || current == '(')
+                {
+                    depth++;
+                } else if(current == '}' || current == ')')
+                {
+                    depth--;
+                } else if(current == ';' && depth <= 0)
+                {
+                    return;
+                }
+            }
+        } while(nextToken());
+    }
+
+    /**
+     * Reads the next token and validates it against the expected one.
+     * @param expected The expected token.
+     * @throws IOException If an IO error occurs.
+     * @throws WhatToStudyException If the token does not match.
+     */
+    private void expect(String expected) throws IOException, WhatToStudyException
+    {
+        if(!nextToken() || !tokenEquals(expected))
+        {
+            throw error("Expected \"" + expected + "\"");
+        }
+    }
+
+    /**
+     * Checks if the current token is equal to the stated String.
+     * @param value The compared String.
+     * @return True if they are equal, false otherwise.
+     */
+    private boolean tokenEquals(String value)
+    {
+        if(token.length() != value.length())
+        {
+            return false;
+        }
+        for(int i = 0; i < value.length(); i++)
+        {
+            if(token.charAt(i) != value.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next token (A name, a number, a quoted String or a single special character), while skipping white spaces and comments.
+     * @return True if a token was read, false if the end of the file was reached.
+     * @throws IOException If an IO error occurs.
+     */
+    private boolean nextToken() throws IOException
+    {
+        token.setLength(0);
+        int current;
+        while(true)
+        {
+            current = read();
+            if(current == endOfFile)
+            {
+                return false;
+            } else if(current == '/' && peek() == '/')
+            {   //Skipping comments
+                while((current = read()) != endOfFile && current != '\n');
+            } else if(!Character.isWhitespace(current))
+            {
+                break;
+            }
+        }
+
+        if(current == '"')
+        {
+            while((current = read()) != endOfFile && current != '"')
+            {
+                token.append((char) current);
+            }
+        } else if(isNameCharacter(current))
+        {
+            token.append((char) current);
+            while(isNameCharacter(peek()))
+            {
+                token.append((char) read());
+            }
+        } else
+        {
+            token.append((char) current);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the character is part of a name or a number.
+     * @param character The checked character.
+     * @return True if it is part of a name or a number.
+     */
+    private static boolean isNameCharacter(int character)
+    {
+        return Character.isLetterOrDigit(character) || character == '_' || character == '.' || character == '-' || character == '+' || character == '@' || character == '*';
+    }
+
+    /**
+     * Reads the next character.
+     * @return The next character or {@link #endOfFile}.
+     * @throws IOException If an IO error occurs.
+     */
+    private int read() throws IOException
+    {
+        int current = peek();
+        if(current != endOfFile)
+        {
+            bufferPosition++;
+            if(current == '\n')
+            {
+                lineNumber++;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the next character, without consuming it.
+     * @return The next character or {@link #endOfFile}.
+     * @throws IOException If an IO error occurs.
+     */
+    private int peek() throws IOException
+    {
+        if(bufferPosition == bufferLength)
+        {
+            bufferLength = reader.read(buffer, 0, buffer.length);
+            bufferPosition = 0;
+            if(bufferLength <= 0)
+            {
+                bufferLength = 0;
+                return endOfFile;
+            }
+        }
+        return buffer[bufferPosition];
+    }
+
+    /**
+     * Creates an exception, describing a format error at the current position.
+     * @param message The description of the error.
+     * @return The exception.
+     */
+    private WhatToStudyException error(String message)
+    {
+        return new WhatToStudyException(message + " in line " + lineNumber + " of the network file");
+    }
+}
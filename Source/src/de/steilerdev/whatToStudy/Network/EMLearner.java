@@ -0,0 +1,362 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException;
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Utility.Case.CaseStore;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is learning the conditional probability tables of a network from cases with missing values, using the EM (Expectation Maximization) algorithm.<br>
+ * Every iteration is compiling a {@link de.steilerdev.whatToStudy.Network.JunctionTree junction tree} using the current tables. The case store is split into chunks, which are claimed by one task per core of the fork join pool. Every task is propagating its chunks using its own engine, adding the expected counts of the cases to its own tables (E-step).
+ * Afterwards the tables are merged and normalized into the tables of the next iteration (M-step).
+ * The learning stops as soon as the relative change of the log-likelihood of the cases is within the tolerance, or the maximum amount of iterations is reached.
+ */
+public class EMLearner
+{
+    /**
+     * The minimum amount of cases propagated by a single task.
+     */
+    private static final int minChunkSize = 256;
+
+    /**
+     * The learner mapping the cases to the states of the nodes and normalizing the counts.
+     */
+    private final CountingLearner countingLearner;
+
+    /**
+     * The share of the uniform distribution mixed into the initial tables of a warm start.
+     */
+    private static final double smoothing = 1e-6;
+
+    /**
+     * The maximum amount of iterations.
+     */
+    private final int maxIterations;
+
+    /**
+     * The relative change of the log-likelihood, below which the learning is considered converged.
+     */
+    private final double tolerance;
+
+    /**
+     * The label prepended to every progress message.
+     */
+    private final String label;
+
+    /**
+     * Creates a new EM learner.
+     * @param countingLearner The learner of the network, mapping the cases to the states of the nodes.
+     * @param maxIterations The maximum amount of iterations.
+     * @param tolerance The relative change of the log-likelihood, below which the learning is considered converged.
+     */
+    public EMLearner(CountingLearner countingLearner, int maxIterations, double tolerance)
+    {
+        this(countingLearner, maxIterations, tolerance, "");
+    }
+
+    /**
+     * Creates a new EM learner, whose progress is labeled (Used if multiple learners are running concurrently).
+     * @param countingLearner The learner of the network, mapping the cases to the states of the nodes.
+     * @param maxIterations The maximum amount of iterations.
+     * @param tolerance The relative change of the log-likelihood, below which the learning is considered converged.
+     * @param label The label prepended to every progress message.
+     */
+    public EMLearner(CountingLearner countingLearner, int maxIterations, double tolerance, String label)
+    {
+        this.countingLearner = countingLearner;
+        this.maxIterations = java.lang.Math.max(1, maxIterations);
+        this.tolerance = tolerance;
+        this.label = label;
+    }
+
+    /**
+     * Learns the tables of the network, starting with uniformly distributed tables. The progress is printed after every iteration.
+     * @param cases The cases, missing values and values that are not a state of their node are treated as unobserved.
+     * @return The expected counts of every node from the last iteration, using the layout of the tables of the {@link de.steilerdev.whatToStudy.Network.NetworkDefinition network definition}. Normalizing them using {@link CountingLearner#normalize(int, double[])} is creating the learned tables.
+     * @throws WhatToStudyException If an error occurs during the propagation.
+     */
+    public double[][] learn(CaseStore cases) throws WhatToStudyException
+    {
+        NetworkDefinition definition = countingLearner.getDefinition();
+        return learn(cases, definition.withTables(new double[definition.getNumNodes()][]), null);
+    }
+
+    /**
+     * Learns the tables of the network, starting with the tables of the stated network (Warm start). The progress is printed after every iteration.<br>
+     * If prior counts are stated, they are added to the expected counts of every iteration (Dirichlet prior), therefore the learned tables are the maximum a posteriori estimate.
+     * @param cases The cases, missing values and values that are not a state of their node are treated as unobserved.
+     * @param initial The network holding the initial tables, which needs to have the same structure as the learned network. Zero entries are replaced by a small probability, so every case is consistent with the initial tables.
+     * @param prior The prior counts of every node (e.g. created by {@link #getPriorCounts(NetworkDefinition, double)}), or null if no prior should be used.
+     * @return The expected counts of every node from the last iteration including the prior counts, using the layout of the tables of the {@link de.steilerdev.whatToStudy.Network.NetworkDefinition network definition}. Normalizing them using {@link CountingLearner#normalize(int, double[])} is creating the learned tables.
+     * @throws WhatToStudyException If an error occurs during the propagation.
+     */
+    public double[][] learn(CaseStore cases, NetworkDefinition initial, double[][] prior) throws WhatToStudyException
+    {
+        NetworkDefinition definition = countingLearner.getDefinition();
+        double[][] initialTables = new double[definition.getNumNodes()][];
+        for(int node = 0; node < initialTables.length; node++)
+        {
+            int numStates = definition.getNumStates(node);
+            initialTables[node] = initial.getTable(node).clone();
+            for(int i = 0; i < initialTables[node].length; i++)
+            {
+                initialTables[node][i] = (1.0 - smoothing) * initialTables[node][i] + smoothing / numStates;
+            }
+        }
+        NetworkDefinition current = definition.withTables(initialTables);
+        double previousLogLikelihood = Double.NaN;
+        double[][] counts = null;
+        for(int iteration = 1; iteration <= maxIterations; iteration++)
+        {
+            long startTime = System.currentTimeMillis();
+            Expectation expectation = expect(new JunctionTree(current), cases);
+            counts = expectation.counts;
+            if(prior != null)
+            {
+                addCounts(counts, prior);
+            }
+
+            double[][] tables = new double[counts.length][];
+            for(int node = 0; node < counts.length; node++)
+            {
+                tables[node] = countingLearner.normalize(node, counts[node]);
+            }
+            current = definition.withTables(tables);
+
+            double change = java.lang.Math.abs(expectation.logLikelihood - previousLogLikelihood) / java.lang.Math.abs(previousLogLikelihood);
+            System.out.println(label + String.format(Locale.US, "Iteration %d: log-likelihood %.6f%s (%dms)", iteration, expectation.logLikelihood,
+                    iteration == 1? "": String.format(Locale.US, ", relative change %.3e", change), System.currentTimeMillis() - startTime));
+            if(change <= tolerance)
+            {
+                System.out.println(label + "The log-likelihood converged after " + iteration + " iterations.");
+                return counts;
+            }
+            previousLogLikelihood = expectation.logLikelihood;
+        }
+        System.out.println(label + "The log-likelihood did not converge within " + maxIterations + " iterations.");
+        return counts;
+    }
+
+    /**
+     * Performs a single E-step using the stated tables, used to add new cases to previously learned {@link de.steilerdev.whatToStudy.Network.SufficientStatistics statistics} without iterating over all cases again.
+     * @param current The network definition holding the current tables.
+     * @param cases The new cases, missing values and values that are not a state of their node are treated as unobserved.
+     * @return The expected counts of every node, using the layout of the tables of the network definition.
+     * @throws WhatToStudyException If an error occurs during the propagation.
+     */
+    public double[][] expect(NetworkDefinition current, CaseStore cases) throws WhatToStudyException
+    {
+        return expect(new JunctionTree(current), cases).counts;
+    }
+
+    /**
+     * Creates the counts of a Dirichlet prior, representing the stated network as if it was learned from the stated amount of cases (Equivalent sample size).
+     * The prior count of every entry is the equivalent sample size multiplied with the joint probability of the node and its parents within the stated network.
+     * @param network The network holding the prior tables, which needs to have the same structure as the learned network.
+     * @param equivalentSampleSize The weight of the prior, as amount of cases.
+     * @return The prior counts of every node, using the layout of the tables of the {@link de.steilerdev.whatToStudy.Network.NetworkDefinition network definition}.
+     * @throws WhatToStudyException If an error occurs during the propagation.
+     */
+    public double[][] getPriorCounts(NetworkDefinition network, double equivalentSampleSize) throws WhatToStudyException
+    {
+        double[][] prior = countingLearner.newTables();
+        JunctionTreeEngine engine = new JunctionTree(network).newEngine();
+        engine.addFamilyBeliefs(prior, equivalentSampleSize);
+        return prior;
+    }
+
+    /**
+     * Adds the stated counts to the counts of every node.
+     * @param counts The counts that are modified.
+     * @param addedCounts The added counts.
+     */
+    public static void addCounts(double[][] counts, double[][] addedCounts)
+    {
+        for(int node = 0; node < counts.length; node++)
+        {
+            for(int i = 0; i < counts[node].length; i++)
+            {
+                counts[node][i] += addedCounts[node][i];
+            }
+        }
+    }
+
+    /**
+     * Performs the E-step using all available cores.
+     * @param tree The junction tree compiled using the current tables.
+     * @param cases The cases.
+     * @return The merged expected counts and the log-likelihood of all cases.
+     * @throws WhatToStudyException If an error occurs during the propagation.
+     */
+    private Expectation expect(JunctionTree tree, CaseStore cases) throws WhatToStudyException
+    {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = java.lang.Math.max(minChunkSize, cases.size() / (4 * parallelism) + 1);
+        int numChunks = (cases.size() + chunkSize - 1) / chunkSize;
+
+        //The chunks are claimed dynamically, but only one engine and one set of tables is allocated per task
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        AtomicInteger nextChunk = new AtomicInteger();
+        ArrayList<ForkJoinTask<Expectation>> tasks = new ArrayList<>();
+        for(int task = 0; task < java.lang.Math.max(1, java.lang.Math.min(parallelism, numChunks)); task++)
+        {
+            tasks.add(pool.submit(() -> expectChunks(tree, cases, chunkSize, numChunks, nextChunk)));
+        }
+
+        Expectation expectation = null;
+        try
+        {
+            for(ForkJoinTask<Expectation> task: tasks)
+            {
+                Expectation taskExpectation = task.join();
+                if(expectation == null)
+                {
+                    expectation = taskExpectation;
+                } else
+                {
+                    addCounts(expectation.counts, taskExpectation.counts);
+                    expectation.logLikelihood += taskExpectation.logLikelihood;
+                }
+            }
+        } catch (UncheckedWhatToStudyException e)
+        {
+            throw e.getCause();
+        }
+        return expectation;
+    }
+
+    /**
+     * Propagates the chunks claimed by the calling task using its own engine, adding the expected counts of their cases to new tables, until all chunks are claimed.
+     * @param tree The junction tree compiled using the current tables.
+     * @param cases The cases.
+     * @param chunkSize The amount of cases of a chunk.
+     * @param numChunks The amount of chunks.
+     * @param nextChunk The index of the next unclaimed chunk, shared by all tasks.
+     * @return The expected counts and the log-likelihood of the chunks of the task.
+     */
+    private Expectation expectChunks(JunctionTree tree, CaseStore cases, int chunkSize, int numChunks, AtomicInteger nextChunk)
+    {
+        int numNodes = tree.getDefinition().getNumNodes();
+        byte[][] columns = new byte[numNodes][];
+        for(int node = 0; node < numNodes; node++)
+        {
+            columns[node] = cases.getColumn(countingLearner.getVariable(node));
+        }
+
+        Expectation expectation = new Expectation(countingLearner.newTables());
+        JunctionTreeEngine engine = tree.newEngine();
+        int[] states = new int[numNodes];
+        int chunk;
+        try
+        {
+            while((chunk = nextChunk.getAndIncrement()) < numChunks)
+            {
+                int to = java.lang.Math.min(cases.size(), (chunk + 1) * chunkSize);
+                for(int i = chunk * chunkSize; i < to; i++)
+                {
+                    boolean complete = true;
+                    for(int node = 0; node < numNodes; node++)
+                    {
+                        states[node] = countingLearner.getState(node, columns[node][i]);
+                        complete &= states[node] >= 0;
+                    }
+                    double weight = cases.isWeighted()? cases.getWeight(i): 1.0;
+                    if(complete)
+                    {   //A complete case does not need to be propagated, its probability is the product of the table entries of its states
+                        expectation.logLikelihood += weight * addCompleteCase(tree.getDefinition(), states, expectation.counts, weight);
+                        continue;
+                    }
+
+                    for(int node = 0; node < numNodes; node++)
+                    {
+                        if(states[node] < 0)
+                        {
+                            engine.retractFinding(node);
+                        } else
+                        {
+                            engine.enterFinding(node, states[node]);
+                        }
+                    }
+                    engine.addFamilyBeliefs(expectation.counts, weight);
+                    expectation.logLikelihood += weight * java.lang.Math.log(engine.getFindingsProbability());
+                }
+            }
+        } catch (WhatToStudyException e)
+        {   //The remaining chunks are not claimed by any task anymore
+            nextChunk.set(numChunks);
+            throw new UncheckedWhatToStudyException(e);
+        }
+        return expectation;
+    }
+
+    /**
+     * Adds the weight of a complete case to the entry of every node matching its states.
+     * @param definition The network definition holding the current tables.
+     * @param states The state of every node.
+     * @param counts The tables of every node, receiving the weight.
+     * @param weight The weight of the case.
+     * @return The logarithm of the probability of the case.
+     */
+    private static double addCompleteCase(NetworkDefinition definition, int[] states, double[][] counts, double weight)
+    {
+        double logProbability = 0.0;
+        for(int node = 0; node < states.length; node++)
+        {
+            int index = 0;
+            for(int parent: definition.getParents(node))
+            {
+                index = index * definition.getNumStates(parent) + states[parent];
+            }
+            index = index * definition.getNumStates(node) + states[node];
+            counts[node][index] += weight;
+            logProbability += java.lang.Math.log(definition.getTable(node)[index]);
+        }
+        return logProbability;
+    }
+
+    /**
+     * The result of the E-step.
+     */
+    private static class Expectation
+    {
+        /**
+         * The expected counts of every node.
+         */
+        private final double[][] counts;
+
+        /**
+         * The log-likelihood of the cases, using the tables of the iteration.
+         */
+        private double logLikelihood = 0.0;
+
+        /**
+         * Creates a new result.
+         * @param counts The empty tables of every node.
+         */
+        private Expectation(double[][] counts)
+        {
+            this.counts = counts;
+        }
+    }
+}
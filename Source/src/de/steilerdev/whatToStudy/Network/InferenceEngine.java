@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+
+/**
+ * This interface is defining an engine, that is able to perform inference on a Bayesian network.
+ * Nodes and states are identified using their index, which can be resolved using their names.
+ * An instance of an engine is not meant to be shared between threads, every thread should use its own instance (e.g. checked out from a {@link de.steilerdev.whatToStudy.Network.NetworkPool NetworkPool}).
+ */
+public interface InferenceEngine
+{
+    /**
+     * Returns the index of the stated node.
+     * @param nodeName The name of the node within the network.
+     * @return The index of the node, or -1 if the network does not contain the node.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public int getNodeIndex(String nodeName) throws WhatToStudyException;
+
+    /**
+     * Returns the index of the stated state of a node.
+     * @param node The index of the node.
+     * @param stateName The name of the state.
+     * @return The index of the state, or -1 if the node does not contain the state.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public int getStateIndex(int node, String stateName) throws WhatToStudyException;
+
+    /**
+     * Enters a finding for the stated node, replacing a previously entered finding of the node.
+     * @param node The index of the node.
+     * @param state The index of the observed state.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public void enterFinding(int node, int state) throws WhatToStudyException;
+
+    /**
+     * Enters a finding for the stated node, replacing a previously entered finding of the node.
+     * @param node The index of the node.
+     * @param stateName The name of the observed state.
+     * @throws WhatToStudyException If an error occurs, or the node does not contain the state.
+     */
+    public void enterFinding(int node, String stateName) throws WhatToStudyException;
+
+    /**
+     * Retracts the finding of the stated node.
+     * @param node The index of the node.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public void retractFinding(int node) throws WhatToStudyException;
+
+    /**
+     * Retracts the findings of all nodes.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public void retractFindings() throws WhatToStudyException;
+
+    /**
+     * Returns the belief of a state, respecting all currently entered findings.
+     * @param node The index of the node.
+     * @param state The index of the state.
+     * @return The probability of the state given the findings.
+     * @throws WhatToStudyException If an error occurs, or the findings are inconsistent.
+     */
+    public double getBelief(int node, int state) throws WhatToStudyException;
+
+    /**
+     * Releases all resources held by the engine. The engine can not be used afterwards.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public void close() throws WhatToStudyException;
+}
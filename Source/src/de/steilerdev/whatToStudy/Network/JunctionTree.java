@@ -0,0 +1,527 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class is the compiled, immutable junction tree of a {@link de.steilerdev.whatToStudy.Network.NetworkDefinition network definition}.
+ * The tree is built by moralizing and triangulating the network (greedily eliminating the node with the smallest clique weight) and connecting the resulting cliques using a maximum spanning tree over the separator sizes.<br>
+ * The tree is shared by any number of {@link de.steilerdev.whatToStudy.Network.JunctionTreeEngine engines}, which are performing the propagation within their own workspace.
+ * Therefore the tree can be used by multiple threads at the same time.
+ */
+public class JunctionTree
+{
+    /**
+     * The index of the root clique.
+     */
+    static final int rootClique = 0;
+
+    /**
+     * The value returned by {@link #next}, if all states of a potential were visited.
+     */
+    private static final int overflow = Integer.MIN_VALUE;
+
+    final NetworkDefinition definition;
+
+    /**
+     * The nodes of every clique, ordered by their index. The last node is the least significant dimension of the clique's potential.
+     */
+    final int[][] cliqueNodes;
+
+    /**
+     * The amount of states of every node of every clique.
+     */
+    final int[][] cliqueCards;
+
+    /**
+     * The initial potential of every clique (The product of all probability tables assigned to the clique).
+     */
+    final double[][] initialPotentials;
+
+    /**
+     * The parent of every clique within the tree, or -1 if the clique is the root.
+     */
+    final int[] parentClique;
+
+    /**
+     * All cliques except the root, ordered so that every clique appears before its parent.
+     */
+    final int[] collectOrder;
+
+    /**
+     * The size of the separator between every clique and its parent.
+     */
+    final int[] separatorSizes;
+
+    /**
+     * The stride within the separator for every node of a clique (0 if the node is not part of the separator between the clique and its parent).
+     */
+    final int[][] childSeparatorStrides;
+
+    /**
+     * The stride within the separator for every node of the parent clique (0 if the node is not part of the separator between the clique and its parent).
+     */
+    final int[][] parentSeparatorStrides;
+
+    /**
+     * The smallest clique containing every node, used to enter findings and to calculate the beliefs.
+     */
+    final int[] homeClique;
+
+    /**
+     * The stride of every node within its home clique.
+     */
+    final int[] homeStride;
+
+    /**
+     * The smallest clique containing every node and its parents, the probability table of the node is assigned to this clique.
+     */
+    final int[] familyClique;
+
+    /**
+     * The stride within the probability table of every node, for every node of its family clique (0 if the node is not part of the family).
+     */
+    final int[][] familyStrides;
+
+    /**
+     * The largest amount of nodes within a clique.
+     */
+    final int maxCliqueNodes;
+
+    /**
+     * Compiles the junction tree for the stated network.
+     * @param definition The definition of the network.
+     */
+    public JunctionTree(NetworkDefinition definition)
+    {
+        this.definition = definition;
+        int size = definition.getNumNodes();
+
+        //Moralizing the network
+        boolean[][] adjacent = new boolean[size][size];
+        for(int node = 0; node < size; node++)
+        {
+            int[] parents = definition.getParents(node);
+            for(int i = 0; i < parents.length; i++)
+            {
+                connect(adjacent, node, parents[i]);
+                for(int j = i + 1; j < parents.length; j++)
+                {
+                    connect(adjacent, parents[i], parents[j]);
+                }
+            }
+        }
+
+        //Triangulating the network by eliminating the node creating the smallest clique
+        ArrayList<int[]> candidates = new ArrayList<>();
+        boolean[] eliminated = new boolean[size];
+        for(int step = 0; step < size; step++)
+        {
+            int bestNode = -1;
+            double bestWeight = Double.MAX_VALUE;
+            for(int node = 0; node < size; node++)
+            {
+                if(!eliminated[node])
+                {
+                    double weight = definition.getNumStates(node);
+                    for(int neighbour = 0; neighbour < size; neighbour++)
+                    {
+                        if(!eliminated[neighbour] && adjacent[node][neighbour])
+                        {
+                            weight *= definition.getNumStates(neighbour);
+                        }
+                    }
+                    if(weight < bestWeight)
+                    {
+                        bestWeight = weight;
+                        bestNode = node;
+                    }
+                }
+            }
+
+            int[] clique = new int[size];
+            int cliqueSize = 0;
+            for(int node = 0; node < size; node++)
+            {
+                if(node == bestNode || (!eliminated[node] && adjacent[bestNode][node]))
+                {
+                    clique[cliqueSize++] = node;
+                }
+            }
+            clique = Arrays.copyOf(clique, cliqueSize);
+            for(int i = 0; i < clique.length; i++)
+            {
+                for(int j = i + 1; j < clique.length; j++)
+                {
+                    connect(adjacent, clique[i], clique[j]);
+                }
+            }
+            eliminated[bestNode] = true;
+            candidates.add(clique);
+        }
+
+        //Only keeping maximal cliques
+        ArrayList<int[]> cliques = new ArrayList<>();
+        for(int i = 0; i < candidates.size(); i++)
+        {
+            boolean maximal = true;
+            for(int j = 0; j < candidates.size() && maximal; j++)
+            {
+                if(i != j && isSubset(candidates.get(i), candidates.get(j)) && (candidates.get(i).length < candidates.get(j).length || j < i))
+                {
+                    maximal = false;
+                }
+            }
+            if(maximal)
+            {
+                cliques.add(candidates.get(i));
+            }
+        }
+
+        int numCliques = cliques.size();
+        cliqueNodes = cliques.toArray(new int[numCliques][]);
+        cliqueCards = new int[numCliques][];
+        int largestClique = 0;
+        for(int clique = 0; clique < numCliques; clique++)
+        {
+            cliqueCards[clique] = new int[cliqueNodes[clique].length];
+            for(int i = 0; i < cliqueNodes[clique].length; i++)
+            {
+                cliqueCards[clique][i] = definition.getNumStates(cliqueNodes[clique][i]);
+            }
+            largestClique = Math.max(largestClique, cliqueNodes[clique].length);
+        }
+        maxCliqueNodes = largestClique;
+
+        //Connecting the cliques using a maximum spanning tree (Prim), rooted at the first clique
+        parentClique = new int[numCliques];
+        int[] order = new int[numCliques];
+        boolean[] inTree = new boolean[numCliques];
+        int[] bestOverlap = new int[numCliques];
+        Arrays.fill(bestOverlap, -1);
+        Arrays.fill(parentClique, -1);
+        bestOverlap[rootClique] = 0;
+        for(int step = 0; step < numCliques; step++)
+        {
+            int next = -1;
+            for(int clique = 0; clique < numCliques; clique++)
+            {
+                if(!inTree[clique] && (next == -1 || bestOverlap[clique] > bestOverlap[next]))
+                {
+                    next = clique;
+                }
+            }
+            inTree[next] = true;
+            order[step] = next;
+            for(int clique = 0; clique < numCliques; clique++)
+            {
+                int overlap = overlap(cliqueNodes[next], cliqueNodes[clique]);
+                if(!inTree[clique] && overlap > bestOverlap[clique])
+                {
+                    bestOverlap[clique] = overlap;
+                    parentClique[clique] = next;
+                }
+            }
+        }
+
+        //Children are added to the tree after their parent, therefore the reversed order (without the root) is a valid collect order
+        collectOrder = new int[numCliques - 1];
+        for(int step = 1; step < numCliques; step++)
+        {
+            collectOrder[numCliques - 1 - step] = order[step];
+        }
+
+        //Calculating the separators
+        separatorSizes = new int[numCliques];
+        childSeparatorStrides = new int[numCliques][];
+        parentSeparatorStrides = new int[numCliques][];
+        for(int clique = 0; clique < numCliques; clique++)
+        {
+            int parent = parentClique[clique];
+            int[] separator = parent < 0? new int[0]: intersection(cliqueNodes[clique], cliqueNodes[parent]);
+            int[] separatorStrides = strides(separator);
+            separatorSizes[clique] = size(separator);
+            childSeparatorStrides[clique] = projectStrides(cliqueNodes[clique], separator, separatorStrides);
+            parentSeparatorStrides[clique] = parent < 0? new int[0]: projectStrides(cliqueNodes[parent], separator, separatorStrides);
+        }
+
+        //Calculating the home cliques
+        homeClique = new int[size];
+        homeStride = new int[size];
+        for(int node = 0; node < size; node++)
+        {
+            int best = -1;
+            for(int clique = 0; clique < numCliques; clique++)
+            {
+                if(indexOf(cliqueNodes[clique], node) >= 0 && (best == -1 || size(cliqueNodes[clique]) < size(cliqueNodes[best])))
+                {
+                    best = clique;
+                }
+            }
+            homeClique[node] = best;
+            homeStride[node] = strides(cliqueNodes[best])[indexOf(cliqueNodes[best], node)];
+        }
+
+        //Assigning every probability table to the smallest clique containing the node and its parents
+        initialPotentials = new double[numCliques][];
+        for(int clique = 0; clique < numCliques; clique++)
+        {
+            initialPotentials[clique] = new double[size(cliqueNodes[clique])];
+            Arrays.fill(initialPotentials[clique], 1.0);
+        }
+        familyClique = new int[size];
+        familyStrides = new int[size][];
+        int[] counter = new int[maxCliqueNodes];
+        for(int node = 0; node < size; node++)
+        {
+            int[] family = Arrays.copyOf(definition.getParents(node), definition.getParents(node).length + 1);
+            family[family.length - 1] = node;
+            int best = -1;
+            for(int clique = 0; clique < numCliques; clique++)
+            {
+                if(isSubset(family, cliqueNodes[clique]) && (best == -1 || size(cliqueNodes[clique]) < size(cliqueNodes[best])))
+                {
+                    best = clique;
+                }
+            }
+            //The table uses the order of the family, instead of the ordered clique nodes
+            int[] tableStrides = new int[family.length];
+            int stride = 1;
+            for(int i = family.length - 1; i >= 0; i--)
+            {
+                tableStrides[i] = stride;
+                stride *= definition.getNumStates(family[i]);
+            }
+            int[] cliqueTableStrides = new int[cliqueNodes[best].length];
+            for(int i = 0; i < family.length; i++)
+            {
+                cliqueTableStrides[indexOf(cliqueNodes[best], family[i])] = tableStrides[i];
+            }
+            familyClique[node] = best;
+            familyStrides[node] = cliqueTableStrides;
+            multiply(initialPotentials[best], cliqueCards[best], cliqueTableStrides, definition.getTable(node), counter);
+        }
+    }
+
+    /**
+     * Returns the definition of the network compiled by this tree.
+     * @return The network definition.
+     */
+    public NetworkDefinition getDefinition()
+    {
+        return definition;
+    }
+
+    /**
+     * Creates a new engine, performing the inference using this tree.
+     * @return A new engine.
+     */
+    public JunctionTreeEngine newEngine()
+    {
+        return new JunctionTreeEngine(this);
+    }
+
+    /**
+     * Adds every entry of the source potential to the entry of the target potential, that is projected using the target strides.
+     * @param source The source potential.
+     * @param cards The amount of states of all nodes of the source potential.
+     * @param targetStrides The strides of all nodes of the source potential within the target (0 if the node is not part of the target).
+     * @param target The target potential, which needs to be cleared before.
+     * @param counter A working array, at least as big as the amount of nodes.
+     */
+    static void project(double[] source, int[] cards, int[] targetStrides, double[] target, int[] counter)
+    {
+        int last = cards.length - 1;
+        int innerCard = cards[last];
+        int innerStride = targetStrides[last];
+        Arrays.fill(counter, 0, last + 1, 0);
+        int targetIndex = 0;
+        int index = 0;
+        while(true)
+        {
+            for(int state = 0, inner = targetIndex; state < innerCard; state++, inner += innerStride)
+            {
+                target[inner] += source[index++];
+            }
+            int dimension = next(cards, targetStrides, counter, last);
+            if(dimension == overflow)
+            {
+                return;
+            }
+            targetIndex += dimension;
+        }
+    }
+
+    /**
+     * Multiplies every entry of the potential with the entry of the factor, that is projected using the factor strides.
+     * @param potential The potential that is modified.
+     * @param cards The amount of states of all nodes of the potential.
+     * @param factorStrides The strides of all nodes of the potential within the factor (0 if the node is not part of the factor).
+     * @param factor The factor.
+     * @param counter A working array, at least as big as the amount of nodes.
+     */
+    static void multiply(double[] potential, int[] cards, int[] factorStrides, double[] factor, int[] counter)
+    {
+        int last = cards.length - 1;
+        int innerCard = cards[last];
+        int innerStride = factorStrides[last];
+        Arrays.fill(counter, 0, last + 1, 0);
+        int factorIndex = 0;
+        int index = 0;
+        while(true)
+        {
+            for(int state = 0, inner = factorIndex; state < innerCard; state++, inner += innerStride)
+            {
+                potential[index++] *= factor[inner];
+            }
+            int dimension = next(cards, factorStrides, counter, last);
+            if(dimension == overflow)
+            {
+                return;
+            }
+            factorIndex += dimension;
+        }
+    }
+
+    /**
+     * Advances the counter of all dimensions except the least significant one by one.
+     * @param cards The amount of states of all dimensions.
+     * @param strides The strides of all dimensions within the projected potential.
+     * @param counter The current state of all dimensions.
+     * @param last The index of the least significant dimension.
+     * @return The change of the projected index, or {@link #overflow} if the counter overflowed.
+     */
+    private static int next(int[] cards, int[] strides, int[] counter, int last)
+    {
+        int change = 0;
+        for(int dimension = last - 1; dimension >= 0; dimension--)
+        {
+            counter[dimension]++;
+            change += strides[dimension];
+            if(counter[dimension] < cards[dimension])
+            {
+                return change;
+            }
+            change -= cards[dimension] * strides[dimension];
+            counter[dimension] = 0;
+        }
+        return overflow;
+    }
+
+    /**
+     * Connects two nodes within the undirected graph.
+     */
+    private static void connect(boolean[][] adjacent, int first, int second)
+    {
+        adjacent[first][second] = true;
+        adjacent[second][first] = true;
+    }
+
+    /**
+     * Calculates the strides of the ordered nodes (The last node is the least significant dimension).
+     */
+    private int[] strides(int[] nodes)
+    {
+        int[] strides = new int[nodes.length];
+        int stride = 1;
+        for(int i = nodes.length - 1; i >= 0; i--)
+        {
+            strides[i] = stride;
+            stride *= definition.getNumStates(nodes[i]);
+        }
+        return strides;
+    }
+
+    /**
+     * Calculates the amount of entries of a potential over the stated nodes.
+     */
+    private int size(int[] nodes)
+    {
+        int size = 1;
+        for(int node: nodes)
+        {
+            size *= definition.getNumStates(node);
+        }
+        return size;
+    }
+
+    /**
+     * Maps the strides of the target nodes onto the source nodes (0 if a source node is not part of the target).
+     */
+    private static int[] projectStrides(int[] source, int[] target, int[] targetStrides)
+    {
+        int[] strides = new int[source.length];
+        for(int i = 0; i < target.length; i++)
+        {
+            strides[indexOf(source, target[i])] = targetStrides[i];
+        }
+        return strides;
+    }
+
+    private static int indexOf(int[] nodes, int node)
+    {
+        for(int i = 0; i < nodes.length; i++)
+        {
+            if(nodes[i] == node)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSubset(int[] subset, int[] nodes)
+    {
+        for(int node: subset)
+        {
+            if(indexOf(nodes, node) < 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int overlap(int[] first, int[] second)
+    {
+        int overlap = 0;
+        for(int node: first)
+        {
+            if(indexOf(second, node) >= 0)
+            {
+                overlap++;
+            }
+        }
+        return overlap;
+    }
+
+    private static int[] intersection(int[] first, int[] second)
+    {
+        int[] intersection = new int[first.length];
+        int size = 0;
+        for(int node: first)
+        {
+            if(indexOf(second, node) >= 0)
+            {
+                intersection[size++] = node;
+            }
+        }
+        return Arrays.copyOf(intersection, size);
+    }
+}
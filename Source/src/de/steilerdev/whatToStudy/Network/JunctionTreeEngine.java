@@ -0,0 +1,355 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+
+import java.util.Arrays;
+
+/**
+ * This class is a pure Java {@link de.steilerdev.whatToStudy.Network.InferenceEngine inference engine}, performing exact inference using a {@link de.steilerdev.whatToStudy.Network.JunctionTree junction tree}.<br>
+ * The propagation is done lazily as soon as a belief is requested, using the Hugin architecture (collecting the evidence towards the root and distributing it back afterwards).
+ * All working memory is allocated once, when the engine is created, therefore the propagation itself does not allocate any objects.
+ * The engine is not thread safe, but any number of engines can share the same junction tree.
+ */
+public class JunctionTreeEngine implements InferenceEngine
+{
+    private final JunctionTree tree;
+
+    /**
+     * The current potential of every clique.
+     */
+    private final double[][] potentials;
+
+    /**
+     * The current potential of the separator between every clique and its parent.
+     */
+    private final double[][] separators;
+
+    /**
+     * The message passed between a clique and its parent during the distribution.
+     */
+    private final double[][] messages;
+
+    /**
+     * The normalized beliefs of every node, only valid if the corresponding flag is set.
+     */
+    private final double[][] beliefs;
+    private final boolean[] beliefsValid;
+
+    /**
+     * The working table of every node, receiving the distribution of the node and its parents.
+     */
+    private final double[][] familyBeliefs;
+
+    /**
+     * The finding of every node, or -1 if there is no finding.
+     */
+    private final int[] findings;
+
+    /**
+     * The working array used while projecting potentials.
+     */
+    private final int[] counter;
+
+    /**
+     * True if the potentials reflect the current findings.
+     */
+    private boolean propagated = false;
+
+    /**
+     * The probability of the current findings, valid after the propagation.
+     */
+    private double findingsProbability = 1.0;
+
+    /**
+     * Creates a new engine using the stated junction tree.
+     * @param tree The compiled junction tree, which can be shared with other engines.
+     */
+    public JunctionTreeEngine(JunctionTree tree)
+    {
+        this.tree = tree;
+        int numCliques = tree.cliqueNodes.length;
+        int numNodes = tree.definition.getNumNodes();
+        potentials = new double[numCliques][];
+        separators = new double[numCliques][];
+        messages = new double[numCliques][];
+        for(int clique = 0; clique < numCliques; clique++)
+        {
+            potentials[clique] = new double[tree.initialPotentials[clique].length];
+            separators[clique] = new double[tree.separatorSizes[clique]];
+            messages[clique] = new double[tree.separatorSizes[clique]];
+        }
+        beliefs = new double[numNodes][];
+        for(int node = 0; node < numNodes; node++)
+        {
+            beliefs[node] = new double[tree.definition.getNumStates(node)];
+        }
+        beliefsValid = new boolean[numNodes];
+        familyBeliefs = new double[numNodes][];
+        for(int node = 0; node < numNodes; node++)
+        {
+            familyBeliefs[node] = new double[tree.definition.getTable(node).length];
+        }
+        findings = new int[numNodes];
+        Arrays.fill(findings, -1);
+        counter = new int[tree.maxCliqueNodes];
+    }
+
+    /**
+     * Returns the junction tree used by this engine.
+     * @return The junction tree.
+     */
+    public JunctionTree getTree()
+    {
+        return tree;
+    }
+
+    @Override
+    public int getNodeIndex(String nodeName)
+    {
+        return tree.definition.getNodeIndex(nodeName);
+    }
+
+    @Override
+    public int getStateIndex(int node, String stateName)
+    {
+        return tree.definition.getStateIndex(node, stateName);
+    }
+
+    @Override
+    public void enterFinding(int node, int state) throws WhatToStudyException
+    {
+        if(state < 0 || state >= tree.definition.getNumStates(node))
+        {
+            throw new WhatToStudyException("Invalid state " + state + " for node " + tree.definition.getNodeName(node));
+        }
+        if(findings[node] != state)
+        {
+            findings[node] = state;
+            invalidate();
+        }
+    }
+
+    @Override
+    public void enterFinding(int node, String stateName) throws WhatToStudyException
+    {
+        int state = getStateIndex(node, stateName);
+        if(state < 0)
+        {
+            throw new WhatToStudyException("Unknown state " + stateName + " for node " + tree.definition.getNodeName(node));
+        }
+        enterFinding(node, state);
+    }
+
+    @Override
+    public void retractFinding(int node)
+    {
+        if(findings[node] != -1)
+        {
+            findings[node] = -1;
+            invalidate();
+        }
+    }
+
+    @Override
+    public void retractFindings()
+    {
+        for(int node = 0; node < findings.length; node++)
+        {
+            retractFinding(node);
+        }
+    }
+
+    @Override
+    public double getBelief(int node, int state) throws WhatToStudyException
+    {
+        if(!beliefsValid[node])
+        {
+            propagate();
+            int clique = tree.homeClique[node];
+            double[] potential = potentials[clique];
+            double[] belief = beliefs[node];
+            int stride = tree.homeStride[node];
+            int states = belief.length;
+            Arrays.fill(belief, 0.0);
+            for(int block = 0; block < potential.length; block += stride * states)
+            {
+                for(int currentState = 0, index = block; currentState < states; currentState++)
+                {
+                    double sum = 0.0;
+                    for(int end = index + stride; index < end; index++)
+                    {
+                        sum += potential[index];
+                    }
+                    belief[currentState] += sum;
+                }
+            }
+            double total = 0.0;
+            for(double value: belief)
+            {
+                total += value;
+            }
+            for(int currentState = 0; currentState < states; currentState++)
+            {
+                belief[currentState] /= total;
+            }
+            beliefsValid[node] = true;
+        }
+        return beliefs[node][state];
+    }
+
+    /**
+     * Returns the probability of all currently entered findings.
+     * @return The probability of the findings.
+     * @throws WhatToStudyException If an error occurs, or the findings are inconsistent.
+     */
+    public double getFindingsProbability() throws WhatToStudyException
+    {
+        propagate();
+        return findingsProbability;
+    }
+
+    /**
+     * Adds the distribution of every node and its parents given the current findings (The expected counts used by the {@link de.steilerdev.whatToStudy.Network.EMLearner EM learner}) to the stated tables.
+     * @param counts The tables of every node, using the layout of the tables of the {@link de.steilerdev.whatToStudy.Network.NetworkDefinition network definition}.
+     * @param weight The weight of the current findings, every distribution is scaled by this weight.
+     * @throws WhatToStudyException If the findings are inconsistent.
+     */
+    public void addFamilyBeliefs(double[][] counts, double weight) throws WhatToStudyException
+    {
+        propagate();
+        double scale = weight / findingsProbability;
+        for(int node = 0; node < familyBeliefs.length; node++)
+        {
+            int clique = tree.familyClique[node];
+            int[] nodes = tree.cliqueNodes[clique];
+            int[] strides = tree.familyStrides[node];
+            int observedIndex = 0;
+            for(int i = 0; i < nodes.length && observedIndex >= 0; i++)
+            {
+                if(strides[i] != 0)
+                {
+                    observedIndex = findings[nodes[i]] < 0? -1: observedIndex + findings[nodes[i]] * strides[i];
+                }
+            }
+            if(observedIndex >= 0)
+            {   //The node and all its parents are observed, therefore the whole weight belongs to a single entry
+                counts[node][observedIndex] += weight;
+                continue;
+            }
+
+            //After the propagation every clique is holding the joint distribution of its nodes and the findings
+            double[] family = familyBeliefs[node];
+            Arrays.fill(family, 0.0);
+            JunctionTree.project(potentials[clique], tree.cliqueCards[clique], tree.familyStrides[node], family, counter);
+            double[] nodeCounts = counts[node];
+            for(int i = 0; i < family.length; i++)
+            {
+                nodeCounts[i] += family[i] * scale;
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        //All resources are managed by the garbage collector
+    }
+
+    /**
+     * Marks the propagated potentials and beliefs as outdated.
+     */
+    private void invalidate()
+    {
+        propagated = false;
+        Arrays.fill(beliefsValid, false);
+    }
+
+    /**
+     * Propagates the current findings through the junction tree, if the potentials are outdated.
+     * @throws WhatToStudyException If the findings are inconsistent.
+     */
+    private void propagate() throws WhatToStudyException
+    {
+        if(propagated)
+        {
+            return;
+        }
+
+        //Resetting the potentials
+        for(int clique = 0; clique < potentials.length; clique++)
+        {
+            System.arraycopy(tree.initialPotentials[clique], 0, potentials[clique], 0, potentials[clique].length);
+        }
+
+        //Entering the findings, by removing all inconsistent entries of the home clique
+        for(int node = 0; node < findings.length; node++)
+        {
+            if(findings[node] >= 0)
+            {
+                double[] potential = potentials[tree.homeClique[node]];
+                int stride = tree.homeStride[node];
+                int states = tree.definition.getNumStates(node);
+                int keepStart = findings[node] * stride;
+                int keepEnd = keepStart + stride;
+                for(int block = 0; block < potential.length; block += stride * states)
+                {
+                    Arrays.fill(potential, block, block + keepStart, 0.0);
+                    Arrays.fill(potential, block + keepEnd, block + stride * states, 0.0);
+                }
+            }
+        }
+
+        //Collecting the evidence towards the root
+        for(int clique: tree.collectOrder)
+        {
+            int parent = tree.parentClique[clique];
+            Arrays.fill(separators[clique], 0.0);
+            JunctionTree.project(potentials[clique], tree.cliqueCards[clique], tree.childSeparatorStrides[clique], separators[clique], counter);
+            JunctionTree.multiply(potentials[parent], tree.cliqueCards[parent], tree.parentSeparatorStrides[clique], separators[clique], counter);
+        }
+
+        double total = 0.0;
+        for(double value: potentials[JunctionTree.rootClique])
+        {
+            total += value;
+        }
+        if(!(total > 0.0))
+        {
+            throw new WhatToStudyException("The entered findings are inconsistent with the network");
+        }
+        findingsProbability = total;
+
+        //Distributing the evidence back to the leaves
+        for(int i = tree.collectOrder.length - 1; i >= 0; i--)
+        {
+            int clique = tree.collectOrder[i];
+            int parent = tree.parentClique[clique];
+            double[] message = messages[clique];
+            double[] separator = separators[clique];
+            Arrays.fill(message, 0.0);
+            JunctionTree.project(potentials[parent], tree.cliqueCards[parent], tree.parentSeparatorStrides[clique], message, counter);
+            for(int entry = 0; entry < message.length; entry++)
+            {
+                message[entry] = separator[entry] == 0.0? 0.0: message[entry] / separator[entry];
+            }
+            JunctionTree.multiply(potentials[clique], tree.cliqueCards[clique], tree.childSeparatorStrides[clique], message, counter);
+        }
+        propagated = true;
+    }
+}
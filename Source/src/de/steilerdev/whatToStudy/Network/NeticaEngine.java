@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Main;
+import norsys.netica.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * This class is an {@link de.steilerdev.whatToStudy.Network.InferenceEngine inference engine} performing the inference using a compiled Netica network.
+ */
+public class NeticaEngine implements InferenceEngine
+{
+    /**
+     * The environment shared by all Netica engines.
+     */
+    private static Environ env = null;
+
+    /**
+     * The compiled network used for the inference.
+     */
+    private final Net net;
+
+    /**
+     * The nodes resolved so far, the position within the list is the index of the node.
+     */
+    private final ArrayList<Node> nodes = new ArrayList<>();
+
+    /**
+     * The index of every node resolved so far, identified by its name.
+     */
+    private final HashMap<String, Integer> nodeIndices = new HashMap<>();
+
+    /**
+     * Creates a new engine using the stated network.
+     * @param net A compiled network, the engine takes over the responsibility of finalizing it.
+     */
+    public NeticaEngine(Net net)
+    {
+        this.net = net;
+    }
+
+    /**
+     * Loads and compiles a network and creates a new engine using it.
+     * @param networkFile The file path of the network, or null if the internal network should be used.
+     * @return The engine using the loaded network.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public static NeticaEngine load(String networkFile) throws WhatToStudyException
+    {
+        try
+        {
+            Net net;
+            if(networkFile == null)
+            {   //If there is no network file use the internal file instead.
+                System.out.println("Loading network from internal file");
+                net = new Net(new Streamer(Thread.currentThread().getContextClassLoader()
+                        .getResourceAsStream(Main.internalFile), //Getting the network as java.io.InputStream from the Netica file
+                        "StudyNetwork", //Giving the Network a name
+                        getEnviron())); //Handling over the Environ
+            } else
+            {   //Load user specified network
+                System.out.println("Loading network from user specified file");
+                net = new Net(new Streamer(networkFile, getEnviron()));
+            }
+
+            System.out.println("Compiling network.");
+            net.compile();
+            return new NeticaEngine(net);
+        } catch (NeticaException e)
+        {
+            throw new WhatToStudyException("A Netica based error occurred while loading the network: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the environment shared by all Netica engines, the environment is created if it does not exist yet.
+     * @return The shared environment.
+     * @throws NeticaException If an error occurs.
+     */
+    private static synchronized Environ getEnviron() throws NeticaException
+    {
+        if(env == null)
+        {
+            env = Environ.getDefaultEnviron();
+            //Creating a new environment that is used as default environment later.
+            if(env == null)
+            {
+                env = new Environ(null);
+            }
+        }
+        return env;
+    }
+
+    /**
+     * Finalizes the environment shared by all Netica engines, if it was created. All engines need to be closed before.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public static synchronized void finalizeEnviron() throws WhatToStudyException
+    {
+        if(env != null)
+        {
+            try
+            {
+                env.finalize();
+                env = null;
+            } catch (NeticaException e)
+            {
+                throw new WhatToStudyException("A Netica based error occurred during the finalization of the environment.");
+            }
+        }
+    }
+
+    @Override
+    public int getNodeIndex(String nodeName) throws WhatToStudyException
+    {
+        Integer index = nodeIndices.get(nodeName);
+        if(index == null)
+        {
+            try
+            {
+                Node node = net.getNode(nodeName);
+                if(node == null)
+                {
+                    return -1;
+                }
+                index = nodes.size();
+                nodes.add(node);
+                nodeIndices.put(nodeName, index);
+            } catch (NeticaException e)
+            {
+                throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int getStateIndex(int node, String stateName) throws WhatToStudyException
+    {
+        try
+        {
+            State state = nodes.get(node).state(stateName);
+            return state == null? -1: state.getIndex();
+        } catch (NeticaException e)
+        {
+            return -1;
+        }
+    }
+
+    @Override
+    public void enterFinding(int node, int state) throws WhatToStudyException
+    {
+        try
+        {
+            Node currentNode = nodes.get(node);
+            currentNode.finding().clear();
+            currentNode.finding().enterState(state);
+        } catch (NeticaException e)
+        {
+            throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void enterFinding(int node, String stateName) throws WhatToStudyException
+    {
+        try
+        {
+            Node currentNode = nodes.get(node);
+            currentNode.finding().clear();
+            currentNode.finding().enterState(stateName);
+        } catch (NeticaException e)
+        {
+            throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void retractFinding(int node) throws WhatToStudyException
+    {
+        try
+        {
+            nodes.get(node).finding().clear();
+        } catch (NeticaException e)
+        {
+            throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void retractFindings() throws WhatToStudyException
+    {
+        try
+        {
+            net.retractFindings();
+        } catch (NeticaException e)
+        {
+            throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public double getBelief(int node, int state) throws WhatToStudyException
+    {
+        try
+        {
+            return nodes.get(node).getBeliefs()[state];
+        } catch (NeticaException e)
+        {
+            throw new WhatToStudyException("A Netica based error occurred: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws WhatToStudyException
+    {
+        try
+        {
+            net.finalize();
+        } catch (NeticaException e)
+        {
+            throw new WhatToStudyException("A Netica based error occurred during the finalization of the net.");
+        }
+    }
+}
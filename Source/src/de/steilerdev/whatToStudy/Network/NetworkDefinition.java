@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class is representing the structure and the conditional probability tables of a discrete Bayesian network, independent from Netica.<br>
+ * The conditional probability table of a node is stored as a flat array, where the first parent is the most significant dimension and the states of the node itself are the least significant one (The order used by Netica's .dne files).
+ * The arrays returned by this class must not be modified.
+ */
+public class NetworkDefinition
+{
+    private final String name;
+    private final String[] nodeNames;
+    private final String[][] stateNames;
+    private final int[][] parents;
+    private final double[][] tables;
+    private final HashMap<String, Integer> nodeIndices = new HashMap<>();
+    private final ArrayList<HashMap<String, Integer>> stateIndices;
+
+    /**
+     * Creates a new network definition.
+     * @param name The name of the network.
+     * @param nodeNames The names of all nodes.
+     * @param stateNames The names of the states of every node.
+     * @param parents The indices of the parents of every node.
+     * @param tables The conditional probability table of every node, or null if the node should be uniformly distributed.
+     * @throws WhatToStudyException If the definition is inconsistent.
+     */
+    @SuppressWarnings("unchecked")
+    public NetworkDefinition(String name, String[] nodeNames, String[][] stateNames, int[][] parents, double[][] tables) throws WhatToStudyException
+    {
+        this.name = name;
+        this.nodeNames = nodeNames;
+        this.stateNames = stateNames;
+        this.parents = parents;
+        this.tables = tables;
+        this.stateIndices = new ArrayList<>(nodeNames.length);
+
+        for(int node = 0; node < nodeNames.length; node++)
+        {
+            nodeIndices.put(nodeNames[node], node);
+            stateIndices.add(new HashMap<>());
+            for(int state = 0; state < stateNames[node].length; state++)
+            {
+                stateIndices.get(node).put(stateNames[node][state], state);
+            }
+        }
+
+        for(int node = 0; node < nodeNames.length; node++)
+        {
+            int tableSize = getNumParentConfigurations(node) * getNumStates(node);
+            if(tables[node] == null)
+            {   //Nodes without a table are uniformly distributed
+                tables[node] = new double[tableSize];
+                Arrays.fill(tables[node], 1.0 / getNumStates(node));
+            } else if(tables[node].length != tableSize)
+            {
+                throw new WhatToStudyException("The probability table of node " + nodeNames[node] + " has " + tables[node].length + " instead of " + tableSize + " entries");
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the network.
+     * @return The name of the network.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns the amount of nodes within the network.
+     * @return The amount of nodes.
+     */
+    public int getNumNodes()
+    {
+        return nodeNames.length;
+    }
+
+    /**
+     * Returns the index of the stated node.
+     * @param nodeName The name of the node.
+     * @return The index of the node, or -1 if the network does not contain the node.
+     */
+    public int getNodeIndex(String nodeName)
+    {
+        Integer index = nodeIndices.get(nodeName);
+        return index == null? -1: index;
+    }
+
+    /**
+     * Returns the name of the stated node.
+     * @param node The index of the node.
+     * @return The name of the node.
+     */
+    public String getNodeName(int node)
+    {
+        return nodeNames[node];
+    }
+
+    /**
+     * Returns the amount of states of the stated node.
+     * @param node The index of the node.
+     * @return The amount of states.
+     */
+    public int getNumStates(int node)
+    {
+        return stateNames[node].length;
+    }
+
+    /**
+     * Returns the index of the stated state.
+     * @param node The index of the node.
+     * @param stateName The name of the state.
+     * @return The index of the state, or -1 if the node does not contain the state.
+     */
+    public int getStateIndex(int node, String stateName)
+    {
+        Integer index = stateIndices.get(node).get(stateName);
+        return index == null? -1: index;
+    }
+
+    /**
+     * Returns the names of the states of the stated node, ordered by their index.
+     * @param node The index of the node.
+     * @return The names of the states.
+     */
+    public String[] getStateNames(int node)
+    {
+        return stateNames[node];
+    }
+
+    /**
+     * Returns the indices of the parents of the stated node, the first parent is the most significant dimension of the probability table.
+     * @param node The index of the node.
+     * @return The indices of the parents.
+     */
+    public int[] getParents(int node)
+    {
+        return parents[node];
+    }
+
+    /**
+     * Returns the amount of possible configurations of the parents of a node.
+     * @param node The index of the node.
+     * @return The product of the amount of states of all parents.
+     */
+    public int getNumParentConfigurations(int node)
+    {
+        int configurations = 1;
+        for(int parent: parents[node])
+        {
+            configurations *= getNumStates(parent);
+        }
+        return configurations;
+    }
+
+    /**
+     * Returns the conditional probability table of a node.
+     * @param node The index of the node.
+     * @return The flat probability table, where the first parent is the most significant and the node itself the least significant dimension.
+     */
+    public double[] getTable(int node)
+    {
+        return tables[node];
+    }
+
+    /**
+     * Creates a new definition of the same network, using the stated conditional probability tables.
+     * @param newTables The conditional probability table of every node, or null if the node should be uniformly distributed.
+     * @return The new network definition.
+     * @throws WhatToStudyException If a table does not match the structure of the network.
+     */
+    public NetworkDefinition withTables(double[][] newTables) throws WhatToStudyException
+    {
+        return new NetworkDefinition(name, nodeNames, stateNames, parents, Arrays.copyOf(newTables, nodeNames.length));
+    }
+
+    /**
+     * Checks if the stated network has the same structure as this network: The same nodes, states and parents in the same order.
+     * @param other The other network.
+     * @return True if the tables of the other network are using the same layout, false otherwise.
+     */
+    public boolean hasSameStructure(NetworkDefinition other)
+    {
+        return Arrays.equals(nodeNames, other.nodeNames) && Arrays.deepEquals(stateNames, other.stateNames) && Arrays.deepEquals(parents, other.parents);
+    }
+}
@@ -0,0 +1,309 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Main;
+import de.steilerdev.whatToStudy.Utility.Case.PackedCase;
+import de.steilerdev.whatToStudy.Utility.Case.Variable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is managing a process wide pool of loaded and compiled {@link de.steilerdev.whatToStudy.Network.InferenceEngine inference engines}.
+ * Loading and compiling a network is expensive, therefore the engines are kept inside the pool and are checked out by the functionalities, which are returning them after the evaluation is finished.
+ * Engines are only created on demand, until the {@link de.steilerdev.whatToStudy.Main#networkPoolSize configured pool size} is reached.
+ * All findings of an engine are retracted as soon as it is returned to the pool.<br>
+ * The type of the engines is selected using {@link de.steilerdev.whatToStudy.Main#inferenceEngine}.
+ */
+public class NetworkPool
+{
+    /**
+     * The key used for the pool of the internal network.
+     */
+    private static final String internalNetworkKey = "";
+
+    /**
+     * All pools created during the runtime of the application, identified by the network file (or the internal network key).
+     */
+    private static final HashMap<String, NetworkPool> pools = new HashMap<>();
+
+    /**
+     * The version of the model assigned to the last created pool.
+     */
+    private static final AtomicLong lastModelVersion = new AtomicLong();
+
+    /**
+     * True if at least one Netica engine was created, and the Netica environment needs to be finalized.
+     * The flag is not guarded by the class lock, because it is set while holding the lock of a pool, which {@link #shutdown()} is acquiring after the class lock.
+     */
+    private static final AtomicBoolean neticaUsed = new AtomicBoolean(false);
+
+    /**
+     * The file path of the network managed by this pool, or null if it is the internal network.
+     */
+    private final String networkFile;
+
+    /**
+     * The maximum amount of engines created by this pool.
+     */
+    private final int poolSize;
+
+    /**
+     * The version of the model used by the engines of this pool, unique within the runtime of the application.
+     */
+    private final long modelVersion = lastModelVersion.incrementAndGet();
+
+    /**
+     * The engines currently not checked out.
+     */
+    private final ArrayBlockingQueue<InferenceEngine> idleEngines;
+
+    /**
+     * All engines created by this pool, used to close them during the shutdown.
+     */
+    private final ArrayList<InferenceEngine> createdEngines = new ArrayList<>();
+
+    /**
+     * The junction tree shared by all pure Java engines of this pool, compiled as soon as the first engine is created.
+     */
+    private JunctionTree junctionTree = null;
+
+    /**
+     * The mask covering the variables used as nodes by the network of this pool, or null if it was not yet determined.
+     */
+    private Long projection = null;
+
+    /**
+     * Creates a new pool for the stated network.
+     * @param networkFile The file path of the network, or null if the internal network should be used.
+     * @param poolSize The maximum amount of engines created by this pool.
+     */
+    private NetworkPool(String networkFile, int poolSize)
+    {
+        this.networkFile = networkFile;
+        this.poolSize = poolSize;
+        this.idleEngines = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Returns the process wide pool of the internal network.
+     * @return The pool of the internal network.
+     */
+    public static NetworkPool getPool()
+    {
+        return getPool(null);
+    }
+
+    /**
+     * Returns the process wide pool of the stated network file. The pool is created if it does not exist yet.
+     * @param networkFile The file path of the network, or null if the internal network should be used.
+     * @return The pool of the stated network.
+     */
+    public static synchronized NetworkPool getPool(String networkFile)
+    {
+        String key = networkFile == null? internalNetworkKey: networkFile;
+        NetworkPool pool = pools.get(key);
+        if(pool == null)
+        {
+            pool = new NetworkPool(networkFile, Math.max(1, Main.networkPoolSize));
+            pools.put(key, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the maximum amount of engines created by this pool.
+     * @return The size of the pool.
+     */
+    public int getPoolSize()
+    {
+        return poolSize;
+    }
+
+    /**
+     * Returns the version of the model used by the engines of this pool. Every pool (Including pools recreated after a {@link #shutdown()}) is using a different version, therefore results calculated using another model are never mixed up.
+     * @return The version of the model.
+     */
+    public long getModelVersion()
+    {
+        return modelVersion;
+    }
+
+    /**
+     * Returns a mask covering all variables that are nodes of the network managed by this pool, which can be used to only clean the columns of a case that are used by the network.
+     * The mask is created using {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(Variable...)} and determined only once.
+     * @return The mask of the variables used by the network.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public synchronized long getProjection() throws WhatToStudyException
+    {
+        if(projection == null)
+        {
+            InferenceEngine engine = checkOut();
+            try
+            {
+                ArrayList<Variable> usedVariables = new ArrayList<>();
+                for(Variable variable: Variable.values())
+                {
+                    if(engine.getNodeIndex(variable.getHeader()) >= 0)
+                    {
+                        usedVariables.add(variable);
+                    }
+                }
+                projection = PackedCase.mask(usedVariables.toArray(new Variable[usedVariables.size()]));
+            } finally
+            {
+                checkIn(engine);
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * Checks out an engine without any findings. If there is no idle engine and the pool size is not yet reached, a new engine is created, otherwise the call blocks until an engine is returned.
+     * The engine needs to be returned using {@link #checkIn(InferenceEngine)} after the evaluation is finished.
+     * @return An engine, exclusively used by the caller until it is returned.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public InferenceEngine checkOut() throws WhatToStudyException
+    {
+        InferenceEngine engine = idleEngines.poll();
+        if(engine != null)
+        {
+            return engine;
+        }
+
+        synchronized (this)
+        {
+            if(createdEngines.size() < poolSize)
+            {
+                engine = createEngine();
+                createdEngines.add(engine);
+                return engine;
+            }
+        }
+
+        try
+        {
+            return idleEngines.take();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new WhatToStudyException("Interrupted while waiting for an idle network.");
+        }
+    }
+
+    /**
+     * Returns an engine to the pool, after retracting all of its findings.
+     * @param engine The engine previously checked out from this pool.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public void checkIn(InferenceEngine engine) throws WhatToStudyException
+    {
+        if(engine == null)
+        {
+            return;
+        }
+        try
+        {
+            engine.retractFindings();
+            idleEngines.offer(engine);
+        } catch (WhatToStudyException e)
+        {
+            //The engine is in an unknown state and is not going to be used anymore.
+            synchronized (this)
+            {
+                createdEngines.remove(engine);
+            }
+            try
+            {
+                engine.close();
+            } catch (WhatToStudyException closeException)
+            {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Closes all engines of all pools and finalizes the Netica environment if it was used. The pools can be used again afterwards, but need to load their networks again.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public static synchronized void shutdown() throws WhatToStudyException
+    {
+        for(NetworkPool pool: pools.values())
+        {
+            synchronized (pool)
+            {
+                pool.idleEngines.clear();
+                for(InferenceEngine engine: pool.createdEngines)
+                {
+                    engine.close();
+                }
+                pool.createdEngines.clear();
+                pool.junctionTree = null;
+            }
+        }
+        pools.clear();
+
+        if(neticaUsed.getAndSet(false))
+        {
+            NeticaEngine.finalizeEnviron();
+        }
+    }
+
+    /**
+     * Creates a new engine for the network managed by this pool, using the configured engine type.
+     * @return The new engine.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    private InferenceEngine createEngine() throws WhatToStudyException
+    {
+        if(Main.inferenceEngine.equals("java"))
+        {
+            if(junctionTree == null)
+            {
+                NetworkDefinition definition;
+                if(networkFile == null)
+                {   //If there is no network file use the internal file instead.
+                    System.out.println("Loading network from internal file");
+                    definition = DneReader.read(Thread.currentThread().getContextClassLoader().getResourceAsStream(Main.internalFile));
+                } else
+                {   //Load user specified network
+                    System.out.println("Loading network from user specified file");
+                    definition = DneReader.read(networkFile);
+                }
+                System.out.println("Compiling network.");
+                junctionTree = new JunctionTree(definition);
+            }
+            return junctionTree.newEngine();
+        } else if(Main.inferenceEngine.equals("netica"))
+        {
+            neticaUsed.set(true);
+            return NeticaEngine.load(networkFile);
+        } else
+        {
+            throw new WhatToStudyException("Unknown inference engine " + Main.inferenceEngine);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Utility.Case.PackedCase;
+import de.steilerdev.whatToStudy.Utility.Posterior;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a concurrent and size bounded cache of {@link de.steilerdev.whatToStudy.Utility.Posterior posteriors}, identified by the version of the model (See {@link NetworkPool#getModelVersion()}) and the {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed evidence}.
+ * The cache is split into segments, each one guarded by its own lock and evicting its least recently used entry as soon as it is full.
+ */
+public class PosteriorCache
+{
+    /**
+     * The maximum amount of segments.
+     */
+    private static final int maxSegments = 16;
+
+    /**
+     * The segments of the cache, the segment of an entry is selected using the hash code of its key.
+     */
+    private final Segment[] segments;
+
+    /**
+     * The amount of lookups returning a cached posterior.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The amount of lookups not returning a cached posterior.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The amount of entries removed, because their segment was full.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new cache.
+     * @param maximumSize The maximum amount of cached posteriors, 0 is disabling the cache.
+     */
+    public PosteriorCache(int maximumSize)
+    {
+        int segmentCount = java.lang.Math.max(0, java.lang.Math.min(maxSegments, maximumSize));
+        segments = new Segment[segmentCount];
+        for(int i = 0; i < segmentCount; i++)
+        {
+            //Distributing the size among the segments, without exceeding the maximum size
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount? 1: 0));
+        }
+    }
+
+    /**
+     * Returns the cached posterior of the stated evidence.
+     * @param modelVersion The version of the model used to calculate the posterior.
+     * @param evidence The packed evidence.
+     * @return The cached posterior, or null if it is not cached.
+     */
+    public Posterior get(long modelVersion, long evidence)
+    {
+        Posterior posterior = null;
+        if(segments.length > 0)
+        {
+            Key key = new Key(modelVersion, evidence);
+            Segment segment = getSegment(key);
+            synchronized (segment)
+            {
+                posterior = segment.get(key);
+            }
+        }
+
+        if(posterior == null)
+        {
+            misses.increment();
+        } else
+        {
+            hits.increment();
+        }
+        return posterior;
+    }
+
+    /**
+     * Stores the posterior of the stated evidence, evicting the least recently used entry of the segment if it is full.
+     * @param modelVersion The version of the model used to calculate the posterior.
+     * @param evidence The packed evidence.
+     * @param posterior The posterior.
+     */
+    public void put(long modelVersion, long evidence, Posterior posterior)
+    {
+        if(segments.length > 0)
+        {
+            Key key = new Key(modelVersion, evidence);
+            Segment segment = getSegment(key);
+            synchronized (segment)
+            {
+                segment.put(key, posterior);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached posteriors, the counters are not reset.
+     */
+    public void clear()
+    {
+        for(Segment segment: segments)
+        {
+            synchronized (segment)
+            {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of cached posteriors.
+     * @return The size of the cache.
+     */
+    public int size()
+    {
+        int size = 0;
+        for(Segment segment: segments)
+        {
+            synchronized (segment)
+            {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the amount of lookups returning a cached posterior.
+     * @return The amount of hits.
+     */
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the amount of lookups not returning a cached posterior.
+     * @return The amount of misses.
+     */
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the amount of entries removed, because their segment was full.
+     * @return The amount of evictions.
+     */
+    public long getEvictions()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * Creates a human readable summary of the counters.
+     * @return The summary.
+     */
+    @Override
+    public String toString()
+    {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return "Posterior cache: " + hits + " hits, " + getMisses() + " misses, " + getEvictions() + " evictions" +
+                (lookups > 0? " (Hit rate " + (100 * hits / lookups) + "%)": "");
+    }
+
+    /**
+     * Selects the segment of the stated key.
+     * @param key The key.
+     * @return The segment.
+     */
+    private Segment getSegment(Key key)
+    {
+        return segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /**
+     * The key of a cached posterior.
+     */
+    private static class Key
+    {
+        private final long modelVersion;
+        private final long evidence;
+
+        private Key(long modelVersion, long evidence)
+        {
+            this.modelVersion = modelVersion;
+            this.evidence = evidence;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof Key && ((Key) o).modelVersion == modelVersion && ((Key) o).evidence == evidence;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return PackedCase.hashCode(evidence + 31 * modelVersion);
+        }
+    }
+
+    /**
+     * A segment of the cache, ordered by the last access of its entries.
+     */
+    private class Segment extends LinkedHashMap<Key, Posterior>
+    {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The maximum amount of entries of this segment.
+         */
+        private final int maximumSize;
+
+        private Segment(int maximumSize)
+        {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Posterior> eldest)
+        {
+            if(size() > maximumSize)
+            {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
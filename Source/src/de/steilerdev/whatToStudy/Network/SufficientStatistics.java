@@ -0,0 +1,244 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Network;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Utility.AtomicFile;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class is holding the sufficient statistics of a learned network: The (expected) weighted count of every state and parent configuration of every node.
+ * The statistics are stored alongside the network (see {@link #getFileName(String)}), therefore new cases can be added to a learned network without reading the previous cases again.<br>
+ * The binary file is starting with a magic number, followed by the amount of nodes and the name and size of every node, followed by its non-zero counts as pairs of index and count (Most parent configurations of large tables are never observed).
+ */
+public class SufficientStatistics
+{
+    /**
+     * The magic number at the start of a statistics file.
+     */
+    private static final int magicNumber = 0x57545353;
+
+    /**
+     * The extension of the statistics file, appended to the name of the network file.
+     */
+    private static final String extension = ".stats";
+
+    /**
+     * The structure of the network.
+     */
+    private final NetworkDefinition definition;
+
+    /**
+     * The counts of every node, using the layout of the tables of the network definition.
+     */
+    private final double[][] counts;
+
+    /**
+     * Creates new statistics holding the stated counts.
+     * @param definition The structure of the network.
+     * @param counts The counts of every node, using the layout of the tables of the {@link de.steilerdev.whatToStudy.Network.NetworkDefinition network definition}.
+     */
+    public SufficientStatistics(NetworkDefinition definition, double[][] counts)
+    {
+        this.definition = definition;
+        this.counts = counts;
+    }
+
+    /**
+     * Creates empty statistics for the stated network.
+     * @param definition The structure of the network.
+     */
+    public SufficientStatistics(NetworkDefinition definition)
+    {
+        this(definition, new double[definition.getNumNodes()][]);
+        for(int node = 0; node < counts.length; node++)
+        {
+            counts[node] = new double[definition.getTable(node).length];
+        }
+    }
+
+    /**
+     * Returns the name of the statistics file stored alongside the stated network file.
+     * @param networkFile The path of the network file.
+     * @return The path of the statistics file.
+     */
+    public static String getFileName(String networkFile)
+    {
+        return networkFile + extension;
+    }
+
+    /**
+     * Reads the statistics of the stated network from a file.
+     * @param definition The structure of the network, the statistics need to match.
+     * @param statisticsFile The path of the statistics file.
+     * @return The statistics.
+     * @throws WhatToStudyException If the file could not be read or does not match the network.
+     */
+    public static SufficientStatistics read(NetworkDefinition definition, String statisticsFile) throws WhatToStudyException
+    {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(statisticsFile))))
+        {
+            if(in.readInt() != magicNumber)
+            {
+                throw new WhatToStudyException("The file " + statisticsFile + " is not a statistics file");
+            }
+            int numNodes = in.readInt();
+            if(numNodes != definition.getNumNodes())
+            {
+                throw new WhatToStudyException("The statistics file " + statisticsFile + " does not match the network");
+            }
+            double[][] counts = new double[numNodes][];
+            for(int i = 0; i < numNodes; i++)
+            {
+                String nodeName = in.readUTF();
+                int node = definition.getNodeIndex(nodeName);
+                int size = in.readInt();
+                if(node < 0 || counts[node] != null || size != definition.getTable(node).length)
+                {
+                    throw new WhatToStudyException("The statistics of node " + nodeName + " do not match the network");
+                }
+                counts[node] = new double[size];
+                int entries = in.readInt();
+                for(int entry = 0; entry < entries; entry++)
+                {
+                    int index = in.readInt();
+                    if(index < 0 || index >= size)
+                    {
+                        throw new WhatToStudyException("The statistics of node " + nodeName + " do not match the network");
+                    }
+                    counts[node][index] = in.readDouble();
+                }
+            }
+            return new SufficientStatistics(definition, counts);
+        } catch (FileNotFoundException e)
+        {
+            throw new WhatToStudyException("Unable to open the specified file: " + e.getMessage());
+        } catch (EOFException e)
+        {
+            throw new WhatToStudyException("The statistics file " + statisticsFile + " is truncated");
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while reading the statistics file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the statistics to a temporary file next to the stated file, which is replacing the file atomically as soon as it is published using {@link AtomicFile#publish(Path, String)}.
+     * @param statisticsFile The path of the statistics file.
+     * @return The path of the completely written temporary file.
+     * @throws WhatToStudyException If the file could not be written, the temporary file is deleted in this case.
+     */
+    public Path writeTemporary(String statisticsFile) throws WhatToStudyException
+    {
+        Path temporary = AtomicFile.createTemporary(statisticsFile);
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))
+        {
+            out.writeInt(magicNumber);
+            out.writeInt(counts.length);
+            for(int node = 0; node < counts.length; node++)
+            {
+                out.writeUTF(definition.getNodeName(node));
+                out.writeInt(counts[node].length);
+                int entries = 0;
+                for(double count: counts[node])
+                {
+                    entries += count != 0.0? 1: 0;
+                }
+                out.writeInt(entries);
+                for(int index = 0; index < counts[node].length; index++)
+                {
+                    if(counts[node][index] != 0.0)
+                    {
+                        out.writeInt(index);
+                        out.writeDouble(counts[node][index]);
+                    }
+                }
+            }
+        } catch (IOException e)
+        {
+            AtomicFile.discard(temporary);
+            throw new WhatToStudyException("Error occurred while writing the statistics file: " + e.getMessage());
+        }
+        return temporary;
+    }
+
+    /**
+     * Multiplies all counts with the stated factor, so previously added cases weigh less than the cases added afterwards.
+     * @param factor The fading factor, between 0 (Forgetting all previous cases) and 1 (Keeping all previous cases).
+     */
+    public void fade(double factor)
+    {
+        if(factor != 1.0)
+        {
+            for(double[] nodeCounts: counts)
+            {
+                for(int i = 0; i < nodeCounts.length; i++)
+                {
+                    nodeCounts[i] *= factor;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the stated counts to the statistics.
+     * @param newCounts The counts of every node, using the layout of the tables of the network definition.
+     */
+    public void add(double[][] newCounts)
+    {
+        for(int node = 0; node < counts.length; node++)
+        {
+            for(int i = 0; i < counts[node].length; i++)
+            {
+                counts[node][i] += newCounts[node][i];
+            }
+        }
+    }
+
+    /**
+     * Returns the counts of every node.
+     * @return The counts, using the layout of the tables of the {@link de.steilerdev.whatToStudy.Network.NetworkDefinition network definition}.
+     */
+    public double[][] getCounts()
+    {
+        return counts;
+    }
+
+    /**
+     * Returns the total weight of all cases within the statistics.
+     * @return The total weight, the sum of the counts of a root node.
+     */
+    public double getTotalWeight()
+    {
+        double total = 0;
+        for(int node = 0; node < counts.length; node++)
+        {
+            if(definition.getParents(node).length == 0)
+            {
+                for(double count: counts[node])
+                {
+                    total += count;
+                }
+                return total;
+            }
+        }
+        return total;
+    }
+}
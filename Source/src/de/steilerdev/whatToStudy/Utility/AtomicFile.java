@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+/**
+ * This class is used to publish files atomically: The content is written to a temporary file within the directory of the target, which is moved onto the target afterwards.
+ * Therefore a reader of the target is either seeing the complete previous or the complete new content, even if the writing process is aborted.
+ */
+public class AtomicFile
+{
+    /**
+     * Returns the path of a new temporary file within the directory of the stated target. The file itself is created by the writer, using the default permissions.
+     * @param target The path of the file that is going to be published.
+     * @return The path of the temporary file.
+     */
+    public static Path createTemporary(String target)
+    {
+        Path targetPath = Paths.get(target).toAbsolutePath();
+        return targetPath.resolveSibling("." + targetPath.getFileName() + "." + System.nanoTime() + ".tmp");
+    }
+
+    /**
+     * Moves the temporary file onto the target, replacing the previous file. If the file system does not support atomic moves, the file is replaced non-atomically.
+     * @param temporary The completely written temporary file.
+     * @param target The path of the published file.
+     * @throws WhatToStudyException If the file could not be moved, the temporary file is deleted in this case.
+     */
+    public static void publish(Path temporary, String target) throws WhatToStudyException
+    {
+        Path targetPath = Paths.get(target).toAbsolutePath();
+        try
+        {
+            try
+            {
+                Files.move(temporary, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(temporary, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e)
+        {
+            discard(temporary);
+            throw new WhatToStudyException("Unable to publish " + target + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the temporary file, used if the writing process failed.
+     * @param temporary The temporary file, or null.
+     */
+    public static void discard(Path temporary)
+    {
+        if(temporary != null)
+        {
+            try
+            {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {}
+        }
+    }
+}
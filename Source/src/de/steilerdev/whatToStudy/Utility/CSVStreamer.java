@@ -16,15 +16,14 @@
  */
 package de.steilerdev.whatToStudy.Utility;
 
+import de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 import de.steilerdev.whatToStudy.Utility.Case.*;
 import de.steilerdev.whatToStudy.Utility.Case.Math;
-import norsys.netica.Environ;
-import norsys.netica.NeticaException;
-import norsys.netica.Streamer;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class converts a input stream, or a CSV file to be usable by Netica (Respecting Netica Constraints and converting continuous values into discrete ones).
@@ -49,6 +48,8 @@ import java.util.ArrayList;
  *      <li>{@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade Intermediate Calculation}</li>
  *      <li>{@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade Final Grade}</li>
  * </ol>
+ * Input files are opened using {@link de.steilerdev.whatToStudy.Utility.Compression}, therefore gzip compressed files are accepted as well.
+ * Instead of a CSV file, a {@link de.steilerdev.whatToStudy.Utility.CaseFile binary case file} or an already cleaned {@link de.steilerdev.whatToStudy.Utility.NeticaCaseReader Netica case file} can be used by the functions reading a file.
  */
 public class CSVStreamer
 {
@@ -59,187 +60,120 @@ public class CSVStreamer
     public static String cvsSplitBy = ";";
 
     /**
-     * Counting current line number of input file for sophisticated error message.
-     */
-    public static int currentLineNumber = 0;
-
-    /**
-     * This function is converting the file format specified by the exercise, cleans the values and returns a unified Streamer, usable by NeticaJ.<br>
+     * This function is reading all cases of an input file into a columnar {@link de.steilerdev.whatToStudy.Utility.Case.CaseStore case store}.<br>
      * The first line needs to be a valid header specified within the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations}. The order is specified within the class description of this class. <br>
      * The values are validated and converted according to the specification stated in the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations} and the order is specified within the class description of this class.
-     * @param inputFile The string representing the path to the input file.
-     * @param streamName The name of the Streamer used by Netica.
-     * @param env The current Environment.
-     * @return A Streamer object usable by NeticaJ
+     * @param inputFile The file name of the input file
+     * @return A store containing all cases.
      * @throws WhatToStudyException If an error occurs.
      */
-    public static Streamer getNeticaStream(String inputFile, String streamName, Environ env) throws WhatToStudyException
+    public static CaseStore getCaseStore(String inputFile) throws WhatToStudyException
     {
-        try
-        {
-            File initialFile = new File(inputFile);
-            InputStream targetStream = new FileInputStream(initialFile);
-            return getNeticaStream(targetStream, streamName, env);
-        } catch (FileNotFoundException e)
-        {
-            throw new WhatToStudyException("Unable to find the specified file " + inputFile);
-        }
+        return getCaseStore(inputFile, PackedCase.ALL);
     }
 
     /**
-     * This function is converting the file format specified by the exercise, cleans the values and returns a unified Streamer, usable by NeticaJ. <br>
-     * The first line needs to be a valid header specified within the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations}. The order is specified within the class description of this class. <br>
-     * The values are validated and converted according to the specification stated in the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations} and the order is specified within the class description of this class.
-     * @param inputStream The input file as stream.
-     * @param streamName The name of the Streamer used by Netica.
-     * @param env The current Environment.
-     * @return A Streamer object usable by NeticaJ
+     * This function is reading all cases of an input file into a columnar {@link de.steilerdev.whatToStudy.Utility.Case.CaseStore case store}, only cleaning the stated columns of a CSV or Netica case file.
+     * @param inputFile The file name of the input file
+     * @param projection The {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask mask} of the variables that are cleaned, all other values are treated as not stated.
+     * @return A store containing all cases.
      * @throws WhatToStudyException If an error occurs.
      */
-    public static Streamer getNeticaStream(InputStream inputStream, String streamName, Environ env) throws WhatToStudyException
+    public static CaseStore getCaseStore(String inputFile, long projection) throws WhatToStudyException
     {
-        PrintStream fileStream = null;
-        BufferedReader br = null;
-        try
+        if(CaseFile.isCaseFile(inputFile))
+        {   //The cases are already cleaned
+            return CaseFile.read(inputFile);
+        } else if(NeticaCaseReader.isNeticaCaseFile(inputFile))
         {
-            //Temp file, storing the converted information. (Workaround for creating an InputStream from an OutputStream)
-            File file = new File(".tempData");
-            if (!file.exists())
-            {
-                file.createNewFile();
-            }
-            //Deleting temp file after finishing.
-            file.deleteOnExit();
-
-            //The print stream used to write to the temp file
-            fileStream = new PrintStream(file);
-
-            //Printing the cleaned header
-            fileStream.print(Qualification.getHeader() + " ");
-            fileStream.print(QualificationAverage.getHeader() + " ");
-            fileStream.print(State.getHeader() + " ");
-            fileStream.print(Math.getHeader() + " ");
-            fileStream.print(Physics.getHeader() + " ");
-            fileStream.print(German.getHeader() + " ");
-            fileStream.print(SchoolType.getHeader() + " ");
-            fileStream.print(OLTMath.getHeader() + " ");
-            fileStream.print(OLTGerman.getHeader() + " ");
-            fileStream.print(StudyAbilityTest.getHeader() + " ");
-            fileStream.print(Age.getHeader() + " ");
-            fileStream.print(Sex.getHeader() + " ");
-            fileStream.print(ParentalIncome.getHeader() + " ");
-            fileStream.print(Nationality.getHeader() + " ");
-            fileStream.print(Course.getHeader() + " ");
-            fileStream.print(FinalGrade.getHeader() + "\n");
-
-            //Getting a list of all cases of the file
-            ArrayList<Case> cases = getCaseList(inputStream);
-
-            //Adding a new line for each case
-            for(Case currentCase: cases)
-            {
-                fileStream.println(currentCase.toString());
-            }
-
-            fileStream.flush();
-
-            FileInputStream in = new FileInputStream(file);
-
-            return new Streamer(in, streamName, env);
-        } catch (IOException e)
-        {
-            throw new WhatToStudyException("An IO related error occurred during the creation of the Netica stream.");
-        } catch(NeticaException e)
-        {
-            throw new WhatToStudyException("A Netica related error occurred during the creation of the Netica stream.");
-        } finally
-        {
-            if(fileStream != null)
-            {
-                fileStream.close();
-            }
-            if(br != null)
-            {
-                try
-                {
-                    br.close();
-                } catch (IOException e)
-                {
-                    throw new WhatToStudyException("An IO related error occurred during the creation of the Netica stream.");
-                }
-            }
+            return NeticaCaseReader.read(inputFile, projection);
         }
+        return MappedCSVReader.read(inputFile, false, projection);
     }
 
     /**
-     * This function is creating a list of cases from an input file.<br>
+     * This function is creating a lazy stream of the cases of an input file, reading and cleaning a line only as soon as its case is pulled. The stream needs to be closed after it is consumed.<br>
      * The first line needs to be a valid header specified within the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations}. The order is specified within the class description of this class. <br>
-     * The values are validated and converted according to the specification stated in the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations} and the order is specified within the class description of this class.
+     * Errors occurring during the consumption are thrown as {@link de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException unchecked exceptions}.
      * @param inputFile The file name of the input file
-     * @return A list of cases.
-     * @throws WhatToStudyException If an error occurs.
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @return A stream of cases, that can be consumed in parallel.
+     * @throws WhatToStudyException If the header is invalid, or an error occurs.
      */
-    public static ArrayList<Case> getCaseList(String inputFile) throws WhatToStudyException
+    public static Stream<Case> streamCases(String inputFile, boolean skipNonMandatory) throws WhatToStudyException
     {
+        return streamCases(inputFile, skipNonMandatory, PackedCase.ALL);
+    }
+
+    /**
+     * This function is creating a lazy stream of the cases of an input file, only cleaning the projected columns of a line as soon as its case is pulled. All other values of the cases are missing and their columns are not validated.<br>
+     * This should be used if the consumer only needs a subset of the variables, e.g. the nodes of a network.
+     * @param inputFile The file name of the input file
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @param projection A mask created by {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(Variable...)}, covering the variables that are cleaned.
+     * @return A stream of cases, that can be consumed in parallel.
+     * @throws WhatToStudyException If the header is invalid, or an error occurs.
+     */
+    public static Stream<Case> streamCases(String inputFile, boolean skipNonMandatory, long projection) throws WhatToStudyException
+    {
+        if(CaseFile.isCaseFile(inputFile))
+        {   //The cases are already cleaned
+            return CaseFile.stream(inputFile, projection);
+        } else if(NeticaCaseReader.isNeticaCaseFile(inputFile))
+        {
+            return NeticaCaseReader.stream(inputFile, projection);
+        }
         try
         {
-            File initialFile = new File(inputFile);
-            InputStream targetStream = new FileInputStream(initialFile);
-            return getCaseList(targetStream);
+            return streamCases(Compression.openInput(inputFile), skipNonMandatory, projection);
         } catch (FileNotFoundException e)
         {
             throw new WhatToStudyException("Unable to find the specified file " + inputFile);
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while opening the input file " + inputFile);
         }
     }
 
     /**
-     * This function is creating a list of cases from an Input Stream.<br>
+     * This function is creating a lazy stream of the cases of an input stream, reading and cleaning a line only as soon as its case is pulled. The stream needs to be closed after it is consumed, which is closing the input stream.<br>
      * The first line needs to be a valid header specified within the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations}. The order is specified within the class description of this class. <br>
-     * The values are validated and converted according to the specification stated in the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations} and the order is specified within the class description of this class.
-     * @param inputStream The input stream that is read by the function
-     * @return A list of cases.
-     * @throws WhatToStudyException If an error occurs.
+     * Errors occurring during the consumption are thrown as {@link de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException unchecked exceptions}.
+     * @param inputStream The input stream
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @return A stream of cases, that can be consumed in parallel.
+     * @throws WhatToStudyException If the header is invalid, or an error occurs.
      */
-    public static ArrayList<Case> getCaseList(InputStream inputStream) throws WhatToStudyException
+    public static Stream<Case> streamCases(InputStream inputStream, boolean skipNonMandatory) throws WhatToStudyException
     {
-        try(BufferedReader br = new BufferedReader(new InputStreamReader(inputStream)))
-        {
-            ArrayList<Case> caseList = new ArrayList<>();
-            String line;
-
-            //Parsing and validating header
-            if ((line = br.readLine()) != null)
-            {
-                currentLineNumber++;
-                String[] header = line.split(cvsSplitBy);
-                if (!validateHeader(header, false))
-                {
-                    throw new WhatToStudyException("The header of the specific file does not meet the stated requirements. See help page for more information");
-                }
-            }
+        return streamCases(inputStream, skipNonMandatory, PackedCase.ALL);
+    }
 
-            while ((line = br.readLine()) != null)
-            {
-                currentLineNumber++;
-                caseList.add(getCase(line));
-            }
-            return caseList;
-        } catch (IOException e)
-        {
-            throw new WhatToStudyException("Error occurred while reading the input stream.");
-        }
+    /**
+     * This function is creating a lazy stream of the cases of an input stream, only cleaning the projected columns of a line as soon as its case is pulled. All other values of the cases are missing and their columns are not validated.
+     * @param inputStream The input stream
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @param projection A mask created by {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(Variable...)}, covering the variables that are cleaned.
+     * @return A stream of cases, that can be consumed in parallel.
+     * @throws WhatToStudyException If the header is invalid, or an error occurs.
+     */
+    public static Stream<Case> streamCases(InputStream inputStream, boolean skipNonMandatory, long projection) throws WhatToStudyException
+    {
+        CaseSpliterator spliterator = new CaseSpliterator(inputStream, skipNonMandatory, projection);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
     }
 
     /**
      * This function creates a case using the case line. The line needs to have all 17 columns separated by the cvsSplitBy character.<br>
      * The values are validated and converted according to the specification stated in the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations} and the order is specified within the class description of this class.
      * @param caseLine The source line used to create a case.
+     * @param lineNumber The line number of the case line within its file, used for error messages.
      * @return The case described inside the case line.
      * @throws WhatToStudyException If an error occurs.
      */
-    public static Case getCase(String caseLine) throws WhatToStudyException
+    public static Case getCase(String caseLine, int lineNumber) throws WhatToStudyException
     {
-        return getCase(caseLine, false);
+        return getCase(caseLine, false, lineNumber);
     }
 
     /**
@@ -254,17 +188,17 @@ public class CSVStreamer
     {
         try
         {
-            File initialFile = new File(inputFile);
-            InputStream inputStream = new FileInputStream(initialFile);
+            InputStream inputStream = Compression.openInput(inputFile);
 
             try(BufferedReader br = new BufferedReader(new InputStreamReader(inputStream)))
             {
                 String line;
+                int lineNumber = 0;
 
                 //Parsing and validating header
                 if ((line = br.readLine()) != null)
                 {
-                    currentLineNumber++;
+                    lineNumber++;
                     String[] header = line.split(cvsSplitBy);
                     if (!validateHeader(header, true))
                     {
@@ -274,8 +208,8 @@ public class CSVStreamer
 
                 if ((line = br.readLine()) != null)
                 {
-                    currentLineNumber++;
-                    return getCase(line, true);
+                    lineNumber++;
+                    return getCase(line, true, lineNumber);
                 } else
                 {
                     throw new WhatToStudyException("No line to read from.");
@@ -287,6 +221,9 @@ public class CSVStreamer
         } catch (FileNotFoundException e)
         {
             throw new WhatToStudyException("Unable to find the specified file " + inputFile);
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while opening the input file " + inputFile);
         }
     }
 
@@ -296,56 +233,16 @@ public class CSVStreamer
      * The line either needs to have all 17 columns separated by the cvsSplitBy character, or only the first 15 if the skipNonMandatory flag is set.
      * @param caseLine The source line used to create a case.
      * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory (Order specified above)
+     * @param lineNumber The line number of the case line within its file, used for error messages.
      * @return The case described inside the case line.
      * @throws WhatToStudyException If an error occurs.
      */
-    private static Case getCase(String caseLine, boolean skipNonMandatory) throws WhatToStudyException
+    public static Case getCase(String caseLine, boolean skipNonMandatory, int lineNumber) throws WhatToStudyException
     {
-        String[] lineArray = caseLine.split(cvsSplitBy);
-        Case currentCase = new Case();
-
-        if (!(lineArray.length == 17 || (skipNonMandatory && (lineArray.length == 14 || lineArray.length == 15))))
-        {
-            throw new WhatToStudyException("Invalid number of columns in line " + currentLineNumber);
-        }
-
-        // If all columns are mandatory
-        if (lineArray.length == 17)
-        {
-            currentCase.setCourse(Course.clean(lineArray[14].trim()));
-            currentCase.setFinalGrade(FinalGrade.clean(lineArray[15].trim(), lineArray[16].trim()));
-        } else if (lineArray.length == 15)
-        {
-            currentCase.setCourse(Course.clean(lineArray[14].trim()));
-            currentCase.setFinalGrade(null);
-        } else
-        {
-            currentCase.setCourse(null);
-            currentCase.setFinalGrade(null);
-        }
-
-        try
-        {
-            currentCase.setQualification(Qualification.clean(lineArray[0].trim()));
-            currentCase.setQualificationAverage(QualificationAverage.clean(lineArray[1].trim()));
-            currentCase.setState(State.clean(lineArray[2].trim()));
-            currentCase.setMath(Math.clean(lineArray[3].trim()));
-            currentCase.setPhysics(Physics.clean(lineArray[4].trim()));
-            currentCase.setGerman(German.clean(lineArray[5].trim()));
-            currentCase.setSchoolType(SchoolType.clean(lineArray[6].trim()));
-            currentCase.setOLTMath(OLTMath.clean(lineArray[7].trim()));
-            currentCase.setOLTGerman(OLTGerman.clean(lineArray[8].trim()));
-            currentCase.setStudyAbilityTest(StudyAbilityTest.clean(lineArray[9].trim()));
-            currentCase.setAge(Age.clean(lineArray[10].trim()));
-            currentCase.setSex(Sex.clean(lineArray[11].trim()));
-            currentCase.setParentalIncome(ParentalIncome.clean(lineArray[12].trim()));
-            currentCase.setNationality(Nationality.clean(lineArray[13].trim()));
-        } catch (WhatToStudyException e)
-        {
-            throw new WhatToStudyException(e.getMessage() + " in line " + currentLineNumber);
-        }
-
-        return currentCase;
+        CaseCursor cursor = new CaseCursor();
+        char[] line = caseLine.toCharArray();
+        new CaseTokenizer().parse(line, 0, line.length, skipNonMandatory, lineNumber, cursor);
+        return cursor.toCase();
     }
 
     /**
@@ -354,7 +251,7 @@ public class CSVStreamer
      * @param skipNonMandatory Skips the last two columns if they are non mandatory.
      * @return True if it is a valid header, false otherwise.
      */
-    private static boolean validateHeader(String[] header, boolean skipNonMandatory)
+    public static boolean validateHeader(String[] header, boolean skipNonMandatory)
     {
         if (!(header.length == 17 || (skipNonMandatory && (header.length == 14 || header.length == 15))))
         {
@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the age column of a case.
@@ -60,6 +59,11 @@ public enum Age
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<Age> aliases = new AliasTable<>(values());
+
     /**
      * Creates the header for the Age column used by Netica.
      * @return The header used by Netica: "Age"
@@ -97,32 +101,28 @@ public enum Age
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static Age clean(String ageString) throws WhatToStudyException
+    public static Age clean(CharSequence ageString) throws WhatToStudyException
     {
-        Optional<Age> currentValue;
-        //Check if the input is already a cleaned value
-        if((currentValue = Arrays.stream(Age.values()).parallel().filter(value -> value.toString().equals(ageString)).findFirst()).isPresent())
-        {
-            return currentValue.get();
+        Age currentValue = aliases.lookup(ageString);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
-            try
+            long age = NumberParser.parseInteger(ageString);
+            if (age == NumberParser.INVALID)
+            {
+                throw new WhatToStudyException("Unable to parse age");
+            } else if (age < 18)
+            {
+                return Age.YOUNG;
+            } else if (age < 23)
+            {
+                return Age.AVERAGE;
+            } else if (age >= 23)
             {
-                int age = Integer.parseInt(ageString);
-                if (age < 18)
-                {
-                    return Age.YOUNG;
-                } else if (age < 23)
-                {
-                    return Age.AVERAGE;
-                } else if (age >= 23)
-                {
-                    return Age.OLD;
-                } else
-                {
-                    throw new WhatToStudyException("Unable to parse age");
-                }
-            } catch (NumberFormatException e)
+                return Age.OLD;
+            } else
             {
                 throw new WhatToStudyException("Unable to parse age");
             }
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility.Case;
+
+/**
+ * This class is mapping every accepted textual representation of a value (The cleaned Netica name, as well as German names and abbreviations) to the value of an enumeration.
+ * Every enumeration of a case is creating its table once while the class is loaded, therefore cleaning a symbolic value is a single hash lookup, without creating any objects.<br>
+ * The aliases are stored within an open addressing table and compared by their characters, therefore any char sequence (e.g. a field of a {@link de.steilerdev.whatToStudy.Utility.CaseTokenizer tokenized line}) can be looked up without creating a String.
+ * @param <E> The enumeration the aliases are mapped to.
+ */
+public final class AliasTable<E extends Enum<E>>
+{
+    /**
+     * The initial amount of slots of the table, needs to be a power of two.
+     */
+    private static final int initialCapacity = 16;
+
+    /**
+     * The aliases stored within the table, null if the slot is empty.
+     */
+    private String[] aliases = new String[initialCapacity];
+
+    /**
+     * The values represented by the alias at the same slot.
+     */
+    private Object[] values = new Object[initialCapacity];
+
+    /**
+     * The amount of stored aliases.
+     */
+    private int size = 0;
+
+    /**
+     * Creates a new table, already containing the cleaned (Netica compliant) name of every value of the enumeration.
+     * @param values All values of the enumeration.
+     */
+    public AliasTable(E[] values)
+    {
+        for(E value: values)
+        {
+            add(value.toString(), value);
+        }
+    }
+
+    /**
+     * Adds an accepted alias for a value.
+     * @param alias The textual representation accepted from an input.
+     * @param value The value represented by the alias.
+     * @return This table, to enable chaining of the calls.
+     */
+    public AliasTable<E> add(String alias, E value)
+    {
+        E previous = lookup(alias);
+        if(previous == value)
+        {
+            return this;
+        } else if(previous != null)
+        {
+            throw new IllegalArgumentException("The alias " + alias + " is ambiguous");
+        }
+
+        //Keeping the load factor below 0.5, to keep the probe sequences short
+        if((size + 1) * 2 > aliases.length)
+        {
+            String[] oldAliases = aliases;
+            Object[] oldValues = values;
+            aliases = new String[oldAliases.length * 2];
+            values = new Object[oldValues.length * 2];
+            for(int i = 0; i < oldAliases.length; i++)
+            {
+                if(oldAliases[i] != null)
+                {
+                    insert(oldAliases[i], oldValues[i]);
+                }
+            }
+        }
+        insert(alias, value);
+        size++;
+        return this;
+    }
+
+    /**
+     * Returns the value represented by the alias.
+     * @param alias The textual representation from an input.
+     * @return The value represented by the alias, or null if the alias is unknown.
+     */
+    @SuppressWarnings("unchecked")
+    public E lookup(CharSequence alias)
+    {
+        if(alias == null)
+        {
+            return null;
+        }
+        int mask = aliases.length - 1;
+        for(int slot = hash(alias) & mask; aliases[slot] != null; slot = (slot + 1) & mask)
+        {
+            if(equalContent(aliases[slot], alias))
+            {
+                return (E) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the alias at the first free slot of its probe sequence.
+     * @param alias The alias.
+     * @param value The value represented by the alias.
+     */
+    private void insert(String alias, Object value)
+    {
+        int mask = aliases.length - 1;
+        int slot = hash(alias) & mask;
+        while(aliases[slot] != null)
+        {
+            slot = (slot + 1) & mask;
+        }
+        aliases[slot] = alias;
+        values[slot] = value;
+    }
+
+    /**
+     * Calculates the hash of the characters, equal to {@link String#hashCode()} (Which is cached by every String) and spread to the lower bits.
+     * @param alias The characters.
+     * @return The hash of the characters.
+     */
+    private static int hash(CharSequence alias)
+    {
+        int hash;
+        if(alias instanceof String)
+        {
+            hash = alias.hashCode();
+        } else
+        {
+            hash = 0;
+            for(int i = 0; i < alias.length(); i++)
+            {
+                hash = 31 * hash + alias.charAt(i);
+            }
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Compares the characters of an alias and an input.
+     * @param alias The stored alias.
+     * @param input The input.
+     * @return True if both contain the same characters, false otherwise.
+     */
+    private static boolean equalContent(String alias, CharSequence input)
+    {
+        if(alias.length() != input.length())
+        {
+            return false;
+        }
+        for(int i = 0; i < alias.length(); i++)
+        {
+            if(alias.charAt(i) != input.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
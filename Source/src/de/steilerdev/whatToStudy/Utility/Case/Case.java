@@ -69,6 +69,27 @@ public class Case
         return buffer.toString();
     }
 
+    /**
+     * Two cases are equal, if all of their values are equal.
+     * @param o The object that is compared to this case.
+     * @return True if the object is a case with the same values, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        return this == o || (o instanceof Case && PackedCase.encode(this) == PackedCase.encode((Case) o));
+    }
+
+    /**
+     * Calculates the hash code using the {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed representation} of the case.
+     * @return The hash code of the case.
+     */
+    @Override
+    public int hashCode()
+    {
+        return PackedCase.hashCode(PackedCase.encode(this));
+    }
+
     public Age getAge()
     {
         return age;
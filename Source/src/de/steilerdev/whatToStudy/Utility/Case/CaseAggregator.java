@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility.Case;
+
+/**
+ * This class is aggregating identical cases: Every distinct case is stored once within a weighted {@link de.steilerdev.whatToStudy.Utility.Case.CaseStore case store}, its weight is the sum of the weights of all identical cases (The multiplicity of the case if every case is weighted with 1).<br>
+ * The distinct cases are found using an open addressing hash table of their {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed representation}, therefore adding a case is not creating any objects.
+ * The distinct cases are kept in the order of their first occurrence.
+ */
+public class CaseAggregator
+{
+    /**
+     * The initial amount of slots of the hash table, needs to be a power of two.
+     */
+    private static final int initialCapacity = 1024;
+
+    /**
+     * The packed distinct cases stored within the hash table.
+     */
+    private long[] keys = new long[initialCapacity];
+
+    /**
+     * The index of the distinct case within the store plus one, 0 if the slot is empty.
+     */
+    private int[] indices = new int[initialCapacity];
+
+    /**
+     * The distinct cases and their summed weights.
+     */
+    private final CaseStore caseStore = new CaseStore(initialCapacity, true);
+
+    /**
+     * The amount of added cases.
+     */
+    private long addedCases = 0;
+
+    /**
+     * Adds a case, weighted with 1.
+     * @param currentCase The case.
+     */
+    public void add(Case currentCase)
+    {
+        add(PackedCase.encode(currentCase), 1.0);
+    }
+
+    /**
+     * Adds a case.
+     * @param packed The packed representation of the case.
+     * @param weight The weight of the case.
+     */
+    public void add(long packed, double weight)
+    {
+        addedCases++;
+        int mask = keys.length - 1;
+        int slot = PackedCase.hashCode(packed) & mask;
+        while(indices[slot] != 0)
+        {
+            if(keys[slot] == packed)
+            {
+                caseStore.addWeight(indices[slot] - 1, weight);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = packed;
+        indices[slot] = caseStore.add(packed, weight) + 1;
+
+        //Keeping the load factor below 0.5, to keep the probe sequences short
+        if(caseStore.size() * 2 > keys.length)
+        {
+            rehash();
+        }
+    }
+
+    /**
+     * Adds all cases of a store.
+     * @param other The store.
+     */
+    public void addAll(CaseStore other)
+    {
+        for(int i = 0; i < other.size(); i++)
+        {
+            add(other.getPacked(i), other.getWeight(i));
+        }
+    }
+
+    /**
+     * Returns the amount of added cases.
+     * @return The amount of added cases, including duplicates.
+     */
+    public long getAddedCases()
+    {
+        return addedCases;
+    }
+
+    /**
+     * Returns the distinct cases.
+     * @return A weighted store, containing every distinct case once, weighted with the sum of the weights of the identical cases. Adding further cases is changing the store.
+     */
+    public CaseStore getCaseStore()
+    {
+        return caseStore;
+    }
+
+    /**
+     * Doubles the size of the hash table.
+     */
+    private void rehash()
+    {
+        long[] oldKeys = keys;
+        int[] oldIndices = indices;
+        keys = new long[oldKeys.length * 2];
+        indices = new int[oldIndices.length * 2];
+        int mask = keys.length - 1;
+        for(int i = 0; i < oldKeys.length; i++)
+        {
+            if(oldIndices[i] != 0)
+            {
+                int slot = PackedCase.hashCode(oldKeys[i]) & mask;
+                while(indices[slot] != 0)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                indices[slot] = oldIndices[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility.Case;
+
+/**
+ * This class is a mutable, reusable view of a single case, storing the ordinal of every value within a {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed case}.
+ * It is used while reading large inputs: The cleaned values of a line are written into the cursor, which is copied into a {@link de.steilerdev.whatToStudy.Utility.Case.CaseStore case store} and reused for the next line, therefore no objects are created per case.
+ * A cursor is not thread safe, every reader needs to use its own cursor.
+ */
+public final class CaseCursor
+{
+    /**
+     * The packed values of the current case.
+     */
+    private long packed = PackedCase.EMPTY;
+
+    /**
+     * Removes all values of the current case.
+     */
+    public void clear()
+    {
+        packed = PackedCase.EMPTY;
+    }
+
+    /**
+     * Sets the value of a variable.
+     * @param variable The variable.
+     * @param value The value of the variable, or null if the value is missing.
+     */
+    public void set(Variable variable, Enum<?> value)
+    {
+        packed = PackedCase.set(packed, variable, value == null? -1: value.ordinal());
+    }
+
+    /**
+     * Returns the ordinal of the value of a variable.
+     * @param variable The variable.
+     * @return The ordinal of the value, or -1 if the value is missing.
+     */
+    public int get(Variable variable)
+    {
+        return PackedCase.get(packed, variable);
+    }
+
+    /**
+     * Returns the current case as packed case.
+     * @return The packed representation of the current case.
+     */
+    public long getPacked()
+    {
+        return packed;
+    }
+
+    /**
+     * Creates a new case object from the current values.
+     * @return A new case holding the current values.
+     */
+    public Case toCase()
+    {
+        return PackedCase.decode(packed);
+    }
+}
@@ -0,0 +1,332 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility.Case;
+
+import java.util.Arrays;
+
+/**
+ * This class is a columnar in-memory store of {@link de.steilerdev.whatToStudy.Utility.Case.Case cases}.
+ * Every {@link de.steilerdev.whatToStudy.Utility.Case.Variable variable} is stored within its own byte array, holding the ordinal of the value or {@link #MISSING} if the value was not stated, therefore a case is only using one byte per variable (Plus 8 bytes if the store is weighted).<br>
+ * The cases are accessed by their index, without creating any objects.
+ */
+public class CaseStore
+{
+    /**
+     * The value stored if the value of a variable was not stated.
+     */
+    public static final byte MISSING = -1;
+
+    /**
+     * The default capacity of a new store.
+     */
+    private static final int defaultCapacity = 1024;
+
+    /**
+     * All variables, cached since {@link Variable#values()} is creating a new array on every call.
+     */
+    private static final Variable[] variables = Variable.values();
+
+    /**
+     * The columns of the store, indexed by the ordinal of the variable and the index of the case.
+     */
+    private byte[][] columns;
+
+    /**
+     * The weight of every case, or null if the store is not weighted.
+     */
+    private double[] weights;
+
+    /**
+     * The amount of cases within the store.
+     */
+    private int size = 0;
+
+    /**
+     * Creates a new unweighted store.
+     */
+    public CaseStore()
+    {
+        this(defaultCapacity, false);
+    }
+
+    /**
+     * Creates a new store.
+     * @param initialCapacity The amount of cases the store is able to hold, before it needs to grow.
+     * @param weighted True if a weight should be stored for every case, false if every case is weighted with 1.
+     */
+    public CaseStore(int initialCapacity, boolean weighted)
+    {
+        int capacity = java.lang.Math.max(1, initialCapacity);
+        columns = new byte[variables.length][capacity];
+        weights = weighted? new double[capacity]: null;
+    }
+
+    /**
+     * Adds the stated case to the store, weighted with 1.
+     * @param currentCase The case.
+     * @return The index of the case within the store.
+     */
+    public int add(Case currentCase)
+    {
+        return add(currentCase, 1.0);
+    }
+
+    /**
+     * Adds the stated case to the store.
+     * @param currentCase The case.
+     * @param weight The weight of the case, ignored if the store is not weighted.
+     * @return The index of the case within the store.
+     */
+    public int add(Case currentCase, double weight)
+    {
+        ensureCapacity(size + 1);
+        for(Variable variable: variables)
+        {
+            Enum<?> value = variable.get(currentCase);
+            columns[variable.ordinal()][size] = value == null? MISSING: (byte) value.ordinal();
+        }
+        if(weights != null)
+        {
+            weights[size] = weight;
+        }
+        return size++;
+    }
+
+    /**
+     * Adds the stated {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed case} to the store.
+     * @param packed The packed case.
+     * @param weight The weight of the case, ignored if the store is not weighted.
+     * @return The index of the case within the store.
+     */
+    public int add(long packed, double weight)
+    {
+        ensureCapacity(size + 1);
+        for(Variable variable: variables)
+        {
+            columns[variable.ordinal()][size] = (byte) PackedCase.get(packed, variable);
+        }
+        if(weights != null)
+        {
+            weights[size] = weight;
+        }
+        return size++;
+    }
+
+    /**
+     * Appends all cases of the stated store to this store, keeping their order.
+     * @param other The store whose cases are appended.
+     */
+    public void addAll(CaseStore other)
+    {
+        ensureCapacity(size + other.size);
+        if(weights == null && other.weights != null)
+        {   //Every case added so far was weighted with 1
+            weights = new double[columns[0].length];
+            Arrays.fill(weights, 0, size, 1.0);
+        }
+        for(int i = 0; i < columns.length; i++)
+        {
+            System.arraycopy(other.columns[i], 0, columns[i], size, other.size);
+        }
+        if(weights != null)
+        {
+            if(other.weights != null)
+            {
+                System.arraycopy(other.weights, 0, weights, size, other.size);
+            } else
+            {
+                Arrays.fill(weights, size, size + other.size, 1.0);
+            }
+        }
+        size += other.size;
+    }
+
+    /**
+     * Returns the amount of cases within the store.
+     * @return The amount of cases.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks if the store is holding a weight for every case.
+     * @return True if the store is weighted, false otherwise.
+     */
+    public boolean isWeighted()
+    {
+        return weights != null;
+    }
+
+    /**
+     * Returns the ordinal of the value of the stated variable.
+     * @param index The index of the case.
+     * @param variable The variable.
+     * @return The ordinal of the value, or {@link #MISSING} if it was not stated.
+     */
+    public int get(int index, Variable variable)
+    {
+        checkIndex(index);
+        return columns[variable.ordinal()][index];
+    }
+
+    /**
+     * Returns the weight of the stated case.
+     * @param index The index of the case.
+     * @return The weight of the case, 1 if the store is not weighted.
+     */
+    public double getWeight(int index)
+    {
+        checkIndex(index);
+        return weights == null? 1.0: weights[index];
+    }
+
+    /**
+     * Adds to the weight of the stated case.
+     * @param index The index of the case.
+     * @param weight The weight added to the current weight of the case.
+     * @throws IllegalStateException If the store is not weighted.
+     */
+    public void addWeight(int index, double weight)
+    {
+        checkIndex(index);
+        if(weights == null)
+        {
+            throw new IllegalStateException("The weight of a case can only be changed within a weighted store");
+        }
+        weights[index] += weight;
+    }
+
+    /**
+     * Returns the sum of the weights of all cases.
+     * @return The total weight.
+     */
+    public double getTotalWeight()
+    {
+        if(weights == null)
+        {
+            return size;
+        }
+        double total = 0;
+        for(int i = 0; i < size; i++)
+        {
+            total += weights[i];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the column of the stated variable, used to scan the store without any overhead. Only the first {@link #size()} entries are valid, the array must not be changed.
+     * @param variable The variable.
+     * @return The column of the variable, holding the ordinal of the value or {@link #MISSING} for every case.
+     */
+    public byte[] getColumn(Variable variable)
+    {
+        return columns[variable.ordinal()];
+    }
+
+    /**
+     * Returns the stated case as {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed case}.
+     * @param index The index of the case.
+     * @return The packed case.
+     */
+    public long getPacked(int index)
+    {
+        checkIndex(index);
+        long packed = PackedCase.EMPTY;
+        for(Variable variable: variables)
+        {
+            packed = PackedCase.set(packed, variable, columns[variable.ordinal()][index]);
+        }
+        return packed;
+    }
+
+    /**
+     * Creates a new case object for the stated case.
+     * @param index The index of the case.
+     * @return The case.
+     */
+    public Case getCase(int index)
+    {
+        checkIndex(index);
+        Case currentCase = new Case();
+        for(Variable variable: variables)
+        {
+            byte ordinal = columns[variable.ordinal()][index];
+            variable.set(currentCase, ordinal == MISSING? null: variable.getValue(ordinal));
+        }
+        return currentCase;
+    }
+
+    /**
+     * Reduces the capacity of the store to its size.
+     */
+    public void trimToSize()
+    {
+        if(columns[0].length > size)
+        {
+            resize(java.lang.Math.max(1, size));
+        }
+    }
+
+    /**
+     * Grows the store if it is not able to hold the stated amount of cases.
+     * @param capacity The needed capacity.
+     */
+    private void ensureCapacity(int capacity)
+    {
+        int currentCapacity = columns[0].length;
+        if(capacity > currentCapacity)
+        {
+            if(capacity < 0)
+            {
+                throw new IllegalStateException("The store is not able to hold more than " + Integer.MAX_VALUE + " cases");
+            }
+            int newCapacity = currentCapacity + (currentCapacity >> 1);
+            resize(newCapacity < capacity || newCapacity < 0? capacity: newCapacity);
+        }
+    }
+
+    /**
+     * Changes the capacity of all columns.
+     * @param capacity The new capacity.
+     */
+    private void resize(int capacity)
+    {
+        for(int i = 0; i < columns.length; i++)
+        {
+            columns[i] = Arrays.copyOf(columns[i], capacity);
+        }
+        if(weights != null)
+        {
+            weights = Arrays.copyOf(weights, capacity);
+        }
+    }
+
+    /**
+     * Checks if the stated index is within the bounds of the store.
+     * @param index The index of a case.
+     */
+    private void checkIndex(int index)
+    {
+        if(index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
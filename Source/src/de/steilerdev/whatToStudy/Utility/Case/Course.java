@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the course column of a case.
@@ -90,6 +89,16 @@ public enum Course
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<Course> aliases = new AliasTable<>(values())
+            .add("Elektrotechnik", E_ENGINEERING)
+            .add("Informatik", C_SCIENCE)
+            .add("Maschinenbau", ENGINEERING)
+            .add("Soziale Arbeit", S_WORK)
+            .add("Wirtschaftswissenschaften", ECONOMICS);
+
     /**
      * Creates the header for the course column used by Netica.
      * @return The header used by Netica: "Course"
@@ -126,27 +135,12 @@ public enum Course
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static Course clean(String course) throws WhatToStudyException
+    public static Course clean(CharSequence course) throws WhatToStudyException
     {
-        Optional<Course> currentValue;
-        if(course.equals("Elektrotechnik"))
-        {
-            return Course.E_ENGINEERING;
-        } else if(course.equals("Informatik"))
-        {
-            return Course.C_SCIENCE;
-        } else if(course.equals("Maschinenbau"))
-        {
-            return Course.ENGINEERING;
-        } else if(course.equals("Soziale Arbeit"))
-        {
-            return Course.S_WORK;
-        } else if(course.equals("Wirtschaftswissenschaften"))
-        {
-            return Course.ECONOMICS;
-        } else if((currentValue = Arrays.stream(Course.values()).parallel().filter(value -> value.toString().equals(course)).findFirst()).isPresent())
-        {   //Check if the input is already a cleaned value
-            return currentValue.get();
+        Course currentValue = aliases.lookup(course);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
             throw new WhatToStudyException("Error validating and cleaning course");
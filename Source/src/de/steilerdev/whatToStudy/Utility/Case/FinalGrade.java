@@ -17,11 +17,8 @@
 package de.steilerdev.whatToStudy.Utility.Case;
 
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
-import de.steilerdev.whatToStudy.Main;
 
-import java.text.ParseException;
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the final grade column of a case.
@@ -73,6 +70,11 @@ public enum FinalGrade
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<FinalGrade> aliases = new AliasTable<>(values());
+
     /**
      * Creates the header for the final grade column used by Netica.
      * @return The header used by Netica: "Final_Grade"
@@ -111,12 +113,16 @@ public enum FinalGrade
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static FinalGrade clean(String calc, String grade) throws WhatToStudyException
+    public static FinalGrade clean(CharSequence calc, CharSequence grade) throws WhatToStudyException
     {
-        try
+        FinalGrade currentValue = aliases.lookup(calc);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
+        } else
         {
-            double finalGrade = Main.localizedNumberFormat.parse(calc).doubleValue();
-            if((grade == null && calc != null) || (calc != null && calc.equals(grade)))
+            double finalGrade = NumberParser.parseDecimal(calc); //NaN if the input is not a number, which is not matching any of the ranges below
+            if((grade == null && calc != null) || (calc != null && equalContent(calc, grade)))
             {
                 if (finalGrade < 2.0)
                 {
@@ -134,24 +140,35 @@ public enum FinalGrade
                 {
                     throw new WhatToStudyException("Unable to parse final grade");
                 }
-            } else if (finalGrade > 4.0 && grade.equals("abgebrochen"))
+            } else if (finalGrade > 4.0 && "abgebrochen".contentEquals(grade))
             {
                 return FinalGrade.FAILED;
             }  else
             {
                 throw new WhatToStudyException("Unable to parse final grade");
             }
-        } catch (ParseException e)
+        }
+    }
+
+    /**
+     * Compares the characters of two inputs, since a char sequence does not need to implement {@link Object#equals(Object)} based on its content.
+     * @param first The first input.
+     * @param second The second input, which might be null.
+     * @return True if both inputs contain the same characters, false otherwise.
+     */
+    private static boolean equalContent(CharSequence first, CharSequence second)
+    {
+        if(second == null || first.length() != second.length())
         {
-            //Check if the input is already a cleaned value
-            Optional<FinalGrade> currentValue;
-            if((currentValue = Arrays.stream(FinalGrade.values()).parallel().filter(value -> value.toString().equals(calc)).findFirst()).isPresent())
-            {
-                return currentValue.get();
-            } else
+            return false;
+        }
+        for(int i = 0; i < first.length(); i++)
+        {
+            if(first.charAt(i) != second.charAt(i))
             {
-                throw new WhatToStudyException("Unable to parse final grade");
+                return false;
             }
         }
+        return true;
     }
 }
@@ -17,11 +17,8 @@
 package de.steilerdev.whatToStudy.Utility.Case;
 
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
-import de.steilerdev.whatToStudy.Main;
 
-import java.text.ParseException;
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the German column of a case.
@@ -84,6 +81,12 @@ public enum German
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<German> aliases = new AliasTable<>(values())
+            .add("keine", NA);
+
     /**
      * Creates the header for the German column used by Netica.
      * @return The header used by Netica: "German"
@@ -120,43 +123,30 @@ public enum German
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static German clean(String germanString) throws WhatToStudyException
+    public static German clean(CharSequence germanString) throws WhatToStudyException
     {
-        if(germanString.equals("keine"))
-        {
-            return German.NA;
+        German currentValue = aliases.lookup(germanString);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
-            try
+            double german = NumberParser.parseDecimal(germanString); //NaN if the input is not a number, which is not matching any of the ranges below
+            if (german < 2.0)
+            {
+                return German.VERY_GOOD;
+            } else if (german < 3.0)
+            {
+                return German.GOOD;
+            } else if (german < 4.0)
+            {
+                return German.SATISFYING;
+            } else if (german >= 4.0)
             {
-                double german = Main.localizedNumberFormat.parse(germanString).doubleValue();
-                if (german < 2.0)
-                {
-                    return German.VERY_GOOD;
-                } else if (german < 3.0)
-                {
-                    return German.GOOD;
-                } else if (german < 4.0)
-                {
-                    return German.SATISFYING;
-                } else if (german >= 4.0)
-                {
-                    return German.FAILED;
-                } else
-                {
-                    throw new WhatToStudyException("Unable to parse German grade");
-                }
-            } catch (ParseException e)
+                return German.FAILED;
+            } else
             {
-                //Check if the input is already a cleaned value
-                Optional<German> currentValue;
-                if((currentValue = Arrays.stream(German.values()).parallel().filter(value -> value.toString().equals(germanString)).findFirst()).isPresent())
-                {
-                    return currentValue.get();
-                } else
-                {
-                    throw new WhatToStudyException("Unable to parse German grade");
-                }
+                throw new WhatToStudyException("Unable to parse German grade");
             }
         }
     }
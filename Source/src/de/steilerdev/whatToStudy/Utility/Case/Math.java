@@ -17,11 +17,8 @@
 package de.steilerdev.whatToStudy.Utility.Case;
 
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
-import de.steilerdev.whatToStudy.Main;
 
-import java.text.ParseException;
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the math column of a case.
@@ -84,6 +81,12 @@ public enum Math
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<Math> aliases = new AliasTable<>(values())
+            .add("keine", NA);
+
     /**
      * Creates the header for the math column used by Netica.
      * @return The header used by Netica: "Math"
@@ -120,43 +123,30 @@ public enum Math
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static Math clean(String mathString) throws WhatToStudyException
+    public static Math clean(CharSequence mathString) throws WhatToStudyException
     {
-        if(mathString.equals("keine"))
-        {
-            return Math.NA;
+        Math currentValue = aliases.lookup(mathString);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
-            try
+            double math = NumberParser.parseDecimal(mathString); //NaN if the input is not a number, which is not matching any of the ranges below
+            if (math < 2.0)
+            {
+                return Math.VERY_GOOD;
+            } else if (math < 3.0)
+            {
+                return Math.GOOD;
+            } else if (math < 4.0)
+            {
+                return Math.SATISFYING;
+            } else if (math >= 4.0)
             {
-                double math = Main.localizedNumberFormat.parse(mathString).doubleValue();
-                if (math < 2.0)
-                {
-                    return Math.VERY_GOOD;
-                } else if (math < 3.0)
-                {
-                    return Math.GOOD;
-                } else if (math < 4.0)
-                {
-                    return Math.SATISFYING;
-                } else if (math >= 4.0)
-                {
-                    return Math.FAILED;
-                } else
-                {
-                    throw new WhatToStudyException("Unable to parse math grade");
-                }
-            } catch (ParseException e)
+                return Math.FAILED;
+            } else
             {
-                //Check if the input is already a cleaned value
-                Optional<Math> currentValue;
-                if((currentValue = Arrays.stream(Math.values()).parallel().filter(value -> value.toString().equals(mathString)).findFirst()).isPresent())
-                {
-                    return currentValue.get();
-                } else
-                {
-                    throw new WhatToStudyException("Unable to parse math grade");
-                }
+                throw new WhatToStudyException("Unable to parse math grade");
             }
         }
     }
@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the nationality column of a case.
@@ -60,6 +59,15 @@ public enum Nationality
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<Nationality> aliases = new AliasTable<>(values())
+            .add("deutsch", GERMAN)
+            .add("EU Buerger", EU)
+            .add("EU Bürger", EU)
+            .add("Non European", NON_EU);
+
     /**
      * Creates the header for the nationality column used by Netica.
      * @return The header used by Netica: "Nationality"
@@ -96,21 +104,12 @@ public enum Nationality
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static Nationality clean(String nationality) throws WhatToStudyException
+    public static Nationality clean(CharSequence nationality) throws WhatToStudyException
     {
-        Optional<Nationality> currentValue;
-        if(nationality.equals("deutsch"))
-        {
-            return Nationality.GERMAN;
-        } else if(nationality.equals("EU Buerger") || nationality.equals("EU Bürger"))
-        {
-            return Nationality.EU;
-        } else if(nationality.equals("Non European"))
-        {
-            return Nationality.NON_EU;
-        } else if((currentValue = Arrays.stream(Nationality.values()).parallel().filter(value -> value.toString().equals(nationality)).findFirst()).isPresent())
-        {   //Check if the input is already a cleaned value
-            return currentValue.get();
+        Nationality currentValue = aliases.lookup(nationality);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
             throw new WhatToStudyException("Error validating and cleaning nationality column");
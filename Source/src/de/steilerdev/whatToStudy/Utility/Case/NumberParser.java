@@ -0,0 +1,349 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility.Case;
+
+import de.steilerdev.whatToStudy.Main;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * This class is parsing the numeric values of a case (Grades, points, age and income) by scanning the characters of the input once.
+ * In contrast to {@link java.text.NumberFormat number formats} and {@link Integer#parseInt(String)} it is thread safe and is reporting an invalid input through its return value instead of an exception, since symbolic values and dirty data are common within the input files.
+ * Objects are only created for decimal numbers with more than 15 significant digits or a large exponent, which can not be converted exactly using the fast path.
+ */
+public final class NumberParser
+{
+    /**
+     * The value returned by {@link #parseInteger(String)} if the input is not a valid integer.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * The decimal separator of the {@link de.steilerdev.whatToStudy.Main#localizedNumberFormat localized number format} (',' for German numbers).
+     */
+    private static final char decimalSeparator;
+
+    /**
+     * The grouping separator of the {@link de.steilerdev.whatToStudy.Main#localizedNumberFormat localized number format} ('.' for German numbers).
+     */
+    private static final char groupingSeparator;
+
+    /**
+     * The minus sign of the {@link de.steilerdev.whatToStudy.Main#localizedNumberFormat localized number format}.
+     */
+    private static final char minusSign;
+
+    /**
+     * The zero digit of the {@link de.steilerdev.whatToStudy.Main#localizedNumberFormat localized number format}.
+     */
+    private static final char zeroDigit;
+
+    /**
+     * The symbol of infinity of the {@link de.steilerdev.whatToStudy.Main#localizedNumberFormat localized number format} ("\u221E").
+     */
+    private static final String infinity;
+
+    /**
+     * The separator of the exponent of the {@link de.steilerdev.whatToStudy.Main#localizedNumberFormat localized number format} ("E").
+     */
+    private static final String exponentSeparator;
+
+    /**
+     * The maximum amount of significant digits of a decimal number, that are exactly representable as double.
+     */
+    private static final int maxExactDigits = 15;
+
+    /**
+     * The maximum amount of significant digits of an exponent, more digits can not be represented by a long.
+     */
+    private static final int maxExponentDigits = 19;
+
+    /**
+     * The powers of ten, that are exactly representable as double.
+     */
+    private static final double[] powersOfTen = new double[23];
+
+    static
+    {
+        DecimalFormatSymbols symbols = Main.localizedNumberFormat instanceof DecimalFormat?
+                ((DecimalFormat) Main.localizedNumberFormat).getDecimalFormatSymbols():
+                DecimalFormatSymbols.getInstance();
+        decimalSeparator = symbols.getDecimalSeparator();
+        groupingSeparator = symbols.getGroupingSeparator();
+        minusSign = symbols.getMinusSign();
+        zeroDigit = symbols.getZeroDigit();
+        infinity = symbols.getInfinity();
+        exponentSeparator = symbols.getExponentSeparator();
+
+        powersOfTen[0] = 1.0;
+        for(int i = 1; i < powersOfTen.length; i++)
+        {
+            powersOfTen[i] = powersOfTen[i - 1] * 10.0;
+        }
+    }
+
+    private NumberParser()
+    {
+    }
+
+    /**
+     * Parses a floating point number using the symbols of the localized number format (e.g. "1,7", "1.234,5" or "1,7E1"), following the grammar of {@link java.text.DecimalFormat#parse(String)}:
+     * The longest valid prefix of the input is parsed, grouping separators are ignored within the integer part, all Unicode digits are accepted, an optional exponent consists of the exponent separator, an optional minus sign and digits, and the infinity symbol is parsed as infinity.
+     * @param input The input String.
+     * @return The parsed number, or {@link Double#NaN} if the input is not starting with a number. Since every comparison with NaN is false, the result can directly be used for the discretization.
+     */
+    public static double parseDecimal(CharSequence input)
+    {
+        if(input == null || input.length() == 0)
+        {
+            return Double.NaN;
+        }
+
+        int position = 0;
+        int length = input.length();
+        boolean negative = input.charAt(0) == minusSign;
+        if(negative)
+        {
+            position++;
+        }
+
+        if(regionMatches(input, position, infinity))
+        {
+            return negative? Double.NEGATIVE_INFINITY: Double.POSITIVE_INFINITY;
+        }
+
+        int start = position;
+        long mantissa = 0;
+        int digits = 0;         //The significant digits, including trailing zeros
+        int decimalAt = 0;      //The position of the decimal separator relative to the first significant digit
+        int exponent = 0;
+        boolean sawDigit = false;
+        boolean sawDecimalSeparator = false;
+        for(; position < length; position++)
+        {
+            char currentChar = input.charAt(position);
+            int digit = digit(currentChar);
+            if(digit == 0 && digits == 0)
+            {   //Leading zeros are only moving the decimal separator, if they are following it
+                sawDigit = true;
+                if(sawDecimalSeparator)
+                {
+                    decimalAt--;
+                }
+            } else if(digit >= 0)
+            {
+                sawDigit = true;
+                if(digits < maxExactDigits)
+                {
+                    mantissa = mantissa * 10 + digit;
+                }
+                digits++;
+            } else if(currentChar == decimalSeparator)
+            {
+                if(sawDecimalSeparator)
+                {
+                    break;
+                }
+                decimalAt = digits;
+                sawDecimalSeparator = true;
+            } else if(currentChar == groupingSeparator)
+            {   //Grouping separators are ignored within the integer part
+                if(sawDecimalSeparator)
+                {
+                    break;
+                }
+            } else if(regionMatches(input, position, exponentSeparator))
+            {   //An invalid exponent is ignored, the number is ending in front of it either way
+                exponent = parseExponent(input, position + exponentSeparator.length());
+                break;
+            } else
+            {
+                break;
+            }
+        }
+
+        if(!sawDigit)
+        {
+            return Double.NaN;
+        }
+        if(!sawDecimalSeparator)
+        {
+            decimalAt = digits;
+        }
+        decimalAt += exponent;
+
+        double value;
+        long scale = (long) decimalAt - digits;
+        if(digits == 0)
+        {
+            value = 0.0;
+        } else if(digits <= maxExactDigits && java.lang.Math.abs(scale) < powersOfTen.length)
+        {   //The mantissa and the power of ten are exact, therefore the result is correctly rounded
+            value = scale >= 0? mantissa * powersOfTen[(int) scale]: mantissa / powersOfTen[(int) -scale];
+        } else
+        {
+            value = parseSignificantDigits(input, start, position, digits, decimalAt);
+        }
+        return negative? -value: value;
+    }
+
+    /**
+     * Parses an integer, following the rules of {@link Integer#parseInt(String)}: An optional sign followed by decimal digits (Including all Unicode digits), that fit into an int.
+     * @param input The input String.
+     * @return The parsed integer, or {@link #INVALID} if the input is not a valid integer.
+     */
+    public static long parseInteger(CharSequence input)
+    {
+        if(input == null || input.length() == 0)
+        {
+            return INVALID;
+        }
+
+        int position = 0;
+        int length = input.length();
+        char firstChar = input.charAt(0);
+        boolean negative = firstChar == '-';
+        if(negative || firstChar == '+')
+        {
+            if(length == 1)
+            {
+                return INVALID;
+            }
+            position++;
+        }
+
+        long value = 0;
+        for(; position < length; position++)
+        {
+            int digit = Character.digit(input.charAt(position), 10);
+            if(digit < 0)
+            {
+                return INVALID;
+            }
+            value = value * 10 + digit;
+            if(value > (long) Integer.MAX_VALUE + 1)
+            {
+                return INVALID;
+            }
+        }
+
+        value = negative? -value: value;
+        return value > Integer.MAX_VALUE? INVALID: value;
+    }
+
+    /**
+     * Parses the digits of an exponent, following {@link java.text.DecimalFormat#parse(String)}: An optional minus sign followed by at least one digit, whose value fits into a long and is truncated to an int.
+     * @param input The input String.
+     * @param position The position following the exponent separator.
+     * @return The exponent, or 0 if there is no valid exponent.
+     */
+    private static int parseExponent(CharSequence input, int position)
+    {
+        int length = input.length();
+        boolean negative = position < length && input.charAt(position) == minusSign;
+        if(negative)
+        {
+            position++;
+        }
+
+        long magnitude = 0;
+        int digits = 0;
+        boolean sawDigit = false;
+        for(; position < length; position++)
+        {
+            int digit = digit(input.charAt(position));
+            if(digit < 0)
+            {
+                break;
+            }
+            sawDigit = true;
+            if(digit != 0 || digits != 0)
+            {
+                if(++digits > maxExponentDigits)
+                {
+                    return 0;
+                }
+                magnitude = magnitude * 10 + digit;     //At most 19 digits, which are never overflowing an unsigned long
+            }
+        }
+
+        if(!sawDigit || Long.compareUnsigned(magnitude, negative? Long.MIN_VALUE: Long.MAX_VALUE) > 0)
+        {
+            return 0;
+        }
+        int exponent = (int) magnitude;
+        return negative? -exponent: exponent;
+    }
+
+    /**
+     * Converts the significant digits of the input exactly, if the fast path of {@link #parseDecimal(CharSequence)} is not applicable.
+     * @param input The input String.
+     * @param start The position of the first character of the number.
+     * @param end The position following the last character of the number, excluding the exponent.
+     * @param digits The amount of significant digits.
+     * @param decimalAt The position of the decimal separator relative to the first significant digit, including the exponent.
+     * @return The absolute value of the number.
+     */
+    private static double parseSignificantDigits(CharSequence input, int start, int end, int digits, int decimalAt)
+    {
+        StringBuilder number = new StringBuilder(digits + 16).append('.');
+        for(int position = start; position < end; position++)
+        {
+            int digit = digit(input.charAt(position));
+            if(digit > 0 || (digit == 0 && number.length() > 1))
+            {
+                number.append((char) ('0' + digit));
+            }
+        }
+        return Double.parseDouble(number.append('E').append(decimalAt).toString());
+    }
+
+    /**
+     * Returns the value of the character, if it is the localized zero digit, one of the following nine characters, or any other Unicode digit.
+     * @param currentChar The character.
+     * @return The value of the digit, or -1 if the character is not a digit.
+     */
+    private static int digit(char currentChar)
+    {
+        int digit = currentChar - zeroDigit;
+        return digit >= 0 && digit <= 9? digit: Character.digit(currentChar, 10);
+    }
+
+    /**
+     * Checks if the input contains the stated symbol at the position.
+     * @param input The input String.
+     * @param position The position of the symbol.
+     * @param symbol The symbol.
+     * @return True if the symbol is found, false otherwise.
+     */
+    private static boolean regionMatches(CharSequence input, int position, String symbol)
+    {
+        if(symbol.isEmpty() || position + symbol.length() > input.length())
+        {
+            return false;
+        }
+        for(int i = 0; i < symbol.length(); i++)
+        {
+            if(input.charAt(position + i) != symbol.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
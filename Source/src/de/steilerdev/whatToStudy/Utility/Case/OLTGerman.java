@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the online test - German column of a case.
@@ -71,6 +70,11 @@ public enum OLTGerman
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<OLTGerman> aliases = new AliasTable<>(values());
+
     /**
      * Creates the header for the OLT German column used by Netica.
      * @return The header used by Netica: "OLT_German"
@@ -108,12 +112,19 @@ public enum OLTGerman
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static OLTGerman clean(String oltGerman) throws WhatToStudyException
+    public static OLTGerman clean(CharSequence oltGerman) throws WhatToStudyException
     {
-        try
+        OLTGerman currentValue = aliases.lookup(oltGerman);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
+        } else
         {
-            int german = Integer.parseInt(oltGerman);
-            if (german > 84)
+            long german = NumberParser.parseInteger(oltGerman);
+            if (german == NumberParser.INVALID)
+            {
+                throw new WhatToStudyException("Unable to parse online test German grade");
+            } else if (german > 84)
             {
                 return OLTGerman.VERY_GOOD;
             } else if (german > 67)
@@ -129,17 +140,6 @@ public enum OLTGerman
             {
                 throw new WhatToStudyException("Unable to parse online test German grade");
             }
-        } catch (NumberFormatException e)
-        {
-            //Check if the input is already a cleaned value
-            Optional<OLTGerman> currentValue;
-            if((currentValue = Arrays.stream(OLTGerman.values()).parallel().filter(value -> value.toString().equals(oltGerman)).findFirst()).isPresent())
-            {
-                return currentValue.get();
-            } else
-            {
-                throw new WhatToStudyException("Unable to parse online test German grade");
-            }
         }
     }
 }
@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the online test - math column of a case.
@@ -71,6 +70,11 @@ public enum OLTMath
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<OLTMath> aliases = new AliasTable<>(values());
+
     /**
      * Creates the header for the OLT math column used by Netica.
      * @return The header used by Netica: "OLT_Math"
@@ -108,12 +112,19 @@ public enum OLTMath
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static OLTMath clean(String oltMath) throws WhatToStudyException
+    public static OLTMath clean(CharSequence oltMath) throws WhatToStudyException
     {
-        try
+        OLTMath currentValue = aliases.lookup(oltMath);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
+        } else
         {
-            int math = Integer.parseInt(oltMath);
-            if (math > 84)
+            long math = NumberParser.parseInteger(oltMath);
+            if (math == NumberParser.INVALID)
+            {
+                throw new WhatToStudyException("Unable to parse online test math grade");
+            } else if (math > 84)
             {
                 return OLTMath.VERY_GOOD;
             } else if (math > 67)
@@ -129,17 +140,6 @@ public enum OLTMath
             {
                 throw new WhatToStudyException("Unable to parse online test math grade");
             }
-        } catch (NumberFormatException e)
-        {
-            //Check if the input is already a cleaned value
-            Optional<OLTMath> currentValue;
-            if((currentValue = Arrays.stream(OLTMath.values()).parallel().filter(value -> value.toString().equals(oltMath)).findFirst()).isPresent())
-            {
-                return currentValue.get();
-            } else
-            {
-                throw new WhatToStudyException("Unable to parse online test math grade");
-            }
         }
     }
 }
@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility.Case;
+
+/**
+ * This class is encoding a {@link de.steilerdev.whatToStudy.Utility.Case.Case case} into a single primitive long and back.
+ * Every {@link de.steilerdev.whatToStudy.Utility.Case.Variable variable} is stored within its own bit field (in the order of the variables, starting with the least significant bits) as ordinal + 1, where 0 is representing a missing value.<br>
+ * Two packed cases are equal if, and only if, the cases have the same values, therefore the primitive can directly be used for comparisons, as a key or for sorting without creating any objects.
+ */
+public final class PackedCase
+{
+    /**
+     * All variables, cached since {@link Variable#values()} is creating a new array on every call.
+     */
+    private static final Variable[] variables = Variable.values();
+
+    /**
+     * The position of the least significant bit of every variable, indexed by the ordinal of the variable.
+     */
+    private static final int[] shifts = new int[variables.length];
+
+    /**
+     * The mask of every variable (Not shifted), indexed by the ordinal of the variable.
+     */
+    private static final long[] masks = new long[variables.length];
+
+    /**
+     * The packed representation of a case without any stated value.
+     */
+    public static final long EMPTY = 0L;
+
+    /**
+     * The amount of bits used by a packed case.
+     */
+    public static final int BITS;
+
+    /**
+     * The mask covering the bit fields of all variables, used as projection keeping every value.
+     */
+    public static final long ALL;
+
+    static
+    {
+        int shift = 0;
+        for(Variable variable: variables)
+        {
+            shifts[variable.ordinal()] = shift;
+            masks[variable.ordinal()] = (1L << variable.getBits()) - 1;
+            shift += variable.getBits();
+        }
+        if(shift > Long.SIZE)
+        {
+            throw new IllegalStateException("The variables of a case need " + shift + " bits, which exceeds the size of a long");
+        }
+        BITS = shift;
+        ALL = mask(variables);
+    }
+
+    /**
+     * This class is only providing static functions.
+     */
+    private PackedCase()
+    {
+    }
+
+    /**
+     * Encodes the stated case.
+     * @param currentCase The case.
+     * @return The packed representation of the case.
+     */
+    public static long encode(Case currentCase)
+    {
+        long packed = EMPTY;
+        for(Variable variable: variables)
+        {
+            Enum<?> value = variable.get(currentCase);
+            if(value != null)
+            {
+                packed |= (long) (value.ordinal() + 1) << shifts[variable.ordinal()];
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Decodes the stated packed case into a new case object.
+     * @param packed The packed representation of the case.
+     * @return The case.
+     */
+    public static Case decode(long packed)
+    {
+        Case currentCase = new Case();
+        for(Variable variable: variables)
+        {
+            int ordinal = get(packed, variable);
+            variable.set(currentCase, ordinal < 0? null: variable.getValue(ordinal));
+        }
+        return currentCase;
+    }
+
+    /**
+     * Returns the ordinal of the value of the stated variable.
+     * @param packed The packed representation of the case.
+     * @param variable The variable.
+     * @return The ordinal of the value, or -1 if the value is missing.
+     */
+    public static int get(long packed, Variable variable)
+    {
+        return (int) ((packed >>> shifts[variable.ordinal()]) & masks[variable.ordinal()]) - 1;
+    }
+
+    /**
+     * Returns a packed case, where the value of the stated variable is replaced.
+     * @param packed The packed representation of the case.
+     * @param variable The variable.
+     * @param ordinal The ordinal of the new value, or -1 if the value is missing.
+     * @return The packed representation of the changed case.
+     */
+    public static long set(long packed, Variable variable, int ordinal)
+    {
+        if(ordinal < -1 || ordinal >= variable.getNumValues())
+        {
+            throw new IllegalArgumentException("Invalid ordinal " + ordinal + " for the variable " + variable.getHeader());
+        }
+        int shift = shifts[variable.ordinal()];
+        return (packed & ~(masks[variable.ordinal()] << shift)) | ((long) (ordinal + 1) << shift);
+    }
+
+    /**
+     * Checks if the value of the stated variable is missing.
+     * @param packed The packed representation of the case.
+     * @param variable The variable.
+     * @return True if the value is missing, false otherwise.
+     */
+    public static boolean isMissing(long packed, Variable variable)
+    {
+        return ((packed >>> shifts[variable.ordinal()]) & masks[variable.ordinal()]) == 0;
+    }
+
+    /**
+     * Returns a packed case, only containing the values of the stated variables.
+     * @param packed The packed representation of the case.
+     * @param projection A mask created by {@link #mask(Variable...)}.
+     * @return The packed representation of the projected case.
+     */
+    public static long project(long packed, long projection)
+    {
+        return packed & projection;
+    }
+
+    /**
+     * Creates a mask covering the bit fields of the stated variables, used by {@link #project(long, long)}.
+     * @param selectedVariables The variables that should be kept.
+     * @return The mask.
+     */
+    public static long mask(Variable... selectedVariables)
+    {
+        long mask = 0L;
+        for(Variable variable: selectedVariables)
+        {
+            mask |= masks[variable.ordinal()] << shifts[variable.ordinal()];
+        }
+        return mask;
+    }
+
+    /**
+     * Checks if two packed cases have the same values.
+     * @param packed1 The first packed case.
+     * @param packed2 The second packed case.
+     * @return True if both cases have the same values, false otherwise.
+     */
+    public static boolean equals(long packed1, long packed2)
+    {
+        return packed1 == packed2;
+    }
+
+    /**
+     * Calculates a well distributed hash code of the packed case, usable by open addressing hash tables (The variables with the most values are stored within the lower bits, which are badly distributed otherwise).
+     * @param packed The packed representation of the case.
+     * @return The hash code.
+     */
+    public static int hashCode(long packed)
+    {
+        //Finalizer of the MurmurHash3 64 bit hash function
+        packed ^= packed >>> 33;
+        packed *= 0xff51afd7ed558ccdL;
+        packed ^= packed >>> 33;
+        packed *= 0xc4ceb9fe1a85ec53L;
+        packed ^= packed >>> 33;
+        return (int) packed;
+    }
+}
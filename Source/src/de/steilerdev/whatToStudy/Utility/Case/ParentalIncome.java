@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the parental income column of a case.
@@ -71,6 +70,11 @@ public enum ParentalIncome
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<ParentalIncome> aliases = new AliasTable<>(values());
+
     /**
      * Creates the header for the parental income column used by Netica.
      * @return The header used by Netica: "Parental_Income"
@@ -108,12 +112,19 @@ public enum ParentalIncome
      * @return The cleaned String.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static ParentalIncome clean(String incomeString) throws WhatToStudyException
+    public static ParentalIncome clean(CharSequence incomeString) throws WhatToStudyException
     {
-        try
+        ParentalIncome currentValue = aliases.lookup(incomeString);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
+        } else
         {
-            int income = Integer.parseInt(incomeString);
-            if (income < 12540)
+            long income = NumberParser.parseInteger(incomeString);
+            if (income == NumberParser.INVALID)
+            {
+                throw new WhatToStudyException("Unable to parse the parental income");
+            } else if (income < 12540)
             {
                 return ParentalIncome.LOW;
             } else if (income < 49500)
@@ -129,17 +140,6 @@ public enum ParentalIncome
             {
                 throw new WhatToStudyException("Unable to parse the parental income");
             }
-        } catch (NumberFormatException e)
-        {
-            //Check if the input is already a cleaned value
-            Optional<ParentalIncome> currentValue;
-            if((currentValue = Arrays.stream(ParentalIncome.values()).parallel().filter(value -> value.toString().equals(incomeString)).findFirst()).isPresent())
-            {
-                return currentValue.get();
-            } else
-            {
-                throw new WhatToStudyException("Unable to parse the parental income");
-            }
         }
     }
 }
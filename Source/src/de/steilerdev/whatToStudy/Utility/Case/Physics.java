@@ -17,11 +17,8 @@
 package de.steilerdev.whatToStudy.Utility.Case;
 
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
-import de.steilerdev.whatToStudy.Main;
 
-import java.text.ParseException;
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the physics column of a case.
@@ -84,6 +81,12 @@ public enum Physics
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<Physics> aliases = new AliasTable<>(values())
+            .add("keine", NA);
+
     /**
      * Creates the header for the physics column used by Netica.
      * @return The header used by Netica: "Physics"
@@ -120,43 +123,30 @@ public enum Physics
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static Physics clean(String physicsString) throws WhatToStudyException
+    public static Physics clean(CharSequence physicsString) throws WhatToStudyException
     {
-        if(physicsString.equals("keine"))
-        {
-            return Physics.NA;
+        Physics currentValue = aliases.lookup(physicsString);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
-            try
+            double physic = NumberParser.parseDecimal(physicsString); //NaN if the input is not a number, which is not matching any of the ranges below
+            if (physic < 2.0)
+            {
+                return Physics.VERY_GOOD;
+            } else if (physic < 3.0)
+            {
+                return Physics.GOOD;
+            } else if (physic < 4.0)
+            {
+                return Physics.SATISFYING;
+            } else if (physic >= 4.0)
             {
-                double physic = Main.localizedNumberFormat.parse(physicsString).doubleValue();
-                if (physic < 2.0)
-                {
-                    return Physics.VERY_GOOD;
-                } else if (physic < 3.0)
-                {
-                    return Physics.GOOD;
-                } else if (physic < 4.0)
-                {
-                    return Physics.SATISFYING;
-                } else if (physic >= 4.0)
-                {
-                    return Physics.FAILED;
-                } else
-                {
-                    throw new WhatToStudyException("Unable to parse physics grade");
-                }
-            } catch (ParseException e)
+                return Physics.FAILED;
+            } else
             {
-                //Check if the input is already a cleaned value
-                Optional<Physics> currentValue;
-                if((currentValue = Arrays.stream(Physics.values()).parallel().filter(value -> value.toString().equals(physicsString)).findFirst()).isPresent())
-                {
-                    return currentValue.get();
-                } else
-                {
-                    throw new WhatToStudyException("Unable to parse physics grade");
-                }
+                throw new WhatToStudyException("Unable to parse physics grade");
             }
         }
     }
@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the qualification column of a case.
@@ -60,6 +59,14 @@ public enum Qualification
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<Qualification> aliases = new AliasTable<>(values())
+            .add("Abitur", ABITUR)
+            .add("Techniker", TECHNIKER)
+            .add("FH Reife", FH);
+
     /**
      * Creates the header for the qualification column used by Netica.
      * @return The header used by Netica: "Qualification"
@@ -96,21 +103,12 @@ public enum Qualification
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static Qualification clean(String qualification) throws WhatToStudyException
+    public static Qualification clean(CharSequence qualification) throws WhatToStudyException
     {
-        Optional<Qualification> currentValue;
-        if(qualification.equals("Abitur"))
-        {
-            return Qualification.ABITUR;
-        } else if (qualification.equals("Techniker"))
-        {
-            return Qualification.TECHNIKER;
-        } else if(qualification.equals("FH Reife"))
-        {
-            return Qualification.FH;
-        } else if((currentValue = Arrays.stream(Qualification.values()).parallel().filter(value -> value.toString().equals(qualification)).findFirst()).isPresent())
-        {   //Check if the input is already a cleaned value
-            return currentValue.get();
+        Qualification currentValue = aliases.lookup(qualification);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
             throw new WhatToStudyException("Error validating and cleaning qualification");
@@ -17,11 +17,8 @@
 package de.steilerdev.whatToStudy.Utility.Case;
 
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
-import de.steilerdev.whatToStudy.Main;
 
-import java.text.ParseException;
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the qualification average column of a case.
@@ -73,6 +70,11 @@ public enum QualificationAverage
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<QualificationAverage> aliases = new AliasTable<>(values());
+
     /**
      * Creates the header for the qualification average column used by Netica.
      * @return The header used by Netica: "Qualification_Average"
@@ -109,11 +111,15 @@ public enum QualificationAverage
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static QualificationAverage clean(String qualificationAverageString) throws WhatToStudyException
+    public static QualificationAverage clean(CharSequence qualificationAverageString) throws WhatToStudyException
     {
-        try
+        QualificationAverage currentValue = aliases.lookup(qualificationAverageString);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
+        } else
         {
-            double qualificationAverage = Main.localizedNumberFormat.parse(qualificationAverageString).doubleValue();
+            double qualificationAverage = NumberParser.parseDecimal(qualificationAverageString); //NaN if the input is not a number, which is not matching any of the ranges below
             if (qualificationAverage < 2.0)
             {
                 return QualificationAverage.VERY_GOOD;
@@ -130,17 +136,6 @@ public enum QualificationAverage
             {
                 throw new WhatToStudyException("Unable to parse the qualification average");
             }
-        } catch (ParseException e)
-        {
-            //Check if the input is already a cleaned value
-            Optional<QualificationAverage> currentValue;
-            if((currentValue = Arrays.stream(QualificationAverage.values()).parallel().filter(value -> value.toString().equals(qualificationAverageString)).findFirst()).isPresent())
-            {
-                return currentValue.get();
-            } else
-            {
-                throw new WhatToStudyException("Unable to parse the qualification average");
-            }
         }
     }
 }
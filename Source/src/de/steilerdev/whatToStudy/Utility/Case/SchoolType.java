@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the school type column of a case.
@@ -82,6 +81,16 @@ public enum SchoolType
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<SchoolType> aliases = new AliasTable<>(values())
+            .add("Allgemeinbildendes Gymnasium", A_GYMNASIUM)
+            .add("Gesamtschule", GESAMTSCHULE)
+            .add("Technisches Gymnasium", T_GYMNASIUM)
+            .add("Wirtschaftsgymnasium", W_GYMNASIUM)
+            .add("n.a.", NA);
+
     /**
      * Creates the header for the school type column used by Netica.
      * @return The header used by Netica: "School_Type"
@@ -118,27 +127,12 @@ public enum SchoolType
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static SchoolType clean(String schoolType) throws WhatToStudyException
+    public static SchoolType clean(CharSequence schoolType) throws WhatToStudyException
     {
-        Optional<SchoolType> currentValue;
-        if(schoolType.equals("Allgemeinbildendes Gymnasium"))
-        {
-            return SchoolType.A_GYMNASIUM;
-        } else if(schoolType.equals("Gesamtschule"))
-        {
-            return SchoolType.GESAMTSCHULE;
-        } else if(schoolType.equals("Technisches Gymnasium"))
-        {
-            return SchoolType.T_GYMNASIUM;
-        } else if(schoolType.equals("Wirtschaftsgymnasium"))
-        {
-            return SchoolType.W_GYMNASIUM;
-        } else if(schoolType.equals("n.a."))
-        {
-            return SchoolType.NA;
-        } else if((currentValue = Arrays.stream(SchoolType.values()).parallel().filter(value -> value.toString().equals(schoolType)).findFirst()).isPresent())
-        {   //Check if the input is already a cleaned value
-            return currentValue.get();
+        SchoolType currentValue = aliases.lookup(schoolType);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
             throw new WhatToStudyException("Error validating and cleaning school type column");
@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the sex column of a case.
@@ -49,6 +48,17 @@ public enum Sex
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<Sex> aliases = new AliasTable<>(values())
+            .add("m", MALE)
+            .add("M", MALE)
+            .add("Male", MALE)
+            .add("w", FEMALE)
+            .add("W", FEMALE)
+            .add("Female", FEMALE);
+
     /**
      * Creates the header for the sex column used by Netica.
      * @return The header used by Netica: "Sex"
@@ -85,18 +95,12 @@ public enum Sex
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static Sex clean(String sex) throws WhatToStudyException
+    public static Sex clean(CharSequence sex) throws WhatToStudyException
     {
-        Optional<Sex> currentValue;
-        if(sex.equalsIgnoreCase("m") || sex.equals("Male"))
-        {
-            return Sex.MALE;
-        } else if(sex.equalsIgnoreCase("w") || sex.equals("Female"))
-        {
-            return Sex.FEMALE;
-        } else if((currentValue = Arrays.stream(Sex.values()).parallel().filter(value -> value.toString().equals(sex)).findFirst()).isPresent())
-        {   //Check if the input is already a cleaned value
-            return currentValue.get();
+        Sex currentValue = aliases.lookup(sex);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
             throw new WhatToStudyException("Error validating and cleaning sex type column");
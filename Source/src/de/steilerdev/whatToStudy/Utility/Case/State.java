@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the state column of a case.
@@ -186,6 +185,29 @@ public enum State
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<State> aliases = new AliasTable<>(values())
+            .add("Baden-Wuerttemberg", BADEN_WUERTTEMBERG)
+            .add("Baden-Württemberg", BADEN_WUERTTEMBERG)
+            .add("Bayern", BAYERN)
+            .add("Nordrhein-Westfalen", NORDRHEIN_WESTFALEN)
+            .add("Bremen", BREMEN)
+            .add("Sachsen", SACHSEN)
+            .add("Thueringen", THUERINGEN)
+            .add("Thüringen", THUERINGEN)
+            .add("Hessen", HESSEN)
+            .add("Mecklenburg-Vorpommern", MECKLENBURG_VORPOMMERN)
+            .add("Berlin", BERLIN)
+            .add("Rheinland-Pfalz", RHEINLAND_PFALZ)
+            .add("Hamburg", HAMBURG)
+            .add("Sachsen-Anhalt", SACHSEN_ANHALT)
+            .add("Niedersachsen", NIEDERSACHSEN)
+            .add("Brandenburg", BRANDENBURG)
+            .add("Saarland", SAARLAND)
+            .add("Schleswig-Holstein", SCHLESWIG_HOLSTEIN);
+
     /**
      * Creates the header for the state column used by Netica.
      * @return The header used by Netica: "State"
@@ -225,60 +247,12 @@ public enum State
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static State clean(String state) throws WhatToStudyException
+    public static State clean(CharSequence state) throws WhatToStudyException
     {
-        Optional<State> currentValue;
-        if(state.equals("Baden-Wuerttemberg") || state.equals("Baden-Württemberg"))
-        {
-            return State.BADEN_WUERTTEMBERG;
-        } else if(state.equals("Bayern"))
-        {
-            return State.BAYERN;
-        } else if(state.equals("Nordrhein-Westfalen"))
-        {
-            return State.NORDRHEIN_WESTFALEN;
-        } else if(state.equals("Bremen"))
-        {
-            return State.BREMEN;
-        } else if(state.equals("Sachsen"))
-        {
-            return State.SACHSEN;
-        } else if(state.equals("Thueringen") || state.equals("Thüringen"))
-        {
-            return State.THUERINGEN;
-        } else if(state.equals("Hessen"))
-        {
-            return State.HESSEN;
-        } else if(state.equals("Mecklenburg-Vorpommern"))
-        {
-            return State.MECKLENBURG_VORPOMMERN;
-        } else if(state.equals("Berlin"))
-        {
-            return State.BERLIN;
-        } else if(state.equals("Rheinland-Pfalz"))
-        {
-            return State.RHEINLAND_PFALZ;
-        } else if(state.equals("Hamburg"))
-        {
-            return State.HAMBURG;
-        } else if(state.equals("Sachsen-Anhalt"))
-        {
-            return State.SACHSEN_ANHALT;
-        } else if(state.equals("Niedersachsen"))
-        {
-            return State.NIEDERSACHSEN;
-        } else if(state.equals("Brandenburg"))
-        {
-            return State.BRANDENBURG;
-        } else if(state.equals("Saarland"))
-        {
-            return State.SAARLAND;
-        } else if(state.equals("Schleswig-Holstein"))
-        {
-            return State.SCHLESWIG_HOLSTEIN;
-        } else if((currentValue = Arrays.stream(State.values()).parallel().filter(value -> value.toString().equals(state)).findFirst()).isPresent())
-        {   //Check if the input is already a cleaned value
-            return currentValue.get();
+        State currentValue = aliases.lookup(state);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
             throw new WhatToStudyException("Error validating and cleaning state column");
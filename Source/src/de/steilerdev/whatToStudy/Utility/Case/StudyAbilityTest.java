@@ -19,7 +19,6 @@ package de.steilerdev.whatToStudy.Utility.Case;
 import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
 
 import java.util.Arrays;
-import java.util.Optional;
 
 /**
  * This enumeration contains all specification for the study ability test column of a case.
@@ -82,6 +81,12 @@ public enum StudyAbilityTest
         }
     };
 
+    /**
+     * All accepted textual representations of the values, including the cleaned (Netica compliant) names.
+     */
+    private static final AliasTable<StudyAbilityTest> aliases = new AliasTable<>(values())
+            .add("n.a.", NA);
+
     /**
      * Creates the header for the study ability test column used by Netica.
      * @return The header used by Netica: "Study_Ability_Test"
@@ -119,43 +124,33 @@ public enum StudyAbilityTest
      * @return The appropriate enumeration.
      * @throws WhatToStudyException If the input does not fit the requirements.
      */
-    public static StudyAbilityTest clean(String studyAbilityTest) throws WhatToStudyException
+    public static StudyAbilityTest clean(CharSequence studyAbilityTest) throws WhatToStudyException
     {
-        if(studyAbilityTest.equals("n.a."))
-        {
-            return StudyAbilityTest.NA;
+        StudyAbilityTest currentValue = aliases.lookup(studyAbilityTest);
+        if(currentValue != null)
+        {   //The input is already a cleaned value or a known alias
+            return currentValue;
         } else
         {
-            try
+            long studyAbility = NumberParser.parseInteger(studyAbilityTest);
+            if (studyAbility == NumberParser.INVALID)
+            {
+                throw new WhatToStudyException("Unable to parse study ability test grade");
+            } else if (studyAbility > 840)
+            {
+                return StudyAbilityTest.VERY_GOOD;
+            } else if (studyAbility > 670)
+            {
+                return StudyAbilityTest.GOOD;
+            } else if (studyAbility > 500)
+            {
+                return StudyAbilityTest.SATISFYING;
+            } else if (studyAbility <= 500)
             {
-                int studyAbility = Integer.parseInt(studyAbilityTest);
-                if (studyAbility > 840)
-                {
-                    return StudyAbilityTest.VERY_GOOD;
-                } else if (studyAbility > 670)
-                {
-                    return StudyAbilityTest.GOOD;
-                } else if (studyAbility > 500)
-                {
-                    return StudyAbilityTest.SATISFYING;
-                } else if (studyAbility <= 500)
-                {
-                    return StudyAbilityTest.FAILED;
-                } else
-                {
-                    throw new WhatToStudyException("Unable to parse study ability test grade");
-                }
-            } catch (NumberFormatException e)
+                return StudyAbilityTest.FAILED;
+            } else
             {
-                //Check if the input is already a cleaned value
-                Optional<StudyAbilityTest> currentValue;
-                if((currentValue = Arrays.stream(StudyAbilityTest.values()).parallel().filter(value -> value.toString().equals(studyAbilityTest)).findFirst()).isPresent())
-                {
-                    return currentValue.get();
-                } else
-                {
-                    throw new WhatToStudyException("Unable to parse study ability test grade");
-                }
+                throw new WhatToStudyException("Unable to parse study ability test grade");
             }
         }
     }
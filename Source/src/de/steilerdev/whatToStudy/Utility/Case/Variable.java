@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility.Case;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * This enumeration describes the schema of a {@link de.steilerdev.whatToStudy.Utility.Case.Case case}: Every constant is one of the variables of a case, in the order of the columns used by Netica.
+ * It is providing generic access to the value of the variable within a case, as well as the (Netica) header, the possible values, the cleaning function and the amount of bits needed to store the value within a {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed case}.
+ */
+public enum Variable
+{
+    QUALIFICATION(Qualification.getHeader(), Qualification.values(), Case::getQualification, (currentCase, value) -> currentCase.setQualification((Qualification) value), Qualification::clean),
+    QUALIFICATION_AVERAGE(QualificationAverage.getHeader(), QualificationAverage.values(), Case::getQualificationAverage, (currentCase, value) -> currentCase.setQualificationAverage((QualificationAverage) value), QualificationAverage::clean),
+    STATE(State.getHeader(), State.values(), Case::getState, (currentCase, value) -> currentCase.setState((State) value), State::clean),
+    MATH(Math.getHeader(), Math.values(), Case::getMath, (currentCase, value) -> currentCase.setMath((Math) value), Math::clean),
+    PHYSICS(Physics.getHeader(), Physics.values(), Case::getPhysics, (currentCase, value) -> currentCase.setPhysics((Physics) value), Physics::clean),
+    GERMAN(German.getHeader(), German.values(), Case::getGerman, (currentCase, value) -> currentCase.setGerman((German) value), German::clean),
+    SCHOOL_TYPE(SchoolType.getHeader(), SchoolType.values(), Case::getSchoolType, (currentCase, value) -> currentCase.setSchoolType((SchoolType) value), SchoolType::clean),
+    OLT_MATH(OLTMath.getHeader(), OLTMath.values(), Case::getOLTMath, (currentCase, value) -> currentCase.setOLTMath((OLTMath) value), OLTMath::clean),
+    OLT_GERMAN(OLTGerman.getHeader(), OLTGerman.values(), Case::getOLTGerman, (currentCase, value) -> currentCase.setOLTGerman((OLTGerman) value), OLTGerman::clean),
+    STUDY_ABILITY_TEST(StudyAbilityTest.getHeader(), StudyAbilityTest.values(), Case::getStudyAbilityTest, (currentCase, value) -> currentCase.setStudyAbilityTest((StudyAbilityTest) value), StudyAbilityTest::clean),
+    AGE(Age.getHeader(), Age.values(), Case::getAge, (currentCase, value) -> currentCase.setAge((Age) value), Age::clean),
+    SEX(Sex.getHeader(), Sex.values(), Case::getSex, (currentCase, value) -> currentCase.setSex((Sex) value), Sex::clean),
+    PARENTAL_INCOME(ParentalIncome.getHeader(), ParentalIncome.values(), Case::getParentalIncome, (currentCase, value) -> currentCase.setParentalIncome((ParentalIncome) value), ParentalIncome::clean),
+    NATIONALITY(Nationality.getHeader(), Nationality.values(), Case::getNationality, (currentCase, value) -> currentCase.setNationality((Nationality) value), Nationality::clean),
+    COURSE(Course.getHeader(), Course.values(), Case::getCourse, (currentCase, value) -> currentCase.setCourse((Course) value), Course::clean),
+    FINAL_GRADE(FinalGrade.getHeader(), FinalGrade.values(), Case::getFinalGrade, (currentCase, value) -> currentCase.setFinalGrade((FinalGrade) value), value -> FinalGrade.clean(value, null));
+
+    /**
+     * The header of the variable used by Netica.
+     */
+    private final String header;
+
+    /**
+     * All possible values of the variable, the position within the array is the ordinal of the value.
+     */
+    private final Enum<?>[] values;
+
+    /**
+     * The function returning the value of the variable from a case.
+     */
+    private final Function<Case, Enum<?>> getter;
+
+    /**
+     * The function setting the value of the variable within a case.
+     */
+    private final BiConsumer<Case, Enum<?>> setter;
+
+    /**
+     * The function cleaning and validating an input value.
+     */
+    private final Cleaner cleaner;
+
+    /**
+     * The values of the variable identified by their Netica name (Or the name of the enumeration constant), without any alias.
+     */
+    private final AliasTable<?> stateNames;
+
+    /**
+     * The amount of bits needed to store the value, including the code for a missing value.
+     */
+    private final int bits;
+
+    /**
+     * Creates a new variable.
+     * @param header The header of the variable used by Netica.
+     * @param values All possible values of the variable.
+     * @param getter The function returning the value of the variable from a case.
+     * @param setter The function setting the value of the variable within a case.
+     * @param cleaner The function cleaning and validating an input value.
+     */
+    Variable(String header, Enum<?>[] values, Function<Case, Enum<?>> getter, BiConsumer<Case, Enum<?>> setter, Cleaner cleaner)
+    {
+        this.header = header;
+        this.values = values;
+        this.getter = getter;
+        this.setter = setter;
+        this.cleaner = cleaner;
+        this.stateNames = createStateNames(values);
+        //The values are stored as ordinal + 1, 0 is representing a missing value
+        this.bits = 32 - Integer.numberOfLeadingZeros(values.length);
+    }
+
+    /**
+     * Returns the header of the variable used by Netica.
+     * @return The header of the variable.
+     */
+    public String getHeader()
+    {
+        return header;
+    }
+
+    /**
+     * Returns the amount of possible values of the variable.
+     * @return The amount of values.
+     */
+    public int getNumValues()
+    {
+        return values.length;
+    }
+
+    /**
+     * Returns the value with the stated ordinal.
+     * @param ordinal The ordinal of the value.
+     * @return The value.
+     */
+    public Enum<?> getValue(int ordinal)
+    {
+        return values[ordinal];
+    }
+
+    /**
+     * Returns the value with the stated Netica name (Or the name of the enumeration constant), using a single table lookup. Aliases of the values are not accepted.
+     * @param stateName The Netica name of the value.
+     * @return The value, or null if the variable does not have a value with the stated name.
+     */
+    public Enum<?> getValue(CharSequence stateName)
+    {
+        return stateNames.lookup(stateName);
+    }
+
+    /**
+     * Cleans and validates an input value, using the cleaning function of the respective {@link de.steilerdev.whatToStudy.Utility.Case case enumeration}.
+     * @param value The input value.
+     * @return The cleaned value.
+     * @throws WhatToStudyException If the input does not fit the requirements.
+     */
+    public Enum<?> clean(CharSequence value) throws WhatToStudyException
+    {
+        return cleaner.clean(value);
+    }
+
+    /**
+     * Returns the amount of bits needed to store the value of the variable, including the code for a missing value.
+     * @return The amount of bits.
+     */
+    public int getBits()
+    {
+        return bits;
+    }
+
+    /**
+     * Returns the value of the variable within the stated case.
+     * @param currentCase The case.
+     * @return The value of the variable, or null if it was not stated.
+     */
+    public Enum<?> get(Case currentCase)
+    {
+        return getter.apply(currentCase);
+    }
+
+    /**
+     * Sets the value of the variable within the stated case.
+     * @param currentCase The case.
+     * @param value The value of the variable, needs to be one of the values of the variable, or null if it is not stated.
+     */
+    public void set(Case currentCase, Enum<?> value)
+    {
+        setter.accept(currentCase, value);
+    }
+
+    /**
+     * Creates the table of the Netica names of the values, also containing the names of the enumeration constants, which were used as Netica names by earlier versions.
+     * @param values All possible values of the variable, which are constants of the same enumeration.
+     * @return The table of the values.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static AliasTable<?> createStateNames(Enum<?>[] values)
+    {
+        AliasTable stateNames = new AliasTable(values);
+        for(Enum<?> value: values)
+        {
+            stateNames.add(value.name(), value);
+        }
+        return stateNames;
+    }
+
+    /**
+     * A function cleaning and validating an input value of a variable.
+     */
+    @FunctionalInterface
+    public interface Cleaner
+    {
+        /**
+         * Cleans and validates an input value.
+         * @param value The input value.
+         * @return The cleaned value.
+         * @throws WhatToStudyException If the input does not fit the requirements.
+         */
+        Enum<?> clean(CharSequence value) throws WhatToStudyException;
+    }
+}
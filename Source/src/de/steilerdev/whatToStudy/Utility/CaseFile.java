@@ -0,0 +1,317 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Utility.Case.Case;
+import de.steilerdev.whatToStudy.Utility.Case.CaseStore;
+import de.steilerdev.whatToStudy.Utility.Case.PackedCase;
+import de.steilerdev.whatToStudy.Utility.Case.Variable;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * This class is reading and writing the binary case file format, storing already cleaned cases, therefore repeated runs on the same data do not need to parse and clean the CSV file again.<br>
+ * The file is starting with a header (All numbers are big endian):
+ * <ul>
+ *     <li>The magic number "WTSC" (4 bytes)</li>
+ *     <li>The version of the format (int)</li>
+ *     <li>The amount of variables (int), followed by the Netica header and the Netica names of all states of every variable (Each string is stored as its length (int) followed by its UTF-8 bytes), in the order of the {@link de.steilerdev.whatToStudy.Utility.Case.Variable variables}</li>
+ *     <li>The amount of cases (long)</li>
+ * </ul>
+ * The header is padded to a multiple of 8 bytes and followed by every case as {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase packed case} (long), in the order of the source file.
+ * The schema stored within the header needs to match the current variables, otherwise the file needs to be converted again.<br>
+ * The file is gzip compressed if its name is ending with ".gz". A compressed case file is decompressed into memory instead of being mapped.
+ */
+public class CaseFile
+{
+    /**
+     * The magic number at the beginning of every case file.
+     */
+    private static final byte[] magicNumber = {'W', 'T', 'S', 'C'};
+
+    /**
+     * The current version of the format.
+     */
+    private static final int version = 1;
+
+    /**
+     * The size of a case within the file in bytes.
+     */
+    private static final int caseSize = Long.BYTES;
+
+    /**
+     * This class is only providing static functions.
+     */
+    private CaseFile()
+    {
+    }
+
+    /**
+     * Checks if the stated file is a case file, by comparing its first bytes with the magic number.
+     * @param inputFile The file name of the input file.
+     * @return True if the file is a case file, false otherwise (Including if the file does not exist).
+     */
+    public static boolean isCaseFile(String inputFile)
+    {
+        try
+        {
+            return Arrays.equals(Compression.readStart(inputFile, magicNumber.length), magicNumber);
+        } catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Writes all cases of the store to the stated case file.
+     * @param caseStore The cases, which are not allowed to be weighted.
+     * @param outputFile The file name of the output file.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public static void write(CaseStore caseStore, String outputFile) throws WhatToStudyException
+    {
+        if(caseStore.isWeighted())
+        {
+            throw new WhatToStudyException("The binary case file format does not support weighted cases, please export the cases as Netica case file (.cas) instead");
+        }
+        try(DataOutputStream output = new DataOutputStream(Compression.openOutput(outputFile)))
+        {
+            output.write(magicNumber);
+            output.writeInt(version);
+            output.writeInt(Variable.values().length);
+            for(Variable variable: Variable.values())
+            {
+                writeString(output, variable.getHeader());
+                output.writeInt(variable.getNumValues());
+                for(int i = 0; i < variable.getNumValues(); i++)
+                {
+                    writeString(output, variable.getValue(i).toString());
+                }
+            }
+            output.writeLong(caseStore.size());
+
+            //Aligning the cases, to enable reading them directly from the mapped file
+            while(output.size() % caseSize != 0)
+            {
+                output.writeByte(0);
+            }
+
+            for(int i = 0; i < caseStore.size(); i++)
+            {
+                output.writeLong(caseStore.getPacked(i));
+            }
+        } catch (FileNotFoundException e)
+        {
+            throw new WhatToStudyException("Unable to create the specified file " + outputFile);
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while writing the case file " + outputFile);
+        }
+    }
+
+    /**
+     * Reads all cases of the stated case file into a case store.
+     * @param inputFile The file name of the input file.
+     * @return A store containing all cases in the order of the file.
+     * @throws WhatToStudyException If the file is not a valid case file, or an error occurs.
+     */
+    public static CaseStore read(String inputFile) throws WhatToStudyException
+    {
+        LongBuffer cases = map(inputFile);
+        CaseStore caseStore = new CaseStore(java.lang.Math.max(1, cases.limit()), false);
+        for(int i = 0; i < cases.limit(); i++)
+        {
+            caseStore.add(cases.get(i), 1.0);
+        }
+        return caseStore;
+    }
+
+    /**
+     * Creates a lazy stream of the cases of the stated case file, decoding a case only as soon as it is pulled. Since the file is memory mapped, the stream can efficiently be consumed in parallel.
+     * @param inputFile The file name of the input file.
+     * @return A stream of cases, in the order of the file.
+     * @throws WhatToStudyException If the file is not a valid case file, or an error occurs.
+     */
+    public static Stream<Case> stream(String inputFile) throws WhatToStudyException
+    {
+        return stream(inputFile, PackedCase.ALL);
+    }
+
+    /**
+     * Creates a lazy stream of the cases of the stated case file, only keeping the projected values of every case.
+     * @param inputFile The file name of the input file.
+     * @param projection A mask created by {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(de.steilerdev.whatToStudy.Utility.Case.Variable...)}, covering the variables that are kept.
+     * @return A stream of cases, in the order of the file.
+     * @throws WhatToStudyException If the file is not a valid case file, or an error occurs.
+     */
+    public static Stream<Case> stream(String inputFile, long projection) throws WhatToStudyException
+    {
+        LongBuffer cases = map(inputFile);
+        return IntStream.range(0, cases.limit()).mapToObj(i -> PackedCase.decode(PackedCase.project(cases.get(i), projection)));
+    }
+
+    /**
+     * Maps the stated case file into memory and validates its header.
+     * @param inputFile The file name of the input file.
+     * @return The packed cases of the file.
+     * @throws WhatToStudyException If the file is not a valid case file, or an error occurs.
+     */
+    private static LongBuffer map(String inputFile) throws WhatToStudyException
+    {
+        try
+        {
+            ByteBuffer buffer = Compression.isCompressed(inputFile)? ByteBuffer.wrap(decompress(inputFile)): mapFile(inputFile);
+
+            //Parsing and validating the header
+            byte[] start = new byte[magicNumber.length];
+            buffer.get(start);
+            if(!Arrays.equals(start, magicNumber))
+            {
+                throw new WhatToStudyException("The file " + inputFile + " is not a case file");
+            }
+            int fileVersion = buffer.getInt();
+            if(fileVersion != version)
+            {
+                throw new WhatToStudyException("The case file " + inputFile + " is using the unsupported version " + fileVersion + ", please convert the CSV file again");
+            }
+            if(!readSchema(buffer))
+            {
+                throw new WhatToStudyException("The case file " + inputFile + " was written using a different schema, please convert the CSV file again");
+            }
+            long size = buffer.getLong();
+            while(buffer.position() % caseSize != 0)
+            {
+                buffer.get();
+            }
+            if(size < 0 || buffer.remaining() != size * caseSize)
+            {
+                throw new WhatToStudyException("The case file " + inputFile + " is truncated or corrupted");
+            }
+            return buffer.slice().asLongBuffer();
+        } catch (NoSuchFileException e)
+        {
+            throw new WhatToStudyException("Unable to find the specified file " + inputFile);
+        } catch (IOException | BufferUnderflowException | NegativeArraySizeException e)
+        {
+            throw new WhatToStudyException("Error occurred while reading the case file " + inputFile);
+        }
+    }
+
+    /**
+     * Maps the stated uncompressed file into memory.
+     * @param inputFile The file name of the input file.
+     * @return The content of the file.
+     * @throws WhatToStudyException If the file is too large.
+     * @throws IOException If the file could not be mapped.
+     */
+    private static ByteBuffer mapFile(String inputFile) throws WhatToStudyException, IOException
+    {
+        try(FileChannel channel = FileChannel.open(Paths.get(inputFile), StandardOpenOption.READ))
+        {
+            if(channel.size() > Integer.MAX_VALUE)
+            {
+                throw new WhatToStudyException("The case file " + inputFile + " is exceeding the maximum size of " + Integer.MAX_VALUE + " bytes");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Reads the decompressed content of the stated compressed file into memory, since a compressed file can not be mapped.
+     * @param inputFile The file name of the input file.
+     * @return The decompressed content of the file.
+     * @throws IOException If the file could not be read.
+     */
+    private static byte[] decompress(String inputFile) throws IOException
+    {
+        try(InputStream inputStream = Compression.openInput(inputFile))
+        {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while((read = inputStream.read(buffer)) != -1)
+            {
+                content.write(buffer, 0, read);
+            }
+            return content.toByteArray();
+        }
+    }
+
+    /**
+     * Reads the schema of the header and compares it with the current variables.
+     * @param buffer The buffer positioned at the beginning of the schema, positioned at the end of the schema afterwards.
+     * @return True if the schema matches the current variables, false otherwise.
+     */
+    private static boolean readSchema(ByteBuffer buffer)
+    {
+        int variables = buffer.getInt();
+        if(variables != Variable.values().length)
+        {
+            return false;
+        }
+        boolean matching = true;
+        for(Variable variable: Variable.values())
+        {
+            matching &= variable.getHeader().equals(readString(buffer));
+            int states = buffer.getInt();
+            matching &= states == variable.getNumValues();
+            for(int i = 0; i < states; i++)
+            {
+                String state = readString(buffer);
+                matching &= i < variable.getNumValues() && variable.getValue(i).toString().equals(state);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Writes a string as its length followed by its UTF-8 bytes.
+     * @param output The output stream.
+     * @param string The string.
+     * @throws IOException If an error occurs.
+     */
+    private static void writeString(DataOutputStream output, String string) throws IOException
+    {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a string stored as its length followed by its UTF-8 bytes.
+     * @param buffer The buffer positioned at the beginning of the string.
+     * @return The string.
+     */
+    private static String readString(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException;
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Utility.Case.Case;
+import de.steilerdev.whatToStudy.Utility.Case.CaseCursor;
+import de.steilerdev.whatToStudy.Utility.Case.PackedCase;
+
+import java.io.*;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * This class is a lazy {@link java.util.Spliterator spliterator} over the cases of a CSV input stream meeting the specifications of the {@link de.steilerdev.whatToStudy.Utility.CSVStreamer CSV streamer}.
+ * A line is only read, validated and cleaned as soon as its case is pulled, therefore the memory usage does not depend on the size of the input.<br>
+ * The spliterator can be split for parallel consumption, in this case batches of cases are read and handed over to the other thread.
+ * Errors are thrown as {@link de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException unchecked exceptions}, empty lines are rejected as invalid lines.
+ * If a projection is stated, only the projected columns are cleaned and all other values of the cases are missing.<br>
+ * If the lenient mode is enabled, invalid lines are handed over to the {@link de.steilerdev.whatToStudy.Utility.Quarantine quarantine} and skipped, instead of throwing an error.
+ */
+public class CaseSpliterator extends Spliterators.AbstractSpliterator<Case> implements Closeable
+{
+    /**
+     * The reader of the input stream.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * True if only the first 15 columns are required, otherwise all 17 are mandatory.
+     */
+    private final boolean skipNonMandatory;
+
+    /**
+     * The tokenizer cleaning the lines.
+     */
+    private final CaseTokenizer tokenizer;
+
+    /**
+     * The cursor receiving the values of the current line.
+     */
+    private final CaseCursor cursor = new CaseCursor();
+
+    /**
+     * The quarantine receiving invalid lines, or null if an invalid line is an error.
+     */
+    private final Quarantine quarantine;
+
+    /**
+     * The line number of the last read line.
+     */
+    private int lineNumber = 0;
+
+    /**
+     * Creates a new spliterator and validates the header of the input stream.
+     * @param inputStream The input stream, closed by {@link #close()}.
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @throws WhatToStudyException If the header is invalid, or an error occurs.
+     */
+    public CaseSpliterator(InputStream inputStream, boolean skipNonMandatory) throws WhatToStudyException
+    {
+        this(inputStream, skipNonMandatory, PackedCase.ALL);
+    }
+
+    /**
+     * Creates a new spliterator only cleaning the projected columns and validates the header of the input stream.
+     * @param inputStream The input stream, closed by {@link #close()}.
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @param projection A mask created by {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(de.steilerdev.whatToStudy.Utility.Case.Variable...)}, covering the variables that are cleaned.
+     * @throws WhatToStudyException If the header is invalid, or an error occurs.
+     */
+    public CaseSpliterator(InputStream inputStream, boolean skipNonMandatory, long projection) throws WhatToStudyException
+    {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.reader = new BufferedReader(new InputStreamReader(inputStream));
+        this.skipNonMandatory = skipNonMandatory;
+        this.tokenizer = new CaseTokenizer(projection);
+        this.quarantine = Quarantine.getQuarantine();
+
+        try
+        {
+            //Parsing and validating header
+            String line;
+            if ((line = reader.readLine()) != null)
+            {
+                lineNumber++;
+                if (!CSVStreamer.validateHeader(line.split(CSVStreamer.cvsSplitBy), skipNonMandatory))
+                {
+                    throw new WhatToStudyException("The header of the specific file does not meet the stated requirements. See help page for more information");
+                }
+            }
+        } catch (IOException e)
+        {
+            close();
+            throw new WhatToStudyException("Error occurred while reading the input stream.");
+        } catch (WhatToStudyException e)
+        {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads, validates and cleans the next case and hands it over to the action.
+     * @param action The action consuming the case.
+     * @return True if there was a case, false if the end of the input stream is reached.
+     * @throws UncheckedWhatToStudyException If the case is invalid, or an error occurs.
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super Case> action)
+    {
+        try
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                lineNumber++;
+                char[] buffer = line.toCharArray();
+                try
+                {
+                    tokenizer.parse(buffer, 0, buffer.length, skipNonMandatory, lineNumber, cursor);
+                } catch (WhatToStudyException e)
+                {
+                    if(quarantine == null)
+                    {
+                        throw e;
+                    }
+                    //The invalid line is skipped, the next line is read instead
+                    quarantine.reject(lineNumber, line, tokenizer.getRejectedVariable(), e.getMessage());
+                    continue;
+                }
+                action.accept(cursor.toCase());
+                return true;
+            }
+            return false;
+        } catch (IOException e)
+        {
+            throw new UncheckedWhatToStudyException(new WhatToStudyException("Error occurred while reading the input stream."));
+        } catch (WhatToStudyException e)
+        {
+            throw new UncheckedWhatToStudyException(e);
+        }
+    }
+
+    /**
+     * Returns the line number of the last read line, which is the line of the last case if the spliterator is consumed sequentially.
+     * @return The line number.
+     */
+    public int getLineNumber()
+    {
+        return lineNumber;
+    }
+
+    /**
+     * Closes the input stream.
+     */
+    @Override
+    public void close()
+    {
+        try
+        {
+            reader.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Utility.Case.*;
+import de.steilerdev.whatToStudy.Utility.Case.Math;
+
+/**
+ * This class is splitting a line of a CSV file meeting the specifications of the {@link de.steilerdev.whatToStudy.Utility.CSVStreamer CSV streamer} into its columns and cleans them into a {@link de.steilerdev.whatToStudy.Utility.Case.CaseCursor case cursor}.<br>
+ * The line is read from a char array and the columns are handed to the cleaning functions as reusable views of the array, therefore no objects are created for a valid line.
+ * The columns are split like {@link String#split(String)} with the first character of {@link CSVStreamer#cvsSplitBy} (Removing trailing empty columns) and trimmed like {@link String#trim()}.<br>
+ * A projection can be used to only clean the columns needed by the consumer (e.g. the nodes of the used network), the other columns are only counted and are stored as missing values without being validated.<br>
+ * A tokenizer is not thread safe, every reader needs to use its own tokenizer.
+ */
+public class CaseTokenizer
+{
+    /**
+     * The maximum amount of columns of a valid line.
+     */
+    private static final int maxColumns = 17;
+
+    /**
+     * The character separating the columns.
+     */
+    private final char separator;
+
+    /**
+     * The columns of the current line, valid until the next line is tokenized. A column is only trimmed if it is used.
+     */
+    private final Field[] fields = new Field[maxColumns];
+
+    /**
+     * True for every variable that is cleaned, indexed by the ordinal of the variable.
+     */
+    private final boolean[] selected = new boolean[Variable.values().length];
+
+    /**
+     * The amount of columns of the current line.
+     */
+    private int columns = 0;
+
+    /**
+     * The variable that is currently cleaned by {@link #parse}, or null if the columns are not yet cleaned.
+     */
+    private Variable currentVariable = null;
+
+    /**
+     * Creates a new tokenizer using the current separator of the {@link de.steilerdev.whatToStudy.Utility.CSVStreamer CSV streamer}, cleaning all columns.
+     */
+    public CaseTokenizer()
+    {
+        this(PackedCase.ALL);
+    }
+
+    /**
+     * Creates a new tokenizer using the current separator of the {@link de.steilerdev.whatToStudy.Utility.CSVStreamer CSV streamer}, only cleaning the stated variables.
+     * @param projection A mask created by {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(Variable...)}, covering the variables that are cleaned.
+     */
+    public CaseTokenizer(long projection)
+    {
+        separator = CSVStreamer.cvsSplitBy.charAt(0);
+        for(int i = 0; i < fields.length; i++)
+        {
+            fields[i] = new Field();
+        }
+        for(Variable variable: Variable.values())
+        {   //The bit field of a variable is only non-zero if it is covered by the mask
+            selected[variable.ordinal()] = !PackedCase.isMissing(projection, variable);
+        }
+    }
+
+    /**
+     * Splits the line into its columns.
+     * @param buffer The array containing the line.
+     * @param start The index of the first character of the line.
+     * @param end The index after the last character of the line (Excluding the line feed).
+     * @return The amount of columns of the line.
+     */
+    public int tokenize(char[] buffer, int start, int end)
+    {
+        columns = 0;
+        int nonEmptyColumns = 0;
+        int columnStart = start;
+        for(int position = start; position <= end; position++)
+        {
+            if(position == end || buffer[position] == separator)
+            {
+                if(columns < maxColumns)
+                {
+                    fields[columns].set(buffer, columnStart, position);
+                }
+                columns++;
+                if(position > columnStart)
+                {
+                    nonEmptyColumns = columns;
+                }
+                columnStart = position + 1;
+            }
+        }
+        //Trailing empty columns are removed, like String.split is doing
+        columns = nonEmptyColumns;
+        return columns;
+    }
+
+    /**
+     * Splits the line and writes the cleaned values into the cursor.<br>
+     * The values are validated and converted according to the specification stated in the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations}.
+     * The line either needs to have all 17 columns separated by the cvsSplitBy character, or only the first 14 or 15 if the skipNonMandatory flag is set.
+     * @param buffer The array containing the line.
+     * @param start The index of the first character of the line.
+     * @param end The index after the last character of the line (Excluding the line feed).
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @param lineNumber The line number of the line within its file, used for error messages.
+     * @param cursor The cursor receiving the values of the case, all previous values are removed.
+     * @throws WhatToStudyException If the line is not a valid case.
+     */
+    public void parse(char[] buffer, int start, int end, boolean skipNonMandatory, int lineNumber, CaseCursor cursor) throws WhatToStudyException
+    {
+        tokenize(buffer, start, end);
+        cursor.clear();
+        currentVariable = null;
+
+        if (!(columns == 17 || (skipNonMandatory && (columns == 14 || columns == 15))))
+        {
+            throw new WhatToStudyException("Invalid number of columns in line " + lineNumber);
+        }
+
+        // If all columns are mandatory
+        if (columns == 17)
+        {
+            if(select(Variable.COURSE))
+            {
+                cursor.set(Variable.COURSE, Course.clean(fields[14].trim()));
+            }
+            if(select(Variable.FINAL_GRADE))
+            {
+                cursor.set(Variable.FINAL_GRADE, FinalGrade.clean(fields[15].trim(), fields[16].trim()));
+            }
+        } else if (columns == 15 && select(Variable.COURSE))
+        {
+            cursor.set(Variable.COURSE, Course.clean(fields[14].trim()));
+        }
+
+        //Only the selected columns are trimmed and cleaned
+        try
+        {
+            if(select(Variable.QUALIFICATION))
+            {
+                cursor.set(Variable.QUALIFICATION, Qualification.clean(fields[0].trim()));
+            }
+            if(select(Variable.QUALIFICATION_AVERAGE))
+            {
+                cursor.set(Variable.QUALIFICATION_AVERAGE, QualificationAverage.clean(fields[1].trim()));
+            }
+            if(select(Variable.STATE))
+            {
+                cursor.set(Variable.STATE, State.clean(fields[2].trim()));
+            }
+            if(select(Variable.MATH))
+            {
+                cursor.set(Variable.MATH, Math.clean(fields[3].trim()));
+            }
+            if(select(Variable.PHYSICS))
+            {
+                cursor.set(Variable.PHYSICS, Physics.clean(fields[4].trim()));
+            }
+            if(select(Variable.GERMAN))
+            {
+                cursor.set(Variable.GERMAN, German.clean(fields[5].trim()));
+            }
+            if(select(Variable.SCHOOL_TYPE))
+            {
+                cursor.set(Variable.SCHOOL_TYPE, SchoolType.clean(fields[6].trim()));
+            }
+            if(select(Variable.OLT_MATH))
+            {
+                cursor.set(Variable.OLT_MATH, OLTMath.clean(fields[7].trim()));
+            }
+            if(select(Variable.OLT_GERMAN))
+            {
+                cursor.set(Variable.OLT_GERMAN, OLTGerman.clean(fields[8].trim()));
+            }
+            if(select(Variable.STUDY_ABILITY_TEST))
+            {
+                cursor.set(Variable.STUDY_ABILITY_TEST, StudyAbilityTest.clean(fields[9].trim()));
+            }
+            if(select(Variable.AGE))
+            {
+                cursor.set(Variable.AGE, Age.clean(fields[10].trim()));
+            }
+            if(select(Variable.SEX))
+            {
+                cursor.set(Variable.SEX, Sex.clean(fields[11].trim()));
+            }
+            if(select(Variable.PARENTAL_INCOME))
+            {
+                cursor.set(Variable.PARENTAL_INCOME, ParentalIncome.clean(fields[12].trim()));
+            }
+            if(select(Variable.NATIONALITY))
+            {
+                cursor.set(Variable.NATIONALITY, Nationality.clean(fields[13].trim()));
+            }
+        } catch (WhatToStudyException e)
+        {
+            throw new WhatToStudyException(e.getMessage() + " in line " + lineNumber);
+        }
+    }
+
+    /**
+     * Returns the variable whose column was rejected by the last call of {@link #parse}, used to summarize the invalid cases of a file.
+     * @return The variable of the invalid column, or null if the amount of columns of the line was invalid.
+     */
+    public Variable getRejectedVariable()
+    {
+        return currentVariable;
+    }
+
+    /**
+     * Checks if the stated variable is cleaned and marks it as the variable that is currently cleaned.
+     * @param variable The variable.
+     * @return True if the variable is part of the projection, false otherwise.
+     */
+    private boolean select(Variable variable)
+    {
+        currentVariable = variable;
+        return selected[variable.ordinal()];
+    }
+
+    /**
+     * A reusable view of a trimmed column within the array of the current line, also used by the {@link de.steilerdev.whatToStudy.Utility.NeticaCaseReader Netica case reader}.
+     */
+    static class Field implements CharSequence
+    {
+        /**
+         * The array containing the line.
+         */
+        private char[] buffer;
+
+        /**
+         * The index of the first character of the column.
+         */
+        private int start;
+
+        /**
+         * The index after the last character of the column.
+         */
+        private int end;
+
+        /**
+         * Points the view to a column.
+         * @param buffer The array containing the line.
+         * @param start The index of the first character of the column.
+         * @param end The index after the last character of the column.
+         */
+        void set(char[] buffer, int start, int end)
+        {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Removes leading and trailing whitespace from the view.
+         * @return This view.
+         */
+        Field trim()
+        {
+            while(start < end && buffer[start] <= ' ')
+            {
+                start++;
+            }
+            while(end > start && buffer[end - 1] <= ' ')
+            {
+                end--;
+            }
+            return this;
+        }
+
+        @Override
+        public int length()
+        {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index)
+        {
+            return buffer[start + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end)
+        {
+            return new String(buffer, this.start + start, end - start);
+        }
+
+        @Override
+        public String toString()
+        {
+            return new String(buffer, start, end - start);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class is opening the input and output files of the application, transparently handling gzip compressed files.<br>
+ * A compressed input file is detected using its magic bytes (Independent of its name) and is decompressed by a separate thread, writing into a bounded pipe, therefore decompressing and parsing the file is overlapping.
+ * An output file is compressed if its name is ending with ".gz".
+ */
+public class Compression
+{
+    /**
+     * The first two bytes of every gzip file.
+     */
+    private static final byte[] gzipMagicNumber = {(byte) 0x1f, (byte) 0x8b};
+
+    /**
+     * The file extension of compressed output files.
+     */
+    private static final String gzipExtension = ".gz";
+
+    /**
+     * The size of the buffers used to read and write compressed files.
+     */
+    private static final int bufferSize = 64 * 1024;
+
+    /**
+     * This class is only providing static functions.
+     */
+    private Compression()
+    {
+    }
+
+    /**
+     * Checks if the stated file is gzip compressed, by comparing its first bytes with the magic number.
+     * @param inputFile The file name of the input file.
+     * @return True if the file is gzip compressed, false otherwise (Including if the file does not exist).
+     */
+    public static boolean isCompressed(String inputFile)
+    {
+        try(InputStream inputStream = new FileInputStream(inputFile))
+        {
+            return gzipMagicNumber[0] == (byte) inputStream.read() && gzipMagicNumber[1] == (byte) inputStream.read();
+        } catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if an output file with the stated name is going to be compressed.
+     * @param outputFile The file name of the output file.
+     * @return True if the name is ending with ".gz", false otherwise.
+     */
+    public static boolean isCompressedName(String outputFile)
+    {
+        return outputFile.toLowerCase().endsWith(gzipExtension);
+    }
+
+    /**
+     * Removes the compression extension from the stated file name, used to determine the format of an output file.
+     * @param outputFile The file name of the output file.
+     * @return The file name without the ".gz" extension.
+     */
+    public static String stripExtension(String outputFile)
+    {
+        return isCompressedName(outputFile)? outputFile.substring(0, outputFile.length() - gzipExtension.length()): outputFile;
+    }
+
+    /**
+     * Opens the stated input file. If the file is gzip compressed, it is decompressed by a separate thread.
+     * @param inputFile The file name of the input file.
+     * @return The (decompressed) content of the file, which needs to be closed by the caller.
+     * @throws FileNotFoundException If the file does not exist.
+     * @throws IOException If the file could not be opened.
+     */
+    public static InputStream openInput(String inputFile) throws IOException
+    {
+        if(isCompressed(inputFile))
+        {
+            return new DecompressingStream(new GZIPInputStream(new FileInputStream(inputFile), bufferSize));
+        }
+        return new FileInputStream(inputFile);
+    }
+
+    /**
+     * Reads the first bytes of the (decompressed) content of the stated file, without decompressing the whole file.
+     * @param inputFile The file name of the input file.
+     * @param length The amount of bytes.
+     * @return The first bytes of the content, which might be less than the stated length if the content is shorter.
+     * @throws IOException If the file could not be read.
+     */
+    public static byte[] readStart(String inputFile, int length) throws IOException
+    {
+        try(InputStream inputStream = isCompressed(inputFile)? new GZIPInputStream(new FileInputStream(inputFile)): new FileInputStream(inputFile))
+        {
+            byte[] start = new byte[length];
+            int read = 0;
+            int currentRead;
+            while(read < length && (currentRead = inputStream.read(start, read, length - read)) != -1)
+            {
+                read += currentRead;
+            }
+            return read == length? start: Arrays.copyOf(start, read);
+        } catch (EOFException e)
+        {   //The compressed file is truncated before the first bytes
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Creates the stated output file. If the name is ending with ".gz", the content is gzip compressed.
+     * @param outputFile The file name of the output file.
+     * @return A buffered stream writing the content of the file, which needs to be closed by the caller.
+     * @throws FileNotFoundException If the file could not be created.
+     * @throws IOException If the file could not be opened.
+     */
+    public static OutputStream openOutput(String outputFile) throws IOException
+    {
+        if(isCompressedName(outputFile))
+        {
+            return new GZIPOutputStream(new FileOutputStream(outputFile), bufferSize);
+        }
+        return new BufferedOutputStream(new FileOutputStream(outputFile), bufferSize);
+    }
+
+    /**
+     * This stream is providing the decompressed content of a compressed input stream.
+     * The input stream is decompressed by a separate thread, writing into a bounded pipe, therefore decompressing and reading the content is overlapping and the memory usage does not depend on the size of the input.
+     */
+    private static class DecompressingStream extends PipedInputStream
+    {
+        /**
+         * The size of the pipe between the decompressing thread and the reader.
+         */
+        private static final int pipeSize = 256 * 1024;
+
+        /**
+         * The error occurred while decompressing the input stream, reported to the reader as soon as it reaches the end of the stream.
+         */
+        private volatile IOException error = null;
+
+        /**
+         * Creates the stream and starts decompressing the input stream.
+         * @param source The decompressing input stream, closed as soon as it is fully read or the reader is closed.
+         * @throws IOException If the pipe could not be created.
+         */
+        private DecompressingStream(InputStream source) throws IOException
+        {
+            super(pipeSize);
+            PipedOutputStream pipe = new PipedOutputStream(this);
+            Thread decompressor = new Thread(() -> decompress(source, pipe), "Gzip-Reader");
+            decompressor.setDaemon(true);
+            decompressor.start();
+        }
+
+        /**
+         * Copies the decompressed content to the pipe. The pipe and the source are closed afterwards.
+         * @param source The decompressing input stream.
+         * @param pipe The pipe read by the consumer.
+         */
+        private void decompress(InputStream source, PipedOutputStream pipe)
+        {
+            //The pipe is closed within the finally block, to make sure the error is stored before the reader reaches the end of the stream
+            try(InputStream currentSource = source)
+            {
+                byte[] buffer = new byte[bufferSize];
+                int read;
+                while((read = currentSource.read(buffer)) != -1)
+                {
+                    pipe.write(buffer, 0, read);
+                }
+            } catch (IOException e)
+            {
+                error = e;
+            } finally
+            {
+                try
+                {
+                    pipe.close();
+                } catch (IOException ignored) {}
+            }
+        }
+
+        @Override
+        public synchronized int read() throws IOException
+        {
+            int result = super.read();
+            if(result == -1)
+            {
+                checkError();
+            }
+            return result;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException
+        {
+            int result = super.read(b, off, len);
+            if(result == -1)
+            {
+                checkError();
+            }
+            return result;
+        }
+
+        /**
+         * Reports an error occurred while decompressing the input stream.
+         * @throws IOException If the input stream could not be decompressed.
+         */
+        private void checkError() throws IOException
+        {
+            if(error != null)
+            {
+                throw error;
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Utility.Case.FinalGrade;
+
+/**
+ * This class is counting the results of testing the network: The recommendation of every tested case is rated using the final grade the person achieved.
+ * A recommendation for the course (FinalGrade.Very_Good) is positive, a recommendation against the course (FinalGrade.Failed) is negative. The recommendation is true if the person achieved a very good or good grade, respectively did not achieve one.
+ */
+public class ConfusionMatrix
+{
+    //Escape characters for font options
+    private static String boldFont = (char)27 +"[1m";
+    private static String redFont = (char)27 +"[31m";
+    private static String resetFont = (char)27 +"[0m";
+
+    /**
+     * Amount of cases where the prediction encourages to study the course, and the person achieved a very good or good grade
+     */
+    private long truePositive = 0;
+
+    /**
+     * Amount of cases where the prediction encourages to study the course, and the person did not achieve a very good or good grade
+     */
+    private long falsePositive = 0;
+
+    /**
+     * Amount of cases where the prediction discourages to study the course, and the person did not achieve a very good or good grade
+     */
+    private long trueNegative = 0;
+
+    /**
+     * Amount of cases where the prediction discourages to study the course, and the person achieved a very good or good grade
+     */
+    private long falseNegative = 0;
+
+    /**
+     * Amount of cases where the prediction could neither discourage nor encourage the person
+     */
+    private long noResult = 0;
+
+    /**
+     * Amount of cases that could not be evaluated, because an error occurred
+     */
+    private long failed = 0;
+
+    /**
+     * Adds the result of a tested case.
+     * @param testResult The recommendation of the network (FinalGrade.Very_Good for, FinalGrade.Failed against the course, everything else is not rated).
+     * @param finalGrade The final grade the person achieved, or null if it was not stated.
+     */
+    public void add(Enum<?> testResult, FinalGrade finalGrade)
+    {
+        boolean goodGrade = finalGrade == FinalGrade.VERY_GOOD || finalGrade == FinalGrade.GOOD;
+        if (testResult == FinalGrade.VERY_GOOD) //Test recommends studying
+        {
+            if (goodGrade)
+            {
+                truePositive++;
+            } else
+            {
+                falsePositive++;
+            }
+        } else if (testResult == FinalGrade.FAILED)
+        {
+            if (goodGrade)
+            {
+                falseNegative++;
+            } else
+            {
+                trueNegative++;
+            }
+        } else
+        {
+            noResult++;
+        }
+    }
+
+    /**
+     * Adds a case that could not be evaluated, because an error occurred.
+     */
+    public void addFailure()
+    {
+        failed++;
+    }
+
+    /**
+     * Adds all results of the stated matrix to this matrix.
+     * @param other The other matrix.
+     */
+    public void add(ConfusionMatrix other)
+    {
+        truePositive += other.truePositive;
+        falsePositive += other.falsePositive;
+        trueNegative += other.trueNegative;
+        falseNegative += other.falseNegative;
+        noResult += other.noResult;
+        failed += other.failed;
+    }
+
+    /**
+     * Returns the amount of rated cases.
+     * @return The amount of cases, where the network either recommended or discouraged the course.
+     */
+    public long getAmountOfTests()
+    {
+        return falseNegative + falsePositive + truePositive + trueNegative;
+    }
+
+    /**
+     * Returns the amount of cases, that could not be rated.
+     * @return The amount of cases, where the network could neither recommend nor discourage the course.
+     */
+    public long getNoResult()
+    {
+        return noResult;
+    }
+
+    /**
+     * Returns the amount of cases, that could not be evaluated.
+     * @return The amount of cases, where an error occurred during the evaluation.
+     */
+    public long getFailures()
+    {
+        return failed;
+    }
+
+    /**
+     * Returns the share of false recommendations within all rated cases.
+     * @return The error rate.
+     */
+    public double getErrorRate()
+    {
+        double amountOfErrors = falseNegative + falsePositive;
+        return amountOfErrors / getAmountOfTests();
+    }
+
+    /**
+     * Returns the share of false recommendations for a course within all rated cases, since discouraging a person that would have achieved a good grade is an acceptable error.
+     * @return The non-acceptable error rate.
+     */
+    public double getNonAcceptableErrorRate()
+    {
+        double nonAcceptableAmountOfErrors = falsePositive;
+        return nonAcceptableAmountOfErrors / getAmountOfTests();
+    }
+
+    /**
+     * Prints the matrix, the error rates and the amount of cases that could not be rated or evaluated.
+     */
+    public void print()
+    {
+        System.out.println();
+        System.out.println(boldFont + redFont + "Results:" + resetFont);
+        System.out.println();
+
+        System.out.println("                                     |   Person achieves a Very_Good or Good Grade   |  Person fails or receives a satisfying grade     |");
+        System.out.format( "Test encourages studying the course  |                      " + boldFont + "%02d" + resetFont + "                       |                      " + boldFont + "%02d" + resetFont + "                          |\n", truePositive, falsePositive);
+        System.out.format( "Test discourages studying the course |                      " + boldFont + "%02d" + resetFont + "                       |                      " + boldFont + "%02d" + resetFont + "                          |\n", falseNegative, trueNegative);
+        System.out.println();
+
+        System.out.println("Error rate:                                                              " + boldFont + getErrorRate() + resetFont);
+        System.out.println("Non-acceptable error rate (Since false negative is an acceptable error): " + boldFont + getNonAcceptableErrorRate() + resetFont);
+        System.out.println();
+        System.out.println("Unable to evaluate " + noResult + " cases, because their result was not obvious");
+        if(failed > 0)
+        {
+            System.out.println("Unable to evaluate " + failed + " cases, because an error occurred (The error rates are only covering the " + getAmountOfTests() + " rated cases)");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Utility.Case.Course;
+
+/**
+ * This class is storing the belief for a very good or good grade of every {@link de.steilerdev.whatToStudy.Utility.Case.Course course}, calculated once per evaluation, together with the courses in descending order of their belief.
+ * The beliefs are stored within a primitive array indexed by the ordinal of the course.
+ */
+public class CourseRanking
+{
+    /**
+     * All courses, cached since {@link Course#values()} is creating a new array on every call.
+     */
+    private static final Course[] courses = Course.values();
+
+    /**
+     * The belief of every course, indexed by the ordinal of the course.
+     */
+    private final double[] beliefs;
+
+    /**
+     * The courses in descending order of their belief.
+     */
+    private final Course[] ranking;
+
+    /**
+     * Creates a new ranking using the stated beliefs.
+     * @param beliefs The belief for a very good or good grade of every course, indexed by the ordinal of the course. The array is taken over by the ranking.
+     */
+    public CourseRanking(double[] beliefs)
+    {
+        if(beliefs.length != courses.length)
+        {
+            throw new IllegalArgumentException("Expected " + courses.length + " beliefs, but got " + beliefs.length);
+        }
+        this.beliefs = beliefs;
+
+        //Insertion sort in descending order, stable for courses with an equal belief
+        ranking = courses.clone();
+        for(int i = 1; i < ranking.length; i++)
+        {
+            Course current = ranking[i];
+            int j = i - 1;
+            while(j >= 0 && beliefs[ranking[j].ordinal()] < beliefs[current.ordinal()])
+            {
+                ranking[j + 1] = ranking[j];
+                j--;
+            }
+            ranking[j + 1] = current;
+        }
+    }
+
+    /**
+     * Returns the belief for a very good or good grade of the stated course.
+     * @param course The course.
+     * @return The belief of the course.
+     */
+    public double getBelief(Course course)
+    {
+        return beliefs[course.ordinal()];
+    }
+
+    /**
+     * Returns the course at the stated position of the ranking.
+     * @param position The position within the ranking, where 0 is the course with the highest belief.
+     * @return The course at the position.
+     */
+    public Course getCourse(int position)
+    {
+        return ranking[position];
+    }
+
+    /**
+     * Returns the course with the highest belief.
+     * @return The best course.
+     */
+    public Course getBestCourse()
+    {
+        return ranking[0];
+    }
+
+    /**
+     * Returns the belief of the course with the highest belief.
+     * @return The belief of the best course.
+     */
+    public double getBestBelief()
+    {
+        return beliefs[ranking[0].ordinal()];
+    }
+
+    /**
+     * Returns the amount of ranked courses.
+     * @return The amount of courses.
+     */
+    public int size()
+    {
+        return ranking.length;
+    }
+}
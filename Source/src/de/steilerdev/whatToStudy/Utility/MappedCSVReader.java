@@ -0,0 +1,341 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException;
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Utility.Case.CaseCursor;
+import de.steilerdev.whatToStudy.Utility.Case.CaseStore;
+import de.steilerdev.whatToStudy.Utility.Case.PackedCase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class is reading a CSV file meeting the specifications of the {@link de.steilerdev.whatToStudy.Utility.CSVStreamer CSV streamer} using all available cores.<br>
+ * The file is memory mapped and split into chunks, each ending at the end of a line. The lines of every chunk are counted in parallel, to know the line number of the first line of every chunk (Used for the error messages).
+ * Afterwards every chunk is parsed and cleaned into its own {@link de.steilerdev.whatToStudy.Utility.Case.CaseStore case store} on the fork join pool, and the stores are merged in the order of the file.
+ */
+public class MappedCSVReader
+{
+    /**
+     * The minimum size of a chunk in bytes.
+     */
+    private static final int minChunkSize = 1 << 20;
+
+    /**
+     * The maximum size of a chunk in bytes (A chunk is only exceeding this size if a single line is exceeding it).
+     */
+    private static final int maxChunkSize = 16 << 20;
+
+    /**
+     * The size of the buffer used to find the end of a line.
+     */
+    private static final int scanBufferSize = 8192;
+
+    /**
+     * This class is only providing static functions.
+     */
+    private MappedCSVReader()
+    {
+    }
+
+    /**
+     * Reads all cases of the stated file into a case store.<br>
+     * The first line needs to be a valid header specified within the {@link de.steilerdev.whatToStudy.Utility.Case case enumerations}. The order is specified within the class description of the {@link de.steilerdev.whatToStudy.Utility.CSVStreamer CSV streamer}.
+     * If the lenient mode is enabled, invalid lines are handed over to the {@link de.steilerdev.whatToStudy.Utility.Quarantine quarantine} and skipped.
+     * @param inputFile The file name of the input file.
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @return A store containing all cases in the order of the file.
+     * @throws WhatToStudyException If an error occurs, stating the line of the first invalid case of the file.
+     */
+    public static CaseStore read(String inputFile, boolean skipNonMandatory) throws WhatToStudyException
+    {
+        return read(inputFile, skipNonMandatory, PackedCase.ALL);
+    }
+
+    /**
+     * Reads all cases of the stated file into a case store, only cleaning the projected columns. All other values of the cases are missing and their columns are not validated.
+     * @param inputFile The file name of the input file.
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @param projection A mask created by {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(de.steilerdev.whatToStudy.Utility.Case.Variable...)}, covering the variables that are cleaned.
+     * @return A store containing all cases in the order of the file.
+     * @throws WhatToStudyException If an error occurs, stating the line of the first invalid case of the file.
+     */
+    public static CaseStore read(String inputFile, boolean skipNonMandatory, long projection) throws WhatToStudyException
+    {
+        if(Compression.isCompressed(inputFile))
+        {   //A compressed file can not be mapped and split, therefore it is read sequentially while it is decompressed
+            return readCompressed(inputFile, skipNonMandatory, projection);
+        }
+        try(FileChannel channel = FileChannel.open(Paths.get(inputFile), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            CaseStore caseStore = new CaseStore();
+            if(size == 0)
+            {
+                return caseStore;
+            }
+
+            //Parsing and validating header
+            long dataStart = findNextLine(channel, 0, size);
+            String header = Charset.defaultCharset().decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, dataStart)).toString();
+            if (!CSVStreamer.validateHeader(trimLineEnd(header).split(CSVStreamer.cvsSplitBy), skipNonMandatory))
+            {
+                throw new WhatToStudyException("The header of the specific file does not meet the stated requirements. See help page for more information");
+            }
+
+            //Splitting the file into chunks ending at the end of a line
+            int parallelism = ForkJoinPool.getCommonPoolParallelism();
+            long chunkSize = java.lang.Math.min(maxChunkSize, java.lang.Math.max(minChunkSize, (size - dataStart) / (4L * parallelism)));
+            ArrayList<MappedByteBuffer> chunks = new ArrayList<>();
+            long chunkStart = dataStart;
+            while(chunkStart < size)
+            {
+                long chunkEnd = chunkStart + chunkSize >= size? size: findNextLine(channel, chunkStart + chunkSize, size);
+                if(chunkEnd - chunkStart > Integer.MAX_VALUE)
+                {
+                    throw new WhatToStudyException("The file contains a line exceeding " + Integer.MAX_VALUE + " bytes");
+                }
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart));
+                chunkStart = chunkEnd;
+            }
+
+            //Counting the lines of every chunk
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            ArrayList<ForkJoinTask<Integer>> lineCounts = new ArrayList<>(chunks.size());
+            for(MappedByteBuffer chunk: chunks)
+            {
+                lineCounts.add(pool.submit(() -> countLines(chunk.duplicate())));
+            }
+
+            //Parsing every chunk, the header is the first line of the file. Invalid lines are skipped if the lenient mode is enabled
+            Quarantine quarantine = Quarantine.getQuarantine();
+            ArrayList<ForkJoinTask<ChunkResult>> results = new ArrayList<>(chunks.size());
+            int firstLineNumber = 2;
+            for(int i = 0; i < chunks.size(); i++)
+            {
+                MappedByteBuffer chunk = chunks.get(i);
+                int lines = lineCounts.get(i).join();
+                int chunkFirstLineNumber = firstLineNumber;
+                results.add(pool.submit(() -> parseChunk(chunk.duplicate(), lines, chunkFirstLineNumber, skipNonMandatory, projection, quarantine)));
+                firstLineNumber += lines;
+            }
+
+            //Merging the results in the order of the file, reporting the first error of the file
+            for(ForkJoinTask<ChunkResult> task: results)
+            {
+                ChunkResult result = task.join();
+                if(result.error != null)
+                {
+                    throw result.error;
+                }
+                caseStore.addAll(result.caseStore);
+            }
+            return caseStore;
+        } catch (NoSuchFileException e)
+        {
+            throw new WhatToStudyException("Unable to find the specified file " + inputFile);
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while reading the input file " + inputFile);
+        }
+    }
+
+    /**
+     * Reads all cases of the stated compressed file into a case store, while it is decompressed by a separate thread.
+     * @param inputFile The file name of the input file.
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @param projection The mask covering the variables that are cleaned.
+     * @return A store containing all cases in the order of the file.
+     * @throws WhatToStudyException If an error occurs, stating the line of the first invalid case of the file.
+     */
+    private static CaseStore readCompressed(String inputFile, boolean skipNonMandatory, long projection) throws WhatToStudyException
+    {
+        CaseStore caseStore = new CaseStore();
+        try(CaseSpliterator cases = new CaseSpliterator(Compression.openInput(inputFile), skipNonMandatory, projection))
+        {
+            cases.forEachRemaining(caseStore::add);
+        } catch (UncheckedWhatToStudyException e)
+        {
+            throw e.getCause();
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while reading the input file " + inputFile);
+        }
+        caseStore.trimToSize();
+        return caseStore;
+    }
+
+    /**
+     * Finds the beginning of the line following the stated position.
+     * @param channel The channel of the file.
+     * @param position The position where the search starts.
+     * @param size The size of the file.
+     * @return The position after the next line feed, or the size of the file if there is none.
+     * @throws IOException If an error occurs.
+     */
+    private static long findNextLine(FileChannel channel, long position, long size) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(scanBufferSize);
+        while(position < size)
+        {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if(read <= 0)
+            {
+                break;
+            }
+            for(int i = 0; i < read; i++)
+            {
+                if(buffer.get(i) == '\n')
+                {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Counts the lines of the stated chunk.
+     * @param chunk The chunk.
+     * @return The amount of lines, including a last line without line feed.
+     */
+    private static int countLines(ByteBuffer chunk)
+    {
+        int lines = 0;
+        int limit = chunk.limit();
+        for(int i = 0; i < limit; i++)
+        {
+            if(chunk.get(i) == '\n')
+            {
+                lines++;
+            }
+        }
+        if(limit > 0 && chunk.get(limit - 1) != '\n')
+        {
+            lines++;
+        }
+        return lines;
+    }
+
+    /**
+     * Parses and cleans all lines of the stated chunk.
+     * @param chunk The chunk.
+     * @param lines The amount of lines within the chunk.
+     * @param firstLineNumber The line number of the first line of the chunk within the file.
+     * @param skipNonMandatory If true only the first 15 columns are required, otherwise all 17 are mandatory.
+     * @param projection The mask covering the variables that are cleaned.
+     * @param quarantine The quarantine receiving invalid lines, or null if an invalid line is an error.
+     * @return The cases of the chunk, or the error of the first invalid line of the chunk.
+     */
+    private static ChunkResult parseChunk(ByteBuffer chunk, int lines, int firstLineNumber, boolean skipNonMandatory, long projection, Quarantine quarantine)
+    {
+        CharBuffer characters = Charset.defaultCharset().decode(chunk);
+        char[] buffer = characters.array();
+        CaseStore caseStore = new CaseStore(lines, false);
+        CaseTokenizer tokenizer = new CaseTokenizer(projection);
+        CaseCursor cursor = new CaseCursor();
+        int lineNumber = firstLineNumber;
+        int lineStart = characters.arrayOffset();
+        int limit = lineStart + characters.limit();
+        try
+        {
+            while(lineStart < limit)
+            {
+                int lineEnd = lineStart;
+                while(lineEnd < limit && buffer[lineEnd] != '\n')
+                {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd;
+                while(contentEnd > lineStart && buffer[contentEnd - 1] == '\r')
+                {
+                    contentEnd--;
+                }
+                //The line is cleaned into the cursor and copied into the store, without creating any objects
+                try
+                {
+                    tokenizer.parse(buffer, lineStart, contentEnd, skipNonMandatory, lineNumber, cursor);
+                    caseStore.add(cursor.getPacked(), 1.0);
+                } catch (WhatToStudyException e)
+                {
+                    if(quarantine == null)
+                    {
+                        throw e;
+                    }
+                    quarantine.reject(lineNumber, new String(buffer, lineStart, contentEnd - lineStart), tokenizer.getRejectedVariable(), e.getMessage());
+                }
+                lineNumber++;
+                lineStart = lineEnd + 1;
+            }
+            return new ChunkResult(caseStore, null);
+        } catch (WhatToStudyException e)
+        {
+            return new ChunkResult(null, e);
+        }
+    }
+
+    /**
+     * Removes the line feed and carriage return at the end of the line.
+     * @param line The line.
+     * @return The line without line end characters.
+     */
+    private static String trimLineEnd(String line)
+    {
+        int end = line.length();
+        while(end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r'))
+        {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * The result of parsing a single chunk.
+     */
+    private static class ChunkResult
+    {
+        /**
+         * The cases of the chunk, or null if an error occurred.
+         */
+        private final CaseStore caseStore;
+
+        /**
+         * The error of the first invalid line of the chunk, or null if all lines are valid.
+         */
+        private final WhatToStudyException error;
+
+        private ChunkResult(CaseStore caseStore, WhatToStudyException error)
+        {
+            this.caseStore = caseStore;
+            this.error = error;
+        }
+    }
+}
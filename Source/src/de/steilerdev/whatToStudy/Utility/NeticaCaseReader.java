@@ -0,0 +1,459 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException;
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Utility.Case.*;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class is reading already cleaned cases stored in the Netica case file format (.cas), like <code>Resources/CleanedExampleData.cas</code> or the files written by the {@link de.steilerdev.whatToStudy.Utility.NeticaCaseWriter Netica case writer}.<br>
+ * A Netica case file is recognized by its header: A line of whitespace separated Netica headers of the {@link de.steilerdev.whatToStudy.Utility.Case.Variable variables} (In any order), optionally including the NumCases column stating the weight of a case.
+ * Every value is mapped to its ordinal using a single lookup within the table of the Netica names of the variable, the cleaning function is only used if the value is not a Netica name (e.g. for files written by older versions). The Netica missing value symbol "*" is representing a missing value, lines starting with "//" are comments.<br>
+ * The reader is a lazy {@link java.util.Spliterator spliterator}, errors are thrown as {@link de.steilerdev.whatToStudy.Exception.UncheckedWhatToStudyException unchecked exceptions} or handed over to the {@link de.steilerdev.whatToStudy.Utility.Quarantine quarantine} if the lenient mode is enabled.
+ * If the file is stating the weight of the cases, a case with an integral weight is streamed as the stated amount of identical cases.
+ */
+public class NeticaCaseReader extends Spliterators.AbstractSpliterator<Case> implements Closeable
+{
+    /**
+     * The header of the column stating the weight of a case.
+     */
+    private static final String weightHeader = "NumCases";
+
+    /**
+     * The amount of bytes read at the beginning of a file to recognize its header.
+     */
+    private static final int headerScanSize = 8192;
+
+    /**
+     * The reader of the input stream.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * The variable of every column, null for the weight column.
+     */
+    private final Variable[] columns;
+
+    /**
+     * True for every column that is read, false if the variable is not part of the projection.
+     */
+    private final boolean[] selected;
+
+    /**
+     * True if the file is stating the weight of every case.
+     */
+    private final boolean weighted;
+
+    /**
+     * The quarantine receiving invalid lines, or null if an invalid line is an error.
+     */
+    private final Quarantine quarantine;
+
+    /**
+     * The reusable view of the current value.
+     */
+    private final CaseTokenizer.Field field = new CaseTokenizer.Field();
+
+    /**
+     * The cursor receiving the values of the current line.
+     */
+    private final CaseCursor cursor = new CaseCursor();
+
+    /**
+     * The weight of the current line.
+     */
+    private double weight = 1.0;
+
+    /**
+     * The variable of the value that is currently read, or null if the amount of columns is checked.
+     */
+    private Variable currentVariable = null;
+
+    /**
+     * The packed representation of the case that is streamed repeatedly, because of its weight.
+     */
+    private long repeatedCase = PackedCase.EMPTY;
+
+    /**
+     * The remaining amount of copies of the repeated case.
+     */
+    private long repetitions = 0;
+
+    /**
+     * The line number of the last read line.
+     */
+    private int lineNumber = 0;
+
+    /**
+     * Creates a new reader and parses the header of the input stream.
+     * @param inputStream The input stream, closed by {@link #close()}.
+     * @param projection A mask created by {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(Variable...)}, covering the variables that are read. All other values of the cases are missing.
+     * @throws WhatToStudyException If the header is invalid, or an error occurs.
+     */
+    public NeticaCaseReader(InputStream inputStream, long projection) throws WhatToStudyException
+    {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.reader = new BufferedReader(new InputStreamReader(inputStream));
+        this.quarantine = Quarantine.getQuarantine();
+
+        try
+        {
+            //Parsing the header, which is the first line that is neither empty nor a comment
+            String line;
+            while ((line = reader.readLine()) != null && isSkipped(line))
+            {
+                lineNumber++;
+            }
+            lineNumber++;
+            columns = line == null? null: parseHeader(line);
+            if(columns == null)
+            {
+                throw new WhatToStudyException("The header of the specific file is not a valid Netica case file header. See help page for more information");
+            }
+        } catch (IOException e)
+        {
+            close();
+            throw new WhatToStudyException("Error occurred while reading the input stream.");
+        } catch (WhatToStudyException e)
+        {
+            close();
+            throw e;
+        }
+
+        selected = new boolean[columns.length];
+        boolean weightColumn = false;
+        for(int i = 0; i < columns.length; i++)
+        {
+            weightColumn |= columns[i] == null;
+            selected[i] = columns[i] != null && !PackedCase.isMissing(projection, columns[i]);
+        }
+        weighted = weightColumn;
+    }
+
+    /**
+     * Checks if the stated file is a Netica case file, by parsing the header at the beginning of the (decompressed) file.
+     * @param inputFile The file name of the input file.
+     * @return True if the file is starting with a valid Netica case file header, false otherwise (Including if the file does not exist).
+     */
+    public static boolean isNeticaCaseFile(String inputFile)
+    {
+        try
+        {
+            String start = new String(Compression.readStart(inputFile, headerScanSize), Charset.defaultCharset());
+            int lineStart = 0;
+            while(lineStart < start.length())
+            {
+                int lineEnd = start.indexOf('\n', lineStart);
+                if(lineEnd == -1)
+                {   //The header might be longer than the scanned bytes
+                    return false;
+                }
+                String line = start.substring(lineStart, lineEnd);
+                if(!isSkipped(line))
+                {
+                    return parseHeader(line) != null;
+                }
+                lineStart = lineEnd + 1;
+            }
+            return false;
+        } catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Reads all cases of the stated Netica case file into a case store. If the file is stating the weight of the cases, the store is weighted.
+     * @param inputFile The file name of the input file.
+     * @param projection A mask created by {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(Variable...)}, covering the variables that are read.
+     * @return A store containing all cases in the order of the file.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public static CaseStore read(String inputFile, long projection) throws WhatToStudyException
+    {
+        try(NeticaCaseReader cases = new NeticaCaseReader(Compression.openInput(inputFile), projection))
+        {
+            CaseStore caseStore = new CaseStore(1024, cases.weighted);
+            while(cases.readCase())
+            {
+                caseStore.add(cases.cursor.getPacked(), cases.weight);
+            }
+            caseStore.trimToSize();
+            return caseStore;
+        } catch (FileNotFoundException e)
+        {
+            throw new WhatToStudyException("Unable to find the specified file " + inputFile);
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while reading the input file " + inputFile);
+        }
+    }
+
+    /**
+     * Creates a lazy stream of the cases of the stated Netica case file. The stream needs to be closed after it is consumed.
+     * @param inputFile The file name of the input file.
+     * @param projection A mask created by {@link de.steilerdev.whatToStudy.Utility.Case.PackedCase#mask(Variable...)}, covering the variables that are read.
+     * @return A stream of cases, in the order of the file.
+     * @throws WhatToStudyException If the header is invalid, or an error occurs.
+     */
+    public static Stream<Case> stream(String inputFile, long projection) throws WhatToStudyException
+    {
+        try
+        {
+            NeticaCaseReader cases = new NeticaCaseReader(Compression.openInput(inputFile), projection);
+            return StreamSupport.stream(cases, false).onClose(cases::close);
+        } catch (FileNotFoundException e)
+        {
+            throw new WhatToStudyException("Unable to find the specified file " + inputFile);
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while opening the input file " + inputFile);
+        }
+    }
+
+    /**
+     * Parses a header line, mapping every column to its variable.
+     * @param line The header line.
+     * @return The variable of every column (null for the weight column), or null if the line is not a valid Netica case file header.
+     */
+    private static Variable[] parseHeader(String line)
+    {
+        String[] headers = line.trim().split("\\s+");
+        Variable[] headerColumns = new Variable[headers.length];
+        boolean weightColumn = false;
+        boolean variableColumn = false;
+        for(int i = 0; i < headers.length; i++)
+        {
+            if(headers[i].equals(weightHeader) && !weightColumn)
+            {
+                weightColumn = true;
+                continue;
+            }
+            for(Variable variable: Variable.values())
+            {
+                if(variable.getHeader().equals(headers[i]))
+                {
+                    headerColumns[i] = variable;
+                }
+            }
+            if(headerColumns[i] == null)
+            {   //Unknown or duplicated column
+                return null;
+            }
+            for(int j = 0; j < i; j++)
+            {
+                if(headerColumns[j] == headerColumns[i])
+                {
+                    return null;
+                }
+            }
+            variableColumn = true;
+        }
+        return variableColumn? headerColumns: null;
+    }
+
+    /**
+     * Checks if the stated line is not containing a case or header.
+     * @param line The line.
+     * @return True if the line is empty or a comment.
+     */
+    private static boolean isSkipped(String line)
+    {
+        String trimmedLine = line.trim();
+        return trimmedLine.isEmpty() || trimmedLine.startsWith("//");
+    }
+
+    /**
+     * Returns true if the file is stating the weight of every case.
+     * @return True if the file has a NumCases column.
+     */
+    public boolean isWeighted()
+    {
+        return weighted;
+    }
+
+    /**
+     * Reads the next case and hands it over to the action. A case with an integral weight is handed over the stated amount of times.
+     * @param action The action consuming the case.
+     * @return True if there was a case, false if the end of the input stream is reached.
+     * @throws UncheckedWhatToStudyException If the case is invalid, has a fractional weight, or an error occurs.
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super Case> action)
+    {
+        try
+        {
+            while(repetitions == 0)
+            {
+                if(!readCase())
+                {
+                    return false;
+                }
+                if(weight != java.lang.Math.rint(weight))
+                {
+                    throw new WhatToStudyException("The fractional number of cases in line " + lineNumber + " can only be used for learning");
+                }
+                repeatedCase = cursor.getPacked();
+                repetitions = (long) weight;
+            }
+            repetitions--;
+            action.accept(PackedCase.decode(repeatedCase));
+            return true;
+        } catch (WhatToStudyException e)
+        {
+            throw new UncheckedWhatToStudyException(e);
+        }
+    }
+
+    /**
+     * Reads the next valid case into the cursor and its weight. Invalid lines are handed over to the quarantine if the lenient mode is enabled.
+     * @return True if there was a case, false if the end of the input stream is reached.
+     * @throws WhatToStudyException If the case is invalid, or an error occurs.
+     */
+    private boolean readCase() throws WhatToStudyException
+    {
+        try
+        {
+            String line;
+            while((line = reader.readLine()) != null)
+            {
+                lineNumber++;
+                if(isSkipped(line))
+                {
+                    continue;
+                }
+                try
+                {
+                    parse(line.toCharArray());
+                    return true;
+                } catch (WhatToStudyException e)
+                {
+                    if(quarantine == null)
+                    {
+                        throw e;
+                    }
+                    //The invalid line is skipped, the next line is read instead
+                    quarantine.reject(lineNumber, line, currentVariable, e.getMessage());
+                }
+            }
+            return false;
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while reading the input stream.");
+        }
+    }
+
+    /**
+     * Splits the line at every whitespace and maps the values of the selected columns to their ordinals.
+     * @param buffer The characters of the line.
+     * @throws WhatToStudyException If the line is invalid.
+     */
+    private void parse(char[] buffer) throws WhatToStudyException
+    {
+        cursor.clear();
+        weight = 1.0;
+        int column = 0;
+        int position = 0;
+        while(true)
+        {
+            while(position < buffer.length && buffer[position] <= ' ')
+            {
+                position++;
+            }
+            if(position == buffer.length)
+            {
+                break;
+            }
+            int start = position;
+            while(position < buffer.length && buffer[position] > ' ')
+            {
+                position++;
+            }
+            if(column >= columns.length)
+            {
+                column++;
+                break;
+            }
+            field.set(buffer, start, position);
+            currentVariable = columns[column];
+            if(currentVariable == null)
+            {
+                weight = parseWeight(field);
+            } else if(selected[column] && !(field.length() == 1 && field.charAt(0) == '*'))
+            {
+                Enum<?> value = currentVariable.getValue(field);
+                if(value == null)
+                {
+                    try
+                    {
+                        value = currentVariable.clean(field);
+                    } catch (WhatToStudyException e)
+                    {
+                        throw new WhatToStudyException("Invalid value " + field + " of " + currentVariable.getHeader() + " in line " + lineNumber);
+                    }
+                }
+                cursor.set(currentVariable, value);
+            }
+            column++;
+        }
+        currentVariable = null;
+        if(column != columns.length)
+        {
+            throw new WhatToStudyException("Invalid number of columns in line " + lineNumber);
+        }
+    }
+
+    /**
+     * Parses the weight of a case.
+     * @param value The value of the weight column.
+     * @return The weight.
+     * @throws WhatToStudyException If the value is not a non-negative number.
+     */
+    private double parseWeight(CharSequence value) throws WhatToStudyException
+    {
+        try
+        {
+            double parsedWeight = Double.parseDouble(value.toString());
+            if(parsedWeight >= 0 && !Double.isInfinite(parsedWeight))
+            {
+                return parsedWeight;
+            }
+        } catch (NumberFormatException ignored) {}
+        throw new WhatToStudyException("Invalid number of cases " + value + " in line " + lineNumber);
+    }
+
+    /**
+     * Closes the input stream.
+     */
+    @Override
+    public void close()
+    {
+        try
+        {
+            reader.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Utility.Case.Case;
+import de.steilerdev.whatToStudy.Utility.Case.CaseStore;
+import de.steilerdev.whatToStudy.Utility.Case.PackedCase;
+import de.steilerdev.whatToStudy.Utility.Case.Variable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class is writing cleaned cases in the Netica case file format (.cas), like <code>Resources/CleanedExampleData.cas</code>: A header line stating the Netica names of all variables, followed by a line for every case, separated by spaces. Missing values are marked using the Netica missing value symbol "*".
+ * If the cases are weighted, the weight of every case is written to the additional NumCases column in front of the variables.<br>
+ * The bytes of every state name (Including the following separator) are created only once, and every case is copied into a large reusable buffer, therefore no objects are created while writing a case.
+ * A writer is not thread safe.
+ */
+public class NeticaCaseWriter implements Closeable, Flushable
+{
+    /**
+     * The size of the buffer, which is written to the output stream as soon as it is full.
+     */
+    private static final int bufferSize = 1 << 20;
+
+    /**
+     * The maximum amount of bytes needed by the weight column (Including the separator), which is guaranteed to fit into the buffer.
+     */
+    private static final int maxWeightSize = 32;
+
+    /**
+     * All variables, in the order of the columns.
+     */
+    private static final Variable[] variables = Variable.values();
+
+    /**
+     * The bytes of every value, including the following separator, indexed by the ordinal of the variable and the ordinal of the value plus one (0 is the missing value symbol).
+     */
+    private static final byte[][][] values;
+
+    /**
+     * The maximum amount of bytes needed by a single case, excluding the weight column.
+     */
+    private static final int maxCaseSize;
+
+    static
+    {
+        values = new byte[variables.length][][];
+        int caseSize = 0;
+        for(Variable variable: variables)
+        {
+            String separator = variable == Variable.FINAL_GRADE? "\n": " ";
+            byte[][] variableValues = new byte[variable.getNumValues() + 1][];
+            variableValues[0] = ("*" + separator).getBytes(StandardCharsets.UTF_8);
+            int maxValueSize = variableValues[0].length;
+            for(int i = 0; i < variable.getNumValues(); i++)
+            {
+                variableValues[i + 1] = (variable.getValue(i).toString() + separator).getBytes(StandardCharsets.UTF_8);
+                maxValueSize = java.lang.Math.max(maxValueSize, variableValues[i + 1].length);
+            }
+            values[variable.ordinal()] = variableValues;
+            caseSize += maxValueSize;
+        }
+        maxCaseSize = caseSize;
+    }
+
+    /**
+     * The output stream receiving the cases.
+     */
+    private final OutputStream outputStream;
+
+    /**
+     * True if the weight of every case is written to the NumCases column.
+     */
+    private final boolean weighted;
+
+    /**
+     * The buffer collecting the cases.
+     */
+    private final byte[] buffer = new byte[bufferSize];
+
+    /**
+     * The amount of bytes within the buffer.
+     */
+    private int position = 0;
+
+    /**
+     * Creates a new writer and writes the header of the case file.
+     * @param outputStream The output stream receiving the cases, closed by {@link #close()}.
+     * @param weighted If true the weight of every case is written to the NumCases column.
+     * @throws IOException If the header could not be written.
+     */
+    public NeticaCaseWriter(OutputStream outputStream, boolean weighted) throws IOException
+    {
+        this.outputStream = outputStream;
+        this.weighted = weighted;
+
+        //Printing the cleaned header
+        StringBuilder header = new StringBuilder();
+        if(weighted)
+        {
+            header.append("NumCases ");
+        }
+        for(Variable variable: Variable.values())
+        {
+            header.append(variable.getHeader()).append(variable == Variable.FINAL_GRADE? "\n": " ");
+        }
+        byte[] headerBytes = header.toString().getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(headerBytes, 0, buffer, 0, headerBytes.length);
+        position = headerBytes.length;
+    }
+
+    /**
+     * Writes all cases of the store to the stated file, which is gzip compressed if its name is ending with ".gz". If the store is weighted, the weight of every case is written to the NumCases column.
+     * @param caseStore The cases.
+     * @param outputFile The file name of the output file.
+     * @throws WhatToStudyException If an error occurs.
+     */
+    public static void write(CaseStore caseStore, String outputFile) throws WhatToStudyException
+    {
+        try(NeticaCaseWriter writer = new NeticaCaseWriter(Compression.openOutput(outputFile), caseStore.isWeighted()))
+        {
+            writer.write(caseStore);
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Error occurred while writing the output file " + outputFile);
+        }
+    }
+
+    /**
+     * Writes all cases of the store. If this writer is weighted, the weight of every case is written to the NumCases column.
+     * @param caseStore The cases.
+     * @throws IOException If the cases could not be written.
+     */
+    public void write(CaseStore caseStore) throws IOException
+    {
+        for(int i = 0; i < caseStore.size(); i++)
+        {
+            write(caseStore.getPacked(i), caseStore.getWeight(i));
+        }
+    }
+
+    /**
+     * Writes a single case with the weight 1.
+     * @param currentCase The case.
+     * @throws IOException If the case could not be written.
+     */
+    public void write(Case currentCase) throws IOException
+    {
+        write(PackedCase.encode(currentCase), 1.0);
+    }
+
+    /**
+     * Writes a single case. The weight is ignored if this writer is not weighted.
+     * @param packed The packed representation of the case.
+     * @param weight The weight of the case.
+     * @throws IOException If the case could not be written.
+     */
+    public void write(long packed, double weight) throws IOException
+    {
+        if(position + maxWeightSize + maxCaseSize > buffer.length)
+        {
+            flushBuffer();
+        }
+        if(weighted)
+        {
+            writeWeight(weight);
+        }
+        for(int i = 0; i < variables.length; i++)
+        {
+            byte[] value = values[i][PackedCase.get(packed, variables[i]) + 1];
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+    }
+
+    /**
+     * Writes the weight column of a case. Integral weights are written without a fraction, like a count.
+     * @param weight The weight of the case.
+     */
+    private void writeWeight(double weight)
+    {
+        if(weight == java.lang.Math.rint(weight) && weight >= 0 && weight < 1e18)
+        {   //Writing the digits from right to left
+            long count = (long) weight;
+            int digits = 1;
+            for(long remaining = count / 10; remaining > 0; remaining /= 10)
+            {
+                digits++;
+            }
+            for(int i = position + digits - 1; i >= position; i--)
+            {
+                buffer[i] = (byte) ('0' + count % 10);
+                count /= 10;
+            }
+            position += digits;
+        } else
+        {
+            byte[] weightBytes = Double.toString(weight).getBytes(StandardCharsets.UTF_8);
+            System.arraycopy(weightBytes, 0, buffer, position, weightBytes.length);
+            position += weightBytes.length;
+        }
+        buffer[position++] = ' ';
+    }
+
+    /**
+     * Writes the content of the buffer to the output stream.
+     * @throws IOException If the buffer could not be written.
+     */
+    private void flushBuffer() throws IOException
+    {
+        if(position > 0)
+        {
+            outputStream.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * Writes all buffered cases to the output stream and flushes it.
+     * @throws IOException If the cases could not be written.
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        flushBuffer();
+        outputStream.flush();
+    }
+
+    /**
+     * Writes all buffered cases and closes the output stream.
+     * @throws IOException If the cases could not be written.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flushBuffer();
+        } finally
+        {
+            outputStream.close();
+        }
+    }
+}
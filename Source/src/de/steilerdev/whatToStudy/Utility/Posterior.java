@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Utility.Case.Course;
+import de.steilerdev.whatToStudy.Utility.Case.FinalGrade;
+
+/**
+ * This class is storing the result of the inference for a set of evidence: The distribution of the {@link de.steilerdev.whatToStudy.Utility.Case.FinalGrade final grade} for every evaluated {@link de.steilerdev.whatToStudy.Utility.Case.Course course}.
+ * If the evidence stated a course only the distribution of this course is available, otherwise the distributions of all courses are available together with their {@link de.steilerdev.whatToStudy.Utility.CourseRanking ranking}.<br>
+ * Objects of this class are immutable and can be shared between threads (e.g. by a {@link de.steilerdev.whatToStudy.Network.PosteriorCache cache}).
+ */
+public class Posterior
+{
+    /**
+     * The distribution of the final grade, indexed by the ordinal of the course and the ordinal of the final grade. The distribution of a course that was not evaluated is null.
+     */
+    private final double[][] finalGradeBeliefs;
+
+    /**
+     * The ranking of all courses, or null if not all courses were evaluated.
+     */
+    private final CourseRanking ranking;
+
+    /**
+     * Creates a new posterior.
+     * @param finalGradeBeliefs The distribution of the final grade, indexed by the ordinal of the course and the ordinal of the final grade. The distribution of a course that was not evaluated needs to be null. The array is taken over by the posterior.
+     */
+    public Posterior(double[][] finalGradeBeliefs)
+    {
+        this.finalGradeBeliefs = finalGradeBeliefs;
+
+        double[] beliefs = new double[finalGradeBeliefs.length];
+        boolean complete = true;
+        for(Course course: Course.values())
+        {
+            if(finalGradeBeliefs[course.ordinal()] == null)
+            {
+                complete = false;
+            } else
+            {
+                beliefs[course.ordinal()] = getBeliefForRecommendation(course);
+            }
+        }
+        ranking = complete? new CourseRanking(beliefs): null;
+    }
+
+    /**
+     * Checks if the stated course was evaluated.
+     * @param course The course.
+     * @return True if the distribution of the final grade is available for the course, false otherwise.
+     */
+    public boolean isEvaluated(Course course)
+    {
+        return finalGradeBeliefs[course.ordinal()] != null;
+    }
+
+    /**
+     * Returns the belief of the stated final grade, if the student attends the stated course.
+     * @param course The course, needs to be {@link #isEvaluated(Course) evaluated}.
+     * @param finalGrade The final grade.
+     * @return The belief of the final grade.
+     */
+    public double getBelief(Course course, FinalGrade finalGrade)
+    {
+        return finalGradeBeliefs[course.ordinal()][finalGrade.ordinal()];
+    }
+
+    /**
+     * Returns the belief for recommending the stated course (A very good grade, or partly a good grade).
+     * @param course The course, needs to be {@link #isEvaluated(Course) evaluated}.
+     * @return The belief for recommending the course.
+     */
+    public double getBeliefForRecommendation(Course course)
+    {
+        //return getBelief(course, FinalGrade.VERY_GOOD) + getBelief(course, FinalGrade.GOOD);
+        return getBelief(course, FinalGrade.VERY_GOOD) + (2*getBelief(course, FinalGrade.GOOD)/3);
+    }
+
+    /**
+     * Returns the ranking of all courses.
+     * @return The ranking, or null if not all courses were evaluated.
+     */
+    public CourseRanking getRanking()
+    {
+        return ranking;
+    }
+}
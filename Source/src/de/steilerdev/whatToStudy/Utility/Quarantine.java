@@ -0,0 +1,232 @@
+/**
+ * Copyright (C) 2015 Frank Steiler <frank@steilerdev.de>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.steilerdev.whatToStudy.Utility;
+
+import de.steilerdev.whatToStudy.Exception.WhatToStudyException;
+import de.steilerdev.whatToStudy.Main;
+import de.steilerdev.whatToStudy.Utility.Case.Variable;
+
+import java.io.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class is collecting the invalid lines of the read CSV files, if the lenient mode is enabled by stating a quarantine file using {@link de.steilerdev.whatToStudy.Main#quarantineFile}.
+ * Instead of aborting the whole run, an invalid line is skipped and written to the quarantine file together with its line number, the rejected column and the reason, while the valid lines keep flowing.<br>
+ * The lines are written by a separate thread, therefore the readers are not waiting for the disk. The quarantine is process wide and is closed during the {@link #shutdown()}, which is printing a summary of the rejected lines of every column.
+ */
+public class Quarantine
+{
+    /**
+     * The quarantine of the current run, or null if it was not yet opened.
+     */
+    private static Quarantine quarantine = null;
+
+    /**
+     * The maximum amount of rejected lines waiting to be written.
+     */
+    private static final int queueSize = 4096;
+
+    /**
+     * The element marking the end of the queue.
+     */
+    private static final String endOfQueue = new String();
+
+    /**
+     * The file path of the quarantine file.
+     */
+    private final String outputFile;
+
+    /**
+     * The rejected lines waiting to be written.
+     */
+    private final ArrayBlockingQueue<String> queue = new ArrayBlockingQueue<>(queueSize);
+
+    /**
+     * The amount of rejected lines of every column, indexed by the ordinal of the variable plus one (0 is counting lines with an invalid amount of columns).
+     */
+    private final AtomicLongArray rejectedLines = new AtomicLongArray(Variable.values().length + 1);
+
+    /**
+     * The thread writing the rejected lines.
+     */
+    private final Thread writer;
+
+    /**
+     * The error occurred while writing the quarantine file, if any.
+     */
+    private volatile WhatToStudyException writerError = null;
+
+    /**
+     * Creates the quarantine file and starts the thread writing the rejected lines.
+     * @param outputFile The file path of the quarantine file.
+     * @throws WhatToStudyException If the file could not be created.
+     */
+    private Quarantine(String outputFile) throws WhatToStudyException
+    {
+        this.outputFile = outputFile;
+        BufferedWriter bw;
+        try
+        {
+            bw = new BufferedWriter(new OutputStreamWriter(Compression.openOutput(outputFile)));
+            bw.write("Line" + CSVStreamer.cvsSplitBy + "Column" + CSVStreamer.cvsSplitBy + "Reason" + CSVStreamer.cvsSplitBy + "Content");
+            bw.newLine();
+        } catch (IOException e)
+        {
+            throw new WhatToStudyException("Unable to create the quarantine file " + outputFile);
+        }
+        writer = new Thread(() -> writeLines(bw), "Quarantine-Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the quarantine of the current run, which is opened as soon as it is needed.
+     * @return The quarantine, or null if the lenient mode is disabled.
+     * @throws WhatToStudyException If the quarantine file could not be created.
+     */
+    public static synchronized Quarantine getQuarantine() throws WhatToStudyException
+    {
+        if(quarantine == null && Main.quarantineFile != null && !Main.quarantineFile.isEmpty())
+        {
+            quarantine = new Quarantine(Main.quarantineFile);
+        }
+        return quarantine;
+    }
+
+    /**
+     * Hands a rejected line over to the writing thread. This function is thread safe.
+     * @param lineNumber The line number of the line within its file.
+     * @param line The content of the line.
+     * @param variable The variable of the rejected column, or null if the amount of columns was invalid.
+     * @param reason The reason why the line was rejected.
+     */
+    public void reject(int lineNumber, String line, Variable variable, String reason)
+    {
+        rejectedLines.incrementAndGet(variable == null? 0: variable.ordinal() + 1);
+        String entry = lineNumber + CSVStreamer.cvsSplitBy + (variable == null? "Columns": variable.getHeader()) + CSVStreamer.cvsSplitBy + reason + CSVStreamer.cvsSplitBy + line;
+        try
+        {
+            queue.put(entry);
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the total amount of rejected lines.
+     * @return The amount of rejected lines.
+     */
+    public long getRejectedLines()
+    {
+        long total = 0;
+        for(int i = 0; i < rejectedLines.length(); i++)
+        {
+            total += rejectedLines.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Writes the rejected lines until the end of the queue is reached and closes the file. If the file could not be written, the remaining lines are discarded.
+     * @param bw The writer of the quarantine file.
+     */
+    private void writeLines(BufferedWriter bw)
+    {
+        try
+        {
+            String entry;
+            while((entry = queue.take()) != endOfQueue)
+            {
+                if(writerError == null)
+                {
+                    try
+                    {
+                        bw.write(entry);
+                        bw.newLine();
+                    } catch (IOException e)
+                    {
+                        writerError = new WhatToStudyException("Error occurred while writing the quarantine file " + outputFile);
+                    }
+                }
+            }
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        } finally
+        {
+            try
+            {
+                bw.close();
+            } catch (IOException e)
+            {
+                writerError = new WhatToStudyException("Error occurred while writing the quarantine file " + outputFile);
+            }
+        }
+    }
+
+    /**
+     * Creates a summary of the rejected lines of every column.
+     * @return The summary.
+     */
+    private String getSummary()
+    {
+        StringBuilder summary = new StringBuilder("Quarantined " + getRejectedLines() + " invalid lines to " + outputFile);
+        if(rejectedLines.get(0) > 0)
+        {
+            summary.append(System.lineSeparator()).append("    Invalid number of columns: ").append(rejectedLines.get(0));
+        }
+        for(Variable variable: Variable.values())
+        {
+            long count = rejectedLines.get(variable.ordinal() + 1);
+            if(count > 0)
+            {
+                summary.append(System.lineSeparator()).append("    ").append(variable.getHeader()).append(": ").append(count);
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Writes all remaining rejected lines, closes the quarantine file and prints the summary of the rejected lines, if the quarantine was opened during the run.
+     * @throws WhatToStudyException If the quarantine file could not be written.
+     */
+    public static synchronized void shutdown() throws WhatToStudyException
+    {
+        if(quarantine == null)
+        {
+            return;
+        }
+        Quarantine current = quarantine;
+        quarantine = null;
+        try
+        {
+            current.queue.put(endOfQueue);
+            current.writer.join();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new WhatToStudyException("Interrupted while writing the quarantine file.");
+        }
+        System.out.println(current.getSummary());
+        if(current.writerError != null)
+        {
+            throw current.writerError;
+        }
+    }
+}